@@ -31,6 +31,7 @@ import com.ad1.loggenerator.service.AWSLogService;
 import com.ad1.loggenerator.service.implementation.AWSBatchService;
 import com.ad1.loggenerator.service.implementation.AWSStreamService;
 import com.ad1.loggenerator.service.implementation.BatchTrackerService;
+import com.ad1.loggenerator.service.implementation.LogService;
 import com.ad1.loggenerator.service.implementation.StatisticsUtilitiesService;
 import com.ad1.loggenerator.service.implementation.StreamTrackerService;
 import com.ad1.loggenerator.service.implementation.StreamingService;
@@ -53,6 +54,7 @@ public class LogController {
     private final AWSBatchService awsbatchService;
     private final AWSStreamService awsStreamService;
     private final StreamingService streamingService;
+    private final LogService logService;
     private AWSLogService awsLogService;
 
     /**
@@ -67,6 +69,7 @@ public class LogController {
             @Valid @RequestBody SelectionModel selectionModel) throws InterruptedException, IOException {
 
         if (selectionModel.getMode().equals("Batch")) {
+            logService.validatePlan(selectionModel);
             String jobId = awsLogService.generateJobId();
             URL objectURL = null;
             selectionModel.setJobId(jobId);
@@ -101,6 +104,7 @@ public class LogController {
             @Valid @RequestBody SelectionModel selectionModel) throws InterruptedException {
         URL object = null;
         if (selectionModel.getMode().equals("Stream")) {
+            logService.validatePlan(selectionModel);
 
             // If a stream address was specified, check the address
             if (!selectionModel.getStreamSettings().getStreamAddress().isEmpty()) {
@@ -152,6 +156,7 @@ public class LogController {
             @Valid @RequestBody SelectionModel selectionModel) throws InterruptedException, IOException {
 
         if (selectionModel.getMode().equals("Stream")) {
+            logService.validatePlan(selectionModel);
             String jobId = awsLogService.generateJobId();
             URL objectURL = null;
             selectionModel.setJobId(jobId);
@@ -188,6 +193,7 @@ public class LogController {
             @Valid @RequestBody SelectionModel selectionModel) throws InterruptedException, IOException {
 
         if (selectionModel.getMode().equals("Stream")) {
+            logService.validatePlan(selectionModel);
             String jobId = awsLogService.generateJobId();
             URL objectURL = null;
             selectionModel.setJobId(jobId);
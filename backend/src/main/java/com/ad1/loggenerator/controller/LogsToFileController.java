@@ -17,6 +17,7 @@ import com.ad1.loggenerator.model.SelectionModel;
 import com.ad1.loggenerator.model.StreamTracker;
 import com.ad1.loggenerator.service.implementation.BatchService;
 import com.ad1.loggenerator.service.implementation.BatchTrackerService;
+import com.ad1.loggenerator.service.implementation.LogService;
 import com.ad1.loggenerator.service.implementation.StreamTrackerService;
 import com.ad1.loggenerator.service.implementation.StreamingService;
 
@@ -36,6 +37,7 @@ public class LogsToFileController {
     private final BatchTrackerService batchServiceTracker;
     private final StreamingService streamingService;
     private final StreamTrackerService streamServiceTracker;
+    private final LogService logService;
 
     /**
      * Method to generate log files in batch mode and save locally
@@ -50,6 +52,7 @@ public class LogsToFileController {
 
         URL object = null;
         if (selectionModel.getMode().equals("Batch")) {
+            logService.validatePlan(selectionModel);
             String jobId = batchService.generateJobId();
             selectionModel.setJobId(jobId);
             BatchTracker batchJobTracker = new BatchTracker(
@@ -83,6 +86,7 @@ public class LogsToFileController {
             @Valid @RequestBody SelectionModel selectionModel) throws InterruptedException {
         URL object = null;
         if (selectionModel.getMode().equals("Stream")) {
+            logService.validatePlan(selectionModel);
 
             // If a stream address was specified, check the address
             if (!selectionModel.getStreamSettings().getStreamAddress().isEmpty()) {
@@ -100,6 +100,24 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorDetails, HttpStatus.SERVICE_UNAVAILABLE);
     }
 
+    /**
+     * Handles specified exception when the settings of a job cannot be
+     * compiled into a plan
+     * @param exception
+     * @param webRequest
+     * @return error message details
+     */
+    @ExceptionHandler(InvalidSettingsException.class)
+    public ResponseEntity<ErrorDetails> handleInvalidSettingsException(InvalidSettingsException exception,
+                                                                       WebRequest webRequest) {
+        ErrorDetails errorDetails = new ErrorDetails(LocalDateTime.now(),
+                exception.getMessage(),
+                webRequest.getDescription(false),
+                "INVALID GENERATION SETTINGS"
+        );
+        return new ResponseEntity<>(errorDetails, HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleMethodArgumentNotValidException(MethodArgumentNotValidException exception,
                                                                         WebRequest webRequest) {
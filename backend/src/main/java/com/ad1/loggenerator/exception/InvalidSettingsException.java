@@ -0,0 +1,12 @@
+package com.ad1.loggenerator.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidSettingsException extends RuntimeException {
+    
+    public InvalidSettingsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,104 @@
+package com.ad1.loggenerator.generation;
+
+/**
+ * Vose alias table for sampling an index from a discrete distribution in
+ * constant time, however many outcomes there are. The table is built once
+ * from the weights and sampling uses a single random long
+ */
+public final class AliasTable {
+
+    // probability of keeping each column instead of taking its alias
+    private final double[] probabilities;
+    // outcome used when a column is not kept
+    private final int[] aliases;
+
+    /**
+     * Builds the table from non negative weights. The weights do not need to
+     * add up to 1
+     *
+     * @param weights the weight of each outcome, at least one must be positive
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("Alias table needs at least one weight");
+        }
+
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight)) {
+                throw new IllegalArgumentException("Alias table weights must not be negative");
+            }
+            total += weight;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("Alias table needs a positive weight");
+        }
+
+        probabilities = new double[n];
+        aliases = new int[n];
+
+        // scale the weights so the average column holds exactly 1
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        // fill each small column with the remaining mass of a large one
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probabilities[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1;
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+
+        // whatever is left is full up to rounding errors
+        while (largeCount > 0) {
+            int more = large[--largeCount];
+            probabilities[more] = 1;
+            aliases[more] = more;
+        }
+        while (smallCount > 0) {
+            int less = small[--smallCount];
+            probabilities[less] = 1;
+            aliases[less] = less;
+        }
+    }
+
+    /**
+     * @return the number of outcomes
+     */
+    public int size() {
+        return probabilities.length;
+    }
+
+    /**
+     * Samples an outcome. The high bits of one random long pick the column
+     * and the low bits decide between the column and its alias
+     *
+     * @param random
+     * @return the index of the sampled weight
+     */
+    public int sample(RandomSource random) {
+        long bits = random.nextLong();
+        int column = (int) (((bits >>> 32) * probabilities.length) >>> 32);
+        double coin = (bits & 0xFFFFFFFFL) * 0x1.0p-32;
+        return coin < probabilities[column] ? column : aliases[column];
+    }
+
+}
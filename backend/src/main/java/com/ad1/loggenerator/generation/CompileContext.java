@@ -0,0 +1,19 @@
+package com.ad1.loggenerator.generation;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Options of a job that field generators can use while compiling their
+ * writers
+ */
+@Getter
+@AllArgsConstructor
+public final class CompileContext {
+
+    // use cryptographically secure UUIDs instead of the faster random ids
+    private final boolean secureIds;
+    // random source for values that are fixed when the plan is compiled
+    private final RandomSource compileRandom;
+
+}
@@ -0,0 +1,135 @@
+package com.ad1.loggenerator.generation;
+
+import com.ad1.loggenerator.model.ArrivalDistribution;
+
+/**
+ * Monotonic event time of a job. Every line moves the clock forward by a gap
+ * drawn from the arrival distribution, so timestamps follow each other the
+ * way real events do. The clock keeps its time in nanoseconds and never
+ * reads the system clock while lines are generated
+ */
+public final class EventClock {
+
+    // share of the events that arrive during bursts
+    private static final double BURST_EVENT_SHARE = 0.9;
+    // average gap during a burst, relative to the average gap
+    private static final double BURST_GAP_FACTOR = 0.1;
+    // chance of leaving a burst after an event
+    private static final double LEAVE_BURST_CHANCE = 0.01;
+    // chance of entering a burst after a quiet event, chosen so the share of
+    // burst events is BURST_EVENT_SHARE
+    private static final double ENTER_BURST_CHANCE = LEAVE_BURST_CHANCE * BURST_EVENT_SHARE
+            / (1 - BURST_EVENT_SHARE);
+    // average gap between quiet events, chosen so the overall average gap is kept
+    private static final double QUIET_GAP_FACTOR = (1 - BURST_EVENT_SHARE * BURST_GAP_FACTOR)
+            / (1 - BURST_EVENT_SHARE);
+
+    // epoch time of the first event in nanoseconds
+    private final long startNanos;
+    // average gap between events in nanoseconds
+    private final double meanGapNanos;
+    // distribution of the gaps
+    private final ArrivalDistribution distribution;
+
+    // epoch time of the last event in nanoseconds
+    private long eventTimeNanos;
+    // whether the clock is in a burst, for bursty arrivals
+    private boolean inBurst;
+
+    /**
+     * @param startSeconds    epoch second of the first event
+     * @param eventsPerSecond average number of events per second
+     * @param speedUp         seconds of event time per second of generation
+     * @param distribution    distribution of the gaps between events
+     */
+    public EventClock(long startSeconds, double eventsPerSecond, double speedUp,
+            ArrivalDistribution distribution) {
+        this(startSeconds * 1_000_000_000L, 1e9 * speedUp / eventsPerSecond, distribution);
+    }
+
+    private EventClock(long startNanos, double meanGapNanos, ArrivalDistribution distribution) {
+        this.startNanos = startNanos;
+        this.meanGapNanos = meanGapNanos;
+        this.distribution = distribution;
+        this.eventTimeNanos = startNanos;
+    }
+
+    /**
+     * Creates a clock with the same settings that starts from the beginning,
+     * for a new context of the same plan
+     *
+     * @return the new clock
+     */
+    public EventClock copy() {
+        return new EventClock(startNanos, meanGapNanos, distribution);
+    }
+
+    /**
+     * Creates a clock with the settings of this clock that continues from
+     * the time another clock reached, for a schema change of a running job.
+     * In counter based mode the start is moved so the times of the lines
+     * from lineIndex on follow the times of the lines before
+     *
+     * @param previous  the clock of the lines before
+     * @param lineIndex index of the next line to generate
+     * @return the new clock
+     */
+    public EventClock continueFrom(EventClock previous, long lineIndex) {
+        long start = previous.startNanos + (long) (lineIndex * (previous.meanGapNanos - meanGapNanos));
+        EventClock clock = new EventClock(start, meanGapNanos, distribution);
+        clock.eventTimeNanos = previous.eventTimeNanos;
+        clock.inBurst = previous.inBurst;
+        return clock;
+    }
+
+    /**
+     * Moves the clock to the next event of the line being generated. In
+     * counter based mode the time only depends on the line index: the line
+     * is placed at a random point of its own average sized gap, which keeps
+     * the times monotonic without knowing the previous lines
+     *
+     * @param context the state of the running job
+     * @return the epoch second of the event
+     */
+    public long nextSecond(GenerationContext context) {
+        RandomSource random = context.getRandom();
+        if (context.getCounterKey() != null) {
+            double slot = context.getLineIndex() - 1 + random.nextDouble();
+            eventTimeNanos = startNanos + (long) (slot * meanGapNanos);
+        } else {
+            eventTimeNanos += nextGapNanos(random);
+        }
+        return eventTimeNanos / 1_000_000_000L;
+    }
+
+    /**
+     * @return the epoch time of the last event in nanoseconds
+     */
+    public long getEventTimeNanos() {
+        return eventTimeNanos;
+    }
+
+    private long nextGapNanos(RandomSource random) {
+        switch (distribution) {
+            case UNIFORM:
+                return (long) (2 * meanGapNanos * random.nextDouble());
+            case BURSTY:
+                if (inBurst) {
+                    inBurst = random.nextDouble() >= LEAVE_BURST_CHANCE;
+                } else {
+                    inBurst = random.nextDouble() < ENTER_BURST_CHANCE;
+                }
+                double factor = inBurst ? BURST_GAP_FACTOR : QUIET_GAP_FACTOR;
+                return exponential(meanGapNanos * factor, random);
+            case POISSON:
+            default:
+                return exponential(meanGapNanos, random);
+        }
+    }
+
+    private static long exponential(double mean, RandomSource random) {
+        // 1 - nextDouble() is in (0, 1], so the log is always finite
+        return (long) (-mean * Math.log(1 - random.nextDouble()));
+    }
+
+}
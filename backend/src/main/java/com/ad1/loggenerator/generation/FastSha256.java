@@ -0,0 +1,60 @@
+package com.ad1.loggenerator.generation;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formats random 256 bit values as 64 character lowercase hex strings, the
+ * same shape as a SHA256 file digest. Four random longs are encoded with the
+ * hex lookup table, so no hashing is done
+ */
+public final class FastSha256 {
+
+    // length of a formatted SHA256 digest
+    public static final int LENGTH = 64;
+
+    private FastSha256() {
+    }
+
+    /**
+     * Generates a random SHA256 shaped digest
+     *
+     * @param random
+     * @return the digest as lowercase hex
+     */
+    public static String next(RandomSource random) {
+        byte[] buffer = new byte[LENGTH];
+        writeTo(buffer, 0, random);
+        return new String(buffer, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Writes a random SHA256 shaped digest as ASCII bytes
+     *
+     * @param buffer the destination, must have LENGTH bytes from offset
+     * @param offset position of the first byte to write
+     * @param random
+     */
+    public static void writeTo(byte[] buffer, int offset, RandomSource random) {
+        int pos = Hex.writeLong(buffer, offset, random.nextLong());
+        pos = Hex.writeLong(buffer, pos, random.nextLong());
+        pos = Hex.writeLong(buffer, pos, random.nextLong());
+        Hex.writeLong(buffer, pos, random.nextLong());
+    }
+
+    /**
+     * Generates a bounded pool of random digests, so a job can control how
+     * many distinct hashes it produces
+     *
+     * @param size   number of digests in the pool
+     * @param random
+     * @return the pool of digests
+     */
+    public static String[] pool(int size, RandomSource random) {
+        String[] pool = new String[size];
+        for (int i = 0; i < size; i++) {
+            pool[i] = next(random);
+        }
+        return pool;
+    }
+
+}
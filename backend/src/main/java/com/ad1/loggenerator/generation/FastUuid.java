@@ -0,0 +1,55 @@
+package com.ad1.loggenerator.generation;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formats version 4 shaped UUIDs from a RandomSource. The ids look like the
+ * ones from UUID.randomUUID() but are not cryptographically secure, which
+ * avoids the SecureRandom cost of the JDK implementation
+ */
+public final class FastUuid {
+
+    // length of a formatted UUID
+    public static final int LENGTH = 36;
+
+    private FastUuid() {
+    }
+
+    /**
+     * Generates a random version 4 shaped UUID
+     *
+     * @param random
+     * @return the UUID in its canonical lowercase form
+     */
+    public static String next(RandomSource random) {
+        byte[] buffer = new byte[LENGTH];
+        writeTo(buffer, 0, random.nextLong(), random.nextLong());
+        return new String(buffer, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Writes the canonical form of a UUID with the version 4 and IETF variant
+     * bits set as ASCII bytes
+     *
+     * @param buffer the destination, must have LENGTH bytes from offset
+     * @param offset position of the first byte to write
+     * @param msb    the most significant bits of the UUID
+     * @param lsb    the least significant bits of the UUID
+     */
+    public static void writeTo(byte[] buffer, int offset, long msb, long lsb) {
+        msb = (msb & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L;
+        lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        int pos = offset;
+        pos = Hex.writeBytes(buffer, pos, msb, 56, 4);
+        buffer[pos++] = '-';
+        pos = Hex.writeBytes(buffer, pos, msb, 24, 2);
+        buffer[pos++] = '-';
+        pos = Hex.writeBytes(buffer, pos, msb, 8, 2);
+        buffer[pos++] = '-';
+        pos = Hex.writeBytes(buffer, pos, lsb, 56, 2);
+        buffer[pos++] = '-';
+        Hex.writeBytes(buffer, pos, lsb, 40, 6);
+    }
+
+}
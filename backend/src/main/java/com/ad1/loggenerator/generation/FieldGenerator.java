@@ -0,0 +1,50 @@
+package com.ad1.loggenerator.generation;
+
+import java.util.Map;
+
+import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.fieldsettingsmodels.FieldSetting;
+
+/**
+ * A kind of log line field. Generators are registered in a
+ * FieldGeneratorRegistry by the name of their field and compile the
+ * settings of a job into a FieldWriter, so the fields a job does not include
+ * cost nothing per line
+ *
+ * @param <S> the type of the settings of the field
+ */
+public interface FieldGenerator<S extends FieldSetting> {
+
+    /**
+     * @return the name of the field in the log line
+     */
+    String getName();
+
+    /**
+     * @return the type of the settings of the field
+     */
+    Class<S> getSettingsType();
+
+    /**
+     * Finds the settings of this field in the field settings of a job. Fields
+     * other than the built-in ones are read from the additional fields
+     *
+     * @param fieldSettings
+     * @return the settings, null if the job has none for this field
+     */
+    default S getSettings(FieldSettings fieldSettings) {
+        Map<String, Object> additionalFields = fieldSettings.getAdditionalFields();
+        Object settings = additionalFields != null ? additionalFields.get(getName()) : null;
+        return settings != null ? FieldGeneratorRegistry.convertSettings(settings, getSettingsType()) : null;
+    }
+
+    /**
+     * Compiles the settings of a job into the writer of the field
+     *
+     * @param settings the settings of the field, the field is included
+     * @param context  the options of the job being compiled
+     * @return the writer used on every line
+     */
+    FieldWriter compile(S settings, CompileContext context);
+
+}
@@ -0,0 +1,107 @@
+package com.ad1.loggenerator.generation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import com.ad1.loggenerator.generation.fields.BusinessGuidGenerator;
+import com.ad1.loggenerator.generation.fields.CurrentUserIdGenerator;
+import com.ad1.loggenerator.generation.fields.DispositionGenerator;
+import com.ad1.loggenerator.generation.fields.FileSha256Generator;
+import com.ad1.loggenerator.generation.fields.MessageGenerator;
+import com.ad1.loggenerator.generation.fields.PathToFileGenerator;
+import com.ad1.loggenerator.generation.fields.ProcessingTimeGenerator;
+import com.ad1.loggenerator.generation.fields.TimeStampGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+/**
+ * The field generators a job can use, in the order their fields are written.
+ * A registry starts with the built-in fields and new fields are added by
+ * registering their generator
+ */
+public final class FieldGeneratorRegistry {
+
+    // converts the settings of additional fields read as JSON maps
+    private static final ObjectMapper SETTINGS_MAPPER = new ObjectMapper();
+    // checks the constraints of additional field settings, which the request
+    // validation does not reach inside the map
+    private static final Validator SETTINGS_VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
+    // generators by field name, in output order
+    private final Map<String, FieldGenerator<?>> generators = new LinkedHashMap<>();
+
+    /**
+     * Creates a registry with the built-in fields
+     *
+     * @return the registry
+     */
+    public static FieldGeneratorRegistry withBuiltIns() {
+        FieldGeneratorRegistry registry = new FieldGeneratorRegistry();
+        registry.register(new TimeStampGenerator());
+        registry.register(new ProcessingTimeGenerator());
+        registry.register(new CurrentUserIdGenerator());
+        registry.register(new BusinessGuidGenerator());
+        registry.register(new PathToFileGenerator());
+        registry.register(new FileSha256Generator());
+        registry.register(new DispositionGenerator());
+        registry.register(new MessageGenerator());
+        return registry;
+    }
+
+    /**
+     * Adds a generator, replacing the generator of a field with the same name
+     *
+     * @param generator
+     */
+    public void register(FieldGenerator<?> generator) {
+        generators.put(generator.getName(), generator);
+    }
+
+    /**
+     * @param name
+     * @return the generator of the field, null if there is none
+     */
+    public FieldGenerator<?> get(String name) {
+        return generators.get(name);
+    }
+
+    /**
+     * @return the generators in output order
+     */
+    public List<FieldGenerator<?>> getGenerators() {
+        return Collections.unmodifiableList(new ArrayList<>(generators.values()));
+    }
+
+    /**
+     * Utility method to convert the settings of an additional field, which
+     * are read from the request as a map, to the settings type of its
+     * generator, and to check their constraints
+     *
+     * @param <S>
+     * @param settings
+     * @param settingsType
+     * @return the settings
+     * @throws IllegalArgumentException if the settings break a constraint
+     */
+    static <S> S convertSettings(Object settings, Class<S> settingsType) {
+        S converted = settingsType.isInstance(settings) ? settingsType.cast(settings)
+                : SETTINGS_MAPPER.convertValue(settings, settingsType);
+        Set<ConstraintViolation<S>> violations = SETTINGS_VALIDATOR.validate(converted);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return converted;
+    }
+
+}
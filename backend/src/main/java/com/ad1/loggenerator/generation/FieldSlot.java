@@ -0,0 +1,73 @@
+package com.ad1.loggenerator.generation;
+
+import lombok.Getter;
+
+/**
+ * A single resolved field of a log line. A slot is either generated on every
+ * line or holds a constant value, such as a custom log value or the null used
+ * to pad fields from the master field list
+ */
+@Getter
+public final class FieldSlot {
+
+    // name of the field in the log line
+    private final String name;
+    // writer of the field value, null if the value is constant
+    private final FieldWriter writer;
+    // value of the field if it is constant
+    private final Object constant;
+
+    private FieldSlot(String name, FieldWriter writer, Object constant) {
+        this.name = name;
+        this.writer = writer;
+        this.constant = constant;
+    }
+
+    /**
+     * Creates a slot whose value is generated on every line
+     *
+     * @param name
+     * @param writer
+     * @return the slot
+     */
+    public static FieldSlot generated(String name, FieldWriter writer) {
+        return new FieldSlot(name, writer, null);
+    }
+
+    /**
+     * Creates a slot with the same value on every line
+     *
+     * @param name
+     * @param constant
+     * @return the slot
+     */
+    public static FieldSlot constant(String name, Object constant) {
+        return new FieldSlot(name, null, constant);
+    }
+
+    /**
+     * Creates a slot with the value of this slot under another name
+     *
+     * @param name
+     * @return the slot
+     */
+    public FieldSlot renamed(String name) {
+        return name.equals(this.name) ? this : new FieldSlot(name, writer, constant);
+    }
+
+    /**
+     * @return true if the slot has the same value on every line
+     */
+    public boolean isConstant() {
+        return writer == null;
+    }
+
+    /**
+     * @param context the state of the running job
+     * @return the value of the field for the current line
+     */
+    public Object value(GenerationContext context) {
+        return writer == null ? constant : writer.generate(context);
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.ad1.loggenerator.generation;
+
+/**
+ * Produces the value of a single log line field. Writers are compiled once
+ * per job by a FieldGenerator when the SelectionModel is compiled into a
+ * GenerationPlan, so any decision that does not change between lines is made
+ * before the first line
+ */
+@FunctionalInterface
+public interface FieldWriter {
+
+    /**
+     * Generates the next value for the field
+     *
+     * @param context the state of the running job
+     * @return the field value
+     */
+    Object generate(GenerationContext context);
+
+    /**
+     * Writes the next value for the field as JSON. Writers override this to
+     * skip the boxed value, but must use the same random values as generate
+     *
+     * @param encoder the destination of the value
+     * @param context the state of the running job
+     */
+    default void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+        encoder.writeValue(generate(context));
+    }
+
+    /**
+     * Writes the next value for the field as plain text for a line template.
+     * Like writeTo it must use the same random values as generate
+     *
+     * @param encoder      the destination of the value
+     * @param context      the state of the running job
+     * @param escapes      characters escaped with a backslash
+     */
+    default void writeText(JsonLineEncoder encoder, GenerationContext context, TextEscapes escapes) {
+        encoder.writeText(generate(context), escapes);
+    }
+
+    /**
+     * @return the most bytes writeTo can write for one value, -1 if there is
+     *         no bound. Only layouts whose values are all bounded can be
+     *         patched in place
+     */
+    default int maxWidth() {
+        return -1;
+    }
+
+}
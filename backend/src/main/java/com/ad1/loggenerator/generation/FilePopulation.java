@@ -0,0 +1,134 @@
+package com.ad1.loggenerator.generation;
+
+import java.util.List;
+
+/**
+ * Bounded population of files, each with a stable path and hash. A file is
+ * only an id: its path and hash are generated from a random source seeded
+ * with the id, so the same file always has the same pair and the cache of
+ * recently seen files is a ring of longs. A line either reuses a recent
+ * file or adds a new one in place of the oldest
+ */
+public final class FilePopulation {
+
+    // fields generated from the file of the line
+    private static final String PATH_FIELD = "pathToFile";
+    private static final String HASH_FIELD = "fileSHA256";
+    // keeps the random streams of the path and the hash of a file apart
+    private static final long HASH_SALT = 0x632BE59BD9B4E019L;
+
+    private final int size;
+    private final double reuseProbability;
+
+    // ids of the recently seen files
+    private final long[] fileIds;
+    // number of ids in the ring and position of the next new file
+    private int filled;
+    private int next;
+    // id of the file of the current line
+    private long fileId;
+    // context the values of a file are generated in, reseeded per file
+    private final GenerationContext fileContext = new GenerationContext(new RandomSource(0), null, null, null,
+            null, null, null, 0);
+
+    private FilePopulation(int size, double reuseProbability) {
+        this.size = size;
+        this.reuseProbability = reuseProbability;
+        this.fileIds = new long[size];
+    }
+
+    /**
+     * Creates the population of a plan and replaces the path and hash of
+     * the generated slots with the values of the file of each line
+     *
+     * @param size             number of recently seen files kept for reuse
+     * @param reuseProbability chance a line reuses a recently seen file
+     * @param generatedSlots   the generated slots of the job, file fields are
+     *                         replaced in place
+     * @return the population, null if the job has no file field
+     */
+    public static FilePopulation create(int size, double reuseProbability, List<FieldSlot> generatedSlots) {
+        boolean hasFileField = false;
+        for (int i = 0; i < generatedSlots.size(); i++) {
+            FieldSlot slot = generatedSlots.get(i);
+            if (PATH_FIELD.equals(slot.getName()) || HASH_FIELD.equals(slot.getName())) {
+                long salt = HASH_FIELD.equals(slot.getName()) ? HASH_SALT : 0;
+                generatedSlots.set(i, FieldSlot.generated(slot.getName(), new FileWriter(slot.getWriter(), salt)));
+                hasFileField = true;
+            }
+        }
+        return hasFileField ? new FilePopulation(size, reuseProbability) : null;
+    }
+
+    /**
+     * Creates an empty population with the same settings, for a new context
+     * of the same plan
+     *
+     * @return the new population
+     */
+    public FilePopulation copy() {
+        return new FilePopulation(size, reuseProbability);
+    }
+
+    /**
+     * Picks the file of the next values, a recently seen one or a new one
+     * that replaces the oldest file of the ring
+     *
+     * @param context the state of the running job
+     */
+    public void nextFile(GenerationContext context) {
+        RandomSource random = context.getRandom();
+        if (filled > 0 && random.nextDouble() < reuseProbability) {
+            fileId = fileIds[random.nextInt(filled)];
+            return;
+        }
+        fileId = random.nextLong();
+        fileIds[next] = fileId;
+        next = next + 1 < size ? next + 1 : 0;
+        if (filled < size) {
+            filled++;
+        }
+    }
+
+    private GenerationContext fileContext(long salt) {
+        fileContext.getRandom().setSeed(fileId ^ salt);
+        return fileContext;
+    }
+
+    /**
+     * Writer of a file field, which generates the value from the file of
+     * the line
+     */
+    private static final class FileWriter implements FieldWriter {
+
+        private final FieldWriter writer;
+        private final long salt;
+
+        private FileWriter(FieldWriter writer, long salt) {
+            this.writer = writer;
+            this.salt = salt;
+        }
+
+        @Override
+        public Object generate(GenerationContext context) {
+            return writer.generate(context.getFiles().fileContext(salt));
+        }
+
+        @Override
+        public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+            writer.writeTo(encoder, context.getFiles().fileContext(salt));
+        }
+
+        @Override
+        public void writeText(JsonLineEncoder encoder, GenerationContext context, TextEscapes escapes) {
+            writer.writeText(encoder, context.getFiles().fileContext(salt), escapes);
+        }
+
+        @Override
+        public int maxWidth() {
+            return writer.maxWidth();
+        }
+
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.ad1.loggenerator.generation;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Mutable state of a running job. A context is created from the plan by the
+ * thread that generates the lines and is never shared between threads
+ */
+@Getter
+public final class GenerationContext {
+
+    // random source of the job
+    private final RandomSource random;
+    // key of the per line random streams in counter based mode, null otherwise
+    private final Long counterKey;
+    // event clock of the timestamps, null if timestamps are random
+    private final EventClock clock;
+    // active user sessions, null if lines are independent
+    private final SessionPool sessions;
+    // recently seen files, null if files are independent
+    private final FilePopulation files;
+    // recent lines repeats copy from, null if only the line before is repeated
+    private final RepeatWindow repeatWindow;
+    // lines waiting to be written out of order, null if lines are in order
+    private final ReorderBuffer reorderBuffer;
+    // random bits that decide which optional fields are null or missing on the current line
+    private final long[] presenceWords;
+    // index of the next line to generate
+    private long lineIndex;
+    // position in the output where the current line starts
+    @Setter
+    private int lineStart;
+    // number of lines written to the output of the job, repeats included
+    private long linesWritten;
+    // whether lines were written to the JSON array the output is in
+    private boolean arrayHasLines;
+    // whether the next line written is a repeat of the last generated line
+    private boolean repeatPending;
+    // the last generated line, kept while its repeat is pending
+    private final JsonLineEncoder repeatLine = new JsonLineEncoder(1024);
+    // malware signature detected on the current line
+    private int malwareSignature;
+    // start and end of template values written more than once on a line
+    private int[] valueMarks = new int[0];
+    // layouts whose lines are patched in place, and the line kept for each
+    private LineLayout[] patchedLayouts = new LineLayout[0];
+    private JsonLineEncoder[] patchedLines = new JsonLineEncoder[0];
+
+    public GenerationContext(RandomSource random, Long counterKey, EventClock clock, SessionPool sessions,
+            FilePopulation files, RepeatWindow repeatWindow, ReorderBuffer reorderBuffer, int presenceWords) {
+        this.random = random;
+        this.counterKey = counterKey;
+        this.clock = clock;
+        this.sessions = sessions;
+        this.files = files;
+        this.repeatWindow = repeatWindow;
+        this.reorderBuffer = reorderBuffer;
+        this.presenceWords = new long[presenceWords];
+    }
+
+    /**
+     * Starts the next line. In counter based mode the random source is
+     * reseeded from the line index, so the values of line N only depend on
+     * the job and N. One random long per presence word decides which
+     * optional fields are null or missing. The line picks its file from the
+     * file population and joins a session of the session pool, if the job
+     * has them
+     */
+    public void beginLine() {
+        if (counterKey != null) {
+            random.setSeed(RandomSource.mix64(counterKey + lineIndex * RandomSource.GOLDEN_GAMMA));
+        }
+        lineIndex++;
+        for (int i = 0; i < presenceWords.length; i++) {
+            presenceWords[i] = random.nextLong();
+        }
+        if (files != null) {
+            files.nextFile(this);
+        }
+        if (sessions != null) {
+            sessions.nextLine(this);
+        }
+    }
+
+    /**
+     * Moves the context to a line, for example to the first line of a range
+     * generated by another worker
+     *
+     * @param lineIndex index of the next line to generate
+     */
+    public void seekLine(long lineIndex) {
+        this.lineIndex = lineIndex;
+    }
+
+    /**
+     * Continues the output of the context of another plan of the same job,
+     * after a schema change. A pending repeat still repeats the last line
+     *
+     * @param previous the context lines were generated with until now
+     */
+    public void continueFrom(GenerationContext previous) {
+        this.lineIndex = previous.lineIndex;
+        this.linesWritten = previous.linesWritten;
+        this.arrayHasLines = previous.arrayHasLines;
+        this.repeatPending = previous.repeatPending;
+        repeatLine.reset();
+        repeatLine.writeRaw(previous.repeatLine.getBuffer(), 0, previous.repeatLine.size());
+    }
+
+    /**
+     * Counts lines written to the output of the job
+     *
+     * @param count number of lines written, repeats included
+     */
+    public void addLinesWritten(long count) {
+        linesWritten += count;
+        if (count > 0) {
+            arrayHasLines = true;
+        }
+    }
+
+    /**
+     * Starts a new JSON array in the output, so the next line written is not
+     * preceded by a delimiter
+     */
+    public void startArray() {
+        arrayHasLines = false;
+    }
+
+    /**
+     * @param repeatPending whether the next line written repeats the last
+     *                      generated line
+     */
+    public void setRepeatPending(boolean repeatPending) {
+        this.repeatPending = repeatPending;
+    }
+
+    /**
+     * @param malwareSignature index of the malware signature detected on the
+     *                         current line
+     */
+    public void setMalwareSignature(int malwareSignature) {
+        this.malwareSignature = malwareSignature;
+    }
+
+    /**
+     * Remembers where a template value was written on the current line
+     *
+     * @param mark  index of the value
+     * @param start position of the first byte of the value
+     * @param end   position after the last byte of the value
+     */
+    public void markValue(int mark, int start, int end) {
+        if (valueMarks.length <= 2 * mark + 1) {
+            valueMarks = Arrays.copyOf(valueMarks, 2 * mark + 2);
+        }
+        valueMarks[2 * mark] = start;
+        valueMarks[2 * mark + 1] = end;
+    }
+
+    /**
+     * Writes a template value of the current line again
+     *
+     * @param mark    index of the value
+     * @param encoder the line the value was written to
+     */
+    public void copyValue(int mark, JsonLineEncoder encoder) {
+        encoder.copy(valueMarks[2 * mark], valueMarks[2 * mark + 1]);
+    }
+
+    /**
+     * Gets the line of a layout that is patched in place, starting from the
+     * patch line of the layout the first time the layout is used. A plan has
+     * a few layouts, so they are searched in order
+     *
+     * @param layout a patchable layout
+     * @return the line last written with the layout
+     */
+    public JsonLineEncoder getPatchedLine(LineLayout layout) {
+        for (int i = 0; i < patchedLayouts.length; i++) {
+            if (patchedLayouts[i] == layout) {
+                return patchedLines[i];
+            }
+        }
+        byte[] patchLine = layout.getPatchLine();
+        JsonLineEncoder line = new JsonLineEncoder(patchLine.length);
+        line.writeRaw(patchLine);
+        patchedLayouts = Arrays.copyOf(patchedLayouts, patchedLayouts.length + 1);
+        patchedLines = Arrays.copyOf(patchedLines, patchedLines.length + 1);
+        patchedLayouts[patchedLayouts.length - 1] = layout;
+        patchedLines[patchedLines.length - 1] = line;
+        return line;
+    }
+
+}
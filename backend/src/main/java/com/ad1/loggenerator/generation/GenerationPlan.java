@@ -0,0 +1,197 @@
+package com.ad1.loggenerator.generation;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.Getter;
+
+/**
+ * Immutable form of a SelectionModel compiled once at the start of a job.
+ * Running the plan for a line only has to pick a layout and produce the
+ * value of each of its slots
+ */
+@Getter
+public final class GenerationPlan {
+
+    // separates the repeat decisions from the line streams of the same key
+    private static final long REPEAT_SALT = 0x2545F4914F6CDD1DL;
+
+    // layout of lines that do not use a custom log
+    private final LineLayout baseLayout;
+    // layout of each custom log
+    private final LineLayout[] customLogLayouts;
+    // percent chance a logline should repeat, expressed as a decimal
+    private final double repeatingLoglinesPercent;
+    // seed of the job, null if a random seed should be used
+    private final Long seed;
+    // key of the per line random streams in counter based mode, null otherwise
+    private final Long counterKey;
+    // alias table over the custom log layouts, the last index is the base layout
+    private final AliasTable layoutTable;
+    // event clock every context starts a copy of, null if timestamps are random
+    private final EventClock clock;
+    // decides which lines are malware detections, null if no malware is injected
+    private final MalwareInjector malware;
+    // layout of malware detection lines, null if no malware is injected
+    private final LineLayout malwareLayout;
+    // how the lines are put together in the output
+    private final OutputFormat outputFormat;
+    // whether lines are written by patching the generated values in place
+    private final boolean patched;
+    // session pool every context starts a copy of, null if lines are independent
+    private final SessionPool sessions;
+    // file population every context starts a copy of, null if files are independent
+    private final FilePopulation files;
+    // repeat window every context starts a copy of, null if only the line before is repeated
+    private final RepeatWindow repeatWindow;
+    // reorder buffer every context starts a copy of, null if lines are in order
+    private final ReorderBuffer reorderBuffer;
+    // number of random longs that decide the optional fields of a line
+    private final int presenceWords;
+
+    public GenerationPlan(LineLayout baseLayout, LineLayout[] customLogLayouts,
+            double[] customLogFrequencies, double repeatingLoglinesPercent, Long seed, Long counterKey,
+            EventClock clock, MalwareInjector malware, LineLayout malwareLayout, OutputFormat outputFormat,
+            boolean patched, SessionPool sessions, FilePopulation files, RepeatWindow repeatWindow,
+            ReorderBuffer reorderBuffer, int presenceWords) {
+        this.baseLayout = baseLayout;
+        this.customLogLayouts = customLogLayouts;
+        this.repeatingLoglinesPercent = repeatingLoglinesPercent;
+        this.seed = seed;
+        this.counterKey = counterKey;
+        this.layoutTable = buildLayoutTable(customLogFrequencies);
+        this.clock = clock;
+        this.malware = malware;
+        this.malwareLayout = malwareLayout;
+        this.outputFormat = outputFormat;
+        this.patched = patched;
+        this.sessions = sessions;
+        this.files = files;
+        this.repeatWindow = repeatWindow;
+        this.reorderBuffer = reorderBuffer;
+        this.presenceWords = presenceWords;
+    }
+
+    /**
+     * Builds the alias table over the frequency of each custom log, followed
+     * by the weight of lines without a custom log. Frequencies past a total
+     * of 1 are cut off
+     *
+     * @param frequencies
+     * @return the alias table, null if no custom log can be chosen
+     */
+    private static AliasTable buildLayoutTable(double[] frequencies) {
+        double[] weights = new double[frequencies.length + 1];
+        double total = 0;
+        for (int i = 0; i < frequencies.length; i++) {
+            weights[i] = Math.min(Math.max(frequencies[i], 0), 1 - total);
+            total += weights[i];
+        }
+        if (total <= 0) {
+            return null;
+        }
+        weights[frequencies.length] = 1 - total;
+        return new AliasTable(weights);
+    }
+
+    /**
+     * Creates the state for a thread that runs this plan. Each call with a
+     * seeded plan starts the same sequence of random values
+     *
+     * @return a new generation context
+     */
+    public GenerationContext newContext() {
+        long contextSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        return new GenerationContext(new RandomSource(contextSeed), counterKey,
+                clock != null ? clock.copy() : null, sessions != null ? sessions.copy() : null,
+                files != null ? files.copy() : null, repeatWindow != null ? repeatWindow.copy() : null,
+                reorderBuffer != null ? reorderBuffer.copy() : null, presenceWords);
+    }
+
+    /**
+     * Creates the context that continues the job of another context with the
+     * layouts of this plan, after a schema change. The random source, the
+     * file population, the repeat window and the reorder buffer are taken
+     * over, the clock and the sessions continue from where they were
+     *
+     * @param previous the context lines were generated with until now
+     * @return the new context
+     */
+    public GenerationContext continueContext(GenerationContext previous) {
+        EventClock nextClock = null;
+        if (clock != null) {
+            nextClock = previous.getClock() != null
+                    ? clock.continueFrom(previous.getClock(), previous.getLineIndex())
+                    : clock.copy();
+        }
+        SessionPool nextSessions = null;
+        if (sessions != null) {
+            nextSessions = sessions.copy();
+            if (previous.getSessions() != null) {
+                nextSessions.continueFrom(previous.getSessions());
+            }
+        }
+        GenerationContext context = new GenerationContext(previous.getRandom(), counterKey, nextClock,
+                nextSessions,
+                files == null ? null : previous.getFiles() != null ? previous.getFiles() : files.copy(),
+                repeatWindow == null ? null
+                        : previous.getRepeatWindow() != null ? previous.getRepeatWindow() : repeatWindow.copy(),
+                reorderBuffer == null ? null
+                        : previous.getReorderBuffer() != null ? previous.getReorderBuffer() : reorderBuffer.copy(),
+                presenceWords);
+        context.continueFrom(previous);
+        return context;
+    }
+
+    /**
+     * @return true if line N of the job only depends on the job and N
+     */
+    public boolean isCounterBased() {
+        return counterKey != null;
+    }
+
+    /**
+     * Decides whether a line of a counter based plan repeats the line before
+     * it. The decision is a pure function of the line index, so any range of
+     * lines can be generated without knowing the lines before the range
+     *
+     * @param lineIndex
+     * @return true if the line is a copy of the previous line
+     */
+    public boolean isRepeatedLine(long lineIndex) {
+        if (lineIndex <= 0) {
+            return false;
+        }
+        long bits = RandomSource.mix64((counterKey ^ REPEAT_SALT) + lineIndex * RandomSource.GOLDEN_GAMMA);
+        return (bits >>> 11) * 0x1.0p-53 < repeatingLoglinesPercent;
+    }
+
+    /**
+     * Chooses the layout of the current line of a context. Malware
+     * detections are decided first, other lines use the alias table
+     *
+     * @param context the state of the running job
+     * @return the layout to generate
+     */
+    public LineLayout chooseLayout(GenerationContext context) {
+        if (malware != null && malware.isDetection(context)) {
+            return malwareLayout;
+        }
+        return chooseLayout(context.getRandom());
+    }
+
+    /**
+     * Chooses the layout of a line in constant time using the alias table.
+     * The base layout is returned when no custom log is selected
+     *
+     * @param random
+     * @return the layout to generate
+     */
+    public LineLayout chooseLayout(RandomSource random) {
+        if (layoutTable == null) {
+            return baseLayout;
+        }
+        int index = layoutTable.sample(random);
+        return index < customLogLayouts.length ? customLogLayouts[index] : baseLayout;
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.ad1.loggenerator.generation;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Table driven lowercase hex encoding of random bits. Every byte is turned
+ * into its two digits with a single lookup
+ */
+public final class Hex {
+
+    // two lowercase hex digits for every byte value
+    private static final byte[] HEX_PAIRS = new byte[512];
+
+    static {
+        byte[] digits = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+        for (int i = 0; i < 256; i++) {
+            HEX_PAIRS[i << 1] = digits[i >>> 4];
+            HEX_PAIRS[(i << 1) + 1] = digits[i & 0xF];
+        }
+    }
+
+    private Hex() {
+    }
+
+    /**
+     * Writes all 16 hex digits of a long, most significant first
+     *
+     * @param buffer
+     * @param pos    position of the first digit
+     * @param value
+     * @return the position after the last digit
+     */
+    public static int writeLong(byte[] buffer, int pos, long value) {
+        return writeBytes(buffer, pos, value, 56, 8);
+    }
+
+    /**
+     * Writes bytes of a long as hex digits
+     *
+     * @param buffer
+     * @param pos   position of the first digit
+     * @param value
+     * @param shift bit position of the first byte to write
+     * @param count number of bytes to write
+     * @return the position after the last digit
+     */
+    public static int writeBytes(byte[] buffer, int pos, long value, int shift, int count) {
+        for (int i = 0; i < count; i++, shift -= 8) {
+            int index = ((int) (value >>> shift) & 0xFF) << 1;
+            buffer[pos++] = HEX_PAIRS[index];
+            buffer[pos++] = HEX_PAIRS[index + 1];
+        }
+        return pos;
+    }
+
+}
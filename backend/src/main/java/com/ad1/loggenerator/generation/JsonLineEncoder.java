@@ -0,0 +1,424 @@
+package com.ad1.loggenerator.generation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reusable buffer that encodes log lines straight to UTF-8 JSON bytes. A job
+ * keeps one encoder, writes its lines into it and flushes it to the output
+ * when it is full, so no JSONObject or intermediate String is created per line
+ */
+public final class JsonLineEncoder {
+
+    // size at which a job should flush the buffer to its output
+    public static final int FLUSH_SIZE = 64 * 1024;
+
+    // delimiter written between log lines
+    public static final byte[] LINE_DELIMITER = { ',', '\n' };
+
+    private static final byte[] NULL = { 'n', 'u', 'l', 'l' };
+    private static final byte[] TRUE = { 't', 'r', 'u', 'e' };
+    private static final byte[] FALSE = { 'f', 'a', 'l', 's', 'e' };
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private byte[] buffer;
+    private int size;
+
+    public JsonLineEncoder() {
+        this(FLUSH_SIZE + 4096);
+    }
+
+    public JsonLineEncoder(int initialCapacity) {
+        this.buffer = new byte[initialCapacity];
+    }
+
+    /**
+     * Encodes a field name as the bytes written before its value
+     *
+     * @param name
+     * @return the bytes of "name":
+     */
+    public static byte[] encodeName(String name) {
+        JsonLineEncoder encoder = new JsonLineEncoder(name.length() + 8);
+        encoder.writeString(name);
+        encoder.writeByte(':');
+        return encoder.toByteArray();
+    }
+
+    /**
+     * @return the number of bytes written since the last reset
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the internal buffer, valid from 0 to size()
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Discards the written bytes while keeping the buffer for reuse
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * @return a copy of the written bytes
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, size);
+    }
+
+    /**
+     * @return the written bytes decoded as UTF-8
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, size, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the bytes to the output and resets the encoder
+     *
+     * @param outputStream
+     * @throws IOException
+     */
+    public void flushTo(OutputStream outputStream) throws IOException {
+        outputStream.write(buffer, 0, size);
+        size = 0;
+    }
+
+    public void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) b;
+    }
+
+    public void writeRaw(byte[] bytes) {
+        writeRaw(bytes, 0, bytes.length);
+    }
+
+    public void writeRaw(byte[] bytes, int offset, int length) {
+        ensureCapacity(length);
+        System.arraycopy(bytes, offset, buffer, size, length);
+        size += length;
+    }
+
+    /**
+     * Reserves bytes that the caller fills in directly, for values with a
+     * fixed length such as ids. Get the buffer after reserving, it may have
+     * grown
+     *
+     * @param length number of bytes to reserve
+     * @return the position of the first reserved byte
+     */
+    public int reserve(int length) {
+        ensureCapacity(length);
+        int pos = size;
+        size += length;
+        return pos;
+    }
+
+    /**
+     * Moves the write position inside the bytes already written, so a value
+     * can be written over part of a line
+     *
+     * @param position the new write position
+     */
+    public void seek(int position) {
+        size = position;
+    }
+
+    /**
+     * Fills the bytes from the write position up to a position with spaces,
+     * which JSON ignores between tokens
+     *
+     * @param position end of the padding, exclusive
+     * @throws IllegalStateException if more than position bytes were written
+     */
+    public void padTo(int position) {
+        if (size > position) {
+            throw new IllegalStateException("Value is " + (size - position) + " bytes longer than its slot");
+        }
+        ensureCapacity(position - size);
+        Arrays.fill(buffer, size, position, (byte) ' ');
+        size = position;
+    }
+
+    /**
+     * Appends a copy of bytes already written, for example to repeat the
+     * previous log line
+     *
+     * @param from start of the range, inclusive
+     * @param to   end of the range, exclusive
+     */
+    public void copy(int from, int to) {
+        int length = to - from;
+        ensureCapacity(length);
+        System.arraycopy(buffer, from, buffer, size, length);
+        size += length;
+    }
+
+    /**
+     * Writes a long as decimal digits without creating a String
+     *
+     * @param value
+     */
+    public void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeRaw(MIN_LONG);
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int pos = size + digits;
+        do {
+            buffer[--pos] = (byte) ('0' + (value % 10));
+            value /= 10;
+        } while (value > 0);
+        size += digits;
+    }
+
+    /**
+     * Writes a JSON string, escaping quotes, backslashes and control
+     * characters and encoding the characters as UTF-8
+     *
+     * @param value
+     */
+    public void writeString(String value) {
+        int length = value.length();
+        // worst case is 6 bytes for an escaped control character
+        ensureCapacity(length * 6 + 2);
+        byte[] buffer = this.buffer;
+        int pos = size;
+        buffer[pos++] = '"';
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    buffer[pos++] = (byte) c;
+                } else {
+                    pos = writeEscaped(buffer, pos, c);
+                }
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogates cannot be encoded as UTF-8
+                buffer[pos++] = '?';
+            } else {
+                buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        buffer[pos++] = '"';
+        size = pos;
+    }
+
+    /**
+     * Writes any value a log line can hold. Strings, numbers, booleans and
+     * null are written directly, maps and collections from custom logs are
+     * written as nested objects and arrays
+     *
+     * @param value
+     */
+    public void writeValue(Object value) {
+        if (value == null) {
+            writeRaw(NULL);
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Long || value instanceof Integer
+                || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                writeRaw(NULL);
+            } else {
+                writeAscii(value.toString());
+            }
+        } else if (value instanceof Number) {
+            writeAscii(value.toString());
+        } else if (value instanceof Boolean) {
+            writeRaw((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value);
+        } else if (value instanceof Collection) {
+            writeCollection((Collection<?>) value);
+        } else {
+            writeString(value.toString());
+        }
+    }
+
+    /**
+     * Writes a value as plain text for a line template. Null is written as
+     * -, line breaks are escaped so a value never splits the line and other
+     * control characters become spaces
+     *
+     * @param value
+     * @param escapes characters escaped with a backslash
+     */
+    public void writeText(Object value, TextEscapes escapes) {
+        if (value == null) {
+            writeByte('-');
+        } else if (value instanceof String) {
+            writeText((String) value, escapes);
+        } else if (value instanceof Long || value instanceof Integer
+                || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Number || value instanceof Boolean) {
+            writeAscii(value.toString());
+        } else if (value instanceof Map || value instanceof Collection) {
+            writeValue(value);
+        } else {
+            writeText(value.toString(), escapes);
+        }
+    }
+
+    /**
+     * Writes a string as plain text for a line template, encoding the
+     * characters as UTF-8
+     *
+     * @param value
+     * @param escapes characters escaped with a backslash
+     */
+    public void writeText(String value, TextEscapes escapes) {
+        int length = value.length();
+        ensureCapacity(length * 4);
+        byte[] buffer = this.buffer;
+        int pos = size;
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c == '\n' || c == '\r') {
+                    buffer[pos++] = '\\';
+                    buffer[pos++] = (byte) (c == '\n' ? 'n' : 'r');
+                } else if (c < 0x20) {
+                    buffer[pos++] = ' ';
+                } else {
+                    if (escapes.isEscaped(c)) {
+                        buffer[pos++] = '\\';
+                    }
+                    buffer[pos++] = (byte) c;
+                }
+            } else if (c < 0x800) {
+                buffer[pos++] = (byte) (0xC0 | (c >> 6));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                buffer[pos++] = (byte) (0xF0 | (codePoint >> 18));
+                buffer[pos++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                buffer[pos++] = '?';
+            } else {
+                buffer[pos++] = (byte) (0xE0 | (c >> 12));
+                buffer[pos++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buffer[pos++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        size = pos;
+    }
+
+    private void writeMap(Map<?, ?> map) {
+        writeByte('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                writeByte(',');
+            }
+            first = false;
+            writeString(String.valueOf(entry.getKey()));
+            writeByte(':');
+            writeValue(entry.getValue());
+        }
+        writeByte('}');
+    }
+
+    private void writeCollection(Collection<?> collection) {
+        writeByte('[');
+        Iterator<?> iterator = collection.iterator();
+        while (iterator.hasNext()) {
+            writeValue(iterator.next());
+            if (iterator.hasNext()) {
+                writeByte(',');
+            }
+        }
+        writeByte(']');
+    }
+
+    private void writeAscii(String value) {
+        int length = value.length();
+        ensureCapacity(length);
+        for (int i = 0; i < length; i++) {
+            buffer[size++] = (byte) value.charAt(i);
+        }
+    }
+
+    private static int writeEscaped(byte[] buffer, int pos, char c) {
+        buffer[pos++] = '\\';
+        switch (c) {
+            case '"':
+                buffer[pos++] = '"';
+                break;
+            case '\\':
+                buffer[pos++] = '\\';
+                break;
+            case '\b':
+                buffer[pos++] = 'b';
+                break;
+            case '\f':
+                buffer[pos++] = 'f';
+                break;
+            case '\n':
+                buffer[pos++] = 'n';
+                break;
+            case '\r':
+                buffer[pos++] = 'r';
+                break;
+            case '\t':
+                buffer[pos++] = 't';
+                break;
+            default:
+                buffer[pos++] = 'u';
+                buffer[pos++] = '0';
+                buffer[pos++] = '0';
+                buffer[pos++] = HEX_DIGITS[c >> 4];
+                buffer[pos++] = HEX_DIGITS[c & 0xF];
+        }
+        return pos;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (size + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+package com.ad1.loggenerator.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+/**
+ * The ordered fields of one kind of log line. A plan has one layout for
+ * randomly generated lines and one for each custom log, with custom log
+ * overrides and null padded master fields already applied. Lines are written
+ * as JSON objects, or in the format of a line template when the layout was
+ * compiled from one
+ */
+@Getter
+public final class LineLayout implements LineSerializer {
+
+    // fields of the line in output order
+    private final FieldSlot[] slots;
+    // slots whose value is generated on every line, in output order
+    private final FieldSlot[] generatedSlots;
+    // pre-encoded bytes around the generated values. Fragment i holds the
+    // constant fields before generated slot i and its field name, the last
+    // fragment holds the trailing constant fields and the closing }
+    private final byte[][] fragments;
+    // serializer specialized for this layout, null if the layout is interpreted
+    private final LineSerializer specialized;
+    // the line with every generated value replaced by spaces as wide as its
+    // longest value, null if a value of the layout has no bounded width
+    private final byte[] patchLine;
+    // position of each generated value in the patch line
+    private final int[] patchOffsets;
+    // end of the slot of each generated value in the patch line
+    private final int[] patchEnds;
+    // name, and value of constant fields, of each slot when a field can be
+    // missing from JSON lines, null if every field is always written
+    private final byte[][] fieldBytes;
+
+    public LineLayout(FieldSlot[] slots) {
+        this(slots, false);
+    }
+
+    /**
+     * @param slots
+     * @param specialize true to define a serializer class for this layout
+     *                   instead of interpreting the slots on every line
+     */
+    public LineLayout(FieldSlot[] slots, boolean specialize) {
+        this.slots = slots;
+
+        List<FieldSlot> generated = new ArrayList<>();
+        List<byte[]> encodedFragments = new ArrayList<>();
+        JsonLineEncoder fragment = new JsonLineEncoder(256);
+        fragment.writeByte('{');
+
+        for (int i = 0; i < slots.length; i++) {
+            if (i > 0) {
+                fragment.writeByte(',');
+            }
+            fragment.writeRaw(JsonLineEncoder.encodeName(slots[i].getName()));
+            if (slots[i].isConstant()) {
+                // constant values are encoded once for the whole job
+                fragment.writeValue(slots[i].getConstant());
+            } else {
+                generated.add(slots[i]);
+                encodedFragments.add(fragment.toByteArray());
+                fragment.reset();
+            }
+        }
+        fragment.writeByte('}');
+        encodedFragments.add(fragment.toByteArray());
+
+        this.generatedSlots = generated.toArray(new FieldSlot[0]);
+        this.fragments = encodedFragments.toArray(new byte[0][]);
+        this.fieldBytes = encodeFields(slots, generatedSlots);
+        // the fragments only hold when every field is written
+        this.specialized = specialize && fieldBytes == null
+                ? SpecializedSerializers.create(fragments, generatedSlots)
+                : null;
+        this.patchOffsets = new int[generatedSlots.length];
+        this.patchEnds = new int[generatedSlots.length];
+        this.patchLine = createPatchLine();
+    }
+
+    /**
+     * Creates a layout whose fragments were already rendered, for example
+     * from a line template
+     *
+     * @param slots          the fields of the line
+     * @param fragments      the bytes around the generated values
+     * @param generatedSlots the slots written between the fragments
+     * @param specialize     true to define a serializer class for this layout
+     */
+    LineLayout(FieldSlot[] slots, byte[][] fragments, FieldSlot[] generatedSlots, boolean specialize) {
+        this.slots = slots;
+        this.generatedSlots = generatedSlots;
+        this.fragments = fragments;
+        // templates write missing values as -
+        this.fieldBytes = null;
+        this.specialized = specialize ? SpecializedSerializers.create(fragments, generatedSlots) : null;
+        this.patchOffsets = new int[generatedSlots.length];
+        this.patchEnds = new int[generatedSlots.length];
+        this.patchLine = createPatchLine();
+    }
+
+    /**
+     * Encodes the name of each field, followed by the value of constant
+     * fields, if a field of the layout can be missing
+     *
+     * @param slots
+     * @param generatedSlots
+     * @return the bytes of each slot, null if every field is always written
+     */
+    private static byte[][] encodeFields(FieldSlot[] slots, FieldSlot[] generatedSlots) {
+        boolean canBeMissing = false;
+        for (FieldSlot slot : generatedSlots) {
+            if (slot.getWriter() instanceof OptionalFieldWriter
+                    && ((OptionalFieldWriter) slot.getWriter()).canBeMissing()) {
+                canBeMissing = true;
+            }
+        }
+        if (!canBeMissing) {
+            return null;
+        }
+        byte[][] fieldBytes = new byte[slots.length][];
+        JsonLineEncoder field = new JsonLineEncoder(256);
+        for (int i = 0; i < slots.length; i++) {
+            field.reset();
+            field.writeRaw(JsonLineEncoder.encodeName(slots[i].getName()));
+            if (slots[i].isConstant()) {
+                field.writeValue(slots[i].getConstant());
+            }
+            fieldBytes[i] = field.toByteArray();
+        }
+        return fieldBytes;
+    }
+
+    /**
+     * Serializes the line once with a blank slot for each generated value
+     * and records where the slots start
+     *
+     * @return the patch line, null if a value has no bounded width
+     */
+    private byte[] createPatchLine() {
+        JsonLineEncoder line = new JsonLineEncoder(256);
+        for (int i = 0; i < generatedSlots.length; i++) {
+            int width = generatedSlots[i].getWriter().maxWidth();
+            if (width < 0) {
+                return null;
+            }
+            line.writeRaw(fragments[i]);
+            patchOffsets[i] = line.size();
+            line.padTo(line.size() + width);
+            patchEnds[i] = line.size();
+        }
+        line.writeRaw(fragments[generatedSlots.length]);
+        return line.toByteArray();
+    }
+
+    /**
+     * @return true if lines of this layout can be patched in place
+     */
+    public boolean isPatchable() {
+        return patchLine != null;
+    }
+
+    /**
+     * Writes a line with this layout as a JSON object, using the specialized
+     * serializer if there is one
+     *
+     * @param encoder the destination of the line
+     * @param context the state of the running job
+     */
+    @Override
+    public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+        if (specialized != null) {
+            specialized.writeTo(encoder, context);
+        } else {
+            writeInterpreted(encoder, context);
+        }
+    }
+
+    /**
+     * Writes a line with this layout as a JSON object by walking the slots.
+     * Only the generated values are encoded, everything else is copied from
+     * the fragments
+     *
+     * @param encoder the destination of the line
+     * @param context the state of the running job
+     */
+    public void writeInterpreted(JsonLineEncoder encoder, GenerationContext context) {
+        if (fieldBytes != null) {
+            writeSkippingMissing(encoder, context);
+            return;
+        }
+        for (int i = 0; i < generatedSlots.length; i++) {
+            encoder.writeRaw(fragments[i]);
+            generatedSlots[i].getWriter().writeTo(encoder, context);
+        }
+        encoder.writeRaw(fragments[generatedSlots.length]);
+    }
+
+    /**
+     * Writes a line with this layout as a JSON object, leaving out the
+     * fields that are missing from the current line
+     *
+     * @param encoder the destination of the line
+     * @param context the state of the running job
+     */
+    private void writeSkippingMissing(JsonLineEncoder encoder, GenerationContext context) {
+        encoder.writeByte('{');
+        boolean first = true;
+        for (int i = 0; i < slots.length; i++) {
+            FieldWriter writer = slots[i].getWriter();
+            if (writer instanceof OptionalFieldWriter && ((OptionalFieldWriter) writer).isMissing(context)) {
+                continue;
+            }
+            if (!first) {
+                encoder.writeByte(',');
+            }
+            first = false;
+            encoder.writeRaw(fieldBytes[i]);
+            if (writer != null) {
+                writer.writeTo(encoder, context);
+            }
+        }
+        encoder.writeByte('}');
+    }
+
+    /**
+     * Writes a line with this layout by overwriting only the generated values
+     * of the line kept by the context and copying the whole line. Each value
+     * is padded with spaces to the width of its slot, so every line of the
+     * layout has the same length
+     *
+     * @param encoder the destination of the line
+     * @param context the state of the running job
+     */
+    public void writePatched(JsonLineEncoder encoder, GenerationContext context) {
+        JsonLineEncoder line = context.getPatchedLine(this);
+        for (int i = 0; i < generatedSlots.length; i++) {
+            int offset = patchOffsets[i];
+            line.seek(offset);
+            generatedSlots[i].getWriter().writeTo(line, context);
+            line.padTo(patchEnds[i]);
+        }
+        line.seek(patchLine.length);
+        encoder.writeRaw(line.getBuffer(), 0, patchLine.length);
+    }
+
+}
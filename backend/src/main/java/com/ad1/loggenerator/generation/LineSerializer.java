@@ -0,0 +1,17 @@
+package com.ad1.loggenerator.generation;
+
+/**
+ * Writes one kind of log line as JSON bytes. A layout either interprets its
+ * slots or uses a serializer specialized for it when the job starts
+ */
+public interface LineSerializer {
+
+    /**
+     * Writes a line
+     *
+     * @param encoder the destination of the line
+     * @param context the state of the running job
+     */
+    void writeTo(JsonLineEncoder encoder, GenerationContext context);
+
+}
@@ -0,0 +1,39 @@
+package com.ad1.loggenerator.generation;
+
+/**
+ * Writer of a numeric field. The value is written as digits straight from
+ * the primitive, without boxing it
+ */
+@FunctionalInterface
+public interface LongFieldWriter extends FieldWriter {
+
+    /**
+     * Generates the next value for the field
+     *
+     * @param context the state of the running job
+     * @return the field value
+     */
+    long nextLong(GenerationContext context);
+
+    @Override
+    default Object generate(GenerationContext context) {
+        return nextLong(context);
+    }
+
+    @Override
+    default void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+        encoder.writeLong(nextLong(context));
+    }
+
+    @Override
+    default int maxWidth() {
+        // digits and sign of any long
+        return 20;
+    }
+
+    @Override
+    default void writeText(JsonLineEncoder encoder, GenerationContext context, TextEscapes escapes) {
+        encoder.writeLong(nextLong(context));
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.ad1.loggenerator.generation;
+
+/**
+ * Kinds of malware that can be injected into a job. Each family drops its
+ * samples in typical folders under names that look like its real samples
+ */
+public enum MalwareFamily {
+
+    // disguised as system processes
+    TROJAN(new String[] { "C:\\Windows\\System32", "C:\\Windows\\SysWOW64", "C:\\Windows\\Temp" },
+            new String[] { "svch0st", "lsasss", "winlogin", "explorer32", "taskhostw_update" },
+            new String[] { ".exe", ".dll", ".sys" }),
+    // bundled with free software
+    ADWARE(new String[] { "C:\\Program Files (x86)", "C:\\Program Files (x86)\\Common Files", "C:\\tmp" },
+            new String[] { "BrowserHelper", "CouponBar", "SearchAssist", "DealFinder", "PopupOptimizer" },
+            new String[] { ".exe", ".dll", ".msi" }),
+    // encrypts files in user folders
+    RANSOM(new String[] { "C:\\home", "C:\\tmp", "C:\\Windows\\Temp" },
+            new String[] { "decrypt_files", "cryptolocker", "wannacry", "locky_payload", "readme_restore" },
+            new String[] { ".exe", ".js", ".scr" });
+
+    private final String[] folders;
+    private final String[] names;
+    private final String[] extensions;
+
+    MalwareFamily(String[] folders, String[] names, String[] extensions) {
+        this.folders = folders;
+        this.names = names;
+        this.extensions = extensions;
+    }
+
+    /**
+     * Utility method to create the file path of a new sample of this family
+     *
+     * @param random
+     * @return the file path of the sample
+     */
+    public String samplePath(RandomSource random) {
+        String folder = folders[random.nextInt(folders.length)];
+        String name = names[random.nextInt(names.length)];
+        String extension = extensions[random.nextInt(extensions.length)];
+        // short variant suffix so samples of the same name differ
+        String variant = Integer.toHexString(random.nextInt(0x10000) | 0x10000).substring(1);
+        return folder + "\\" + name + "_" + variant + extension;
+    }
+
+}
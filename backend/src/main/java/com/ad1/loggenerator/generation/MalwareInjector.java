@@ -0,0 +1,178 @@
+package com.ad1.loggenerator.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Injects malware detection events into a job. Lines are grouped into
+ * windows of burstLength lines and each window is an outbreak with a fixed
+ * probability. During an outbreak a single signature from a pool built when
+ * the job starts is detected on a share of the lines, the way one sample
+ * spreads through a fleet. Both decisions hash the line index with the key
+ * of the job, so they take constant time, allocate nothing and do not use
+ * the random source of the job
+ */
+public final class MalwareInjector {
+
+    // disposition of a malicious file
+    public static final int MALICIOUS = 3;
+
+    // separates the outbreak windows from the lines of the same key
+    private static final long LINE_SALT = 0x9E6C63D0676A9A99L;
+
+    // key of the outbreak and detection decisions
+    private final long key;
+    // number of lines of an outbreak window
+    private final long burstLength;
+    // probability that a window is an outbreak
+    private final double outbreakProbability;
+    // probability that a line of an outbreak is a detection
+    private final double burstIntensity;
+    // file paths of the signatures
+    private final String[] paths;
+    // file SHA256 values of the signatures, in the same order as the paths
+    private final String[] hashes;
+    // the same values encoded as JSON
+    private final byte[][] encodedPaths;
+    private final byte[][] encodedHashes;
+
+    /**
+     * @param families            the malware families to inject, not empty
+     * @param signaturesPerFamily number of signatures in the pool per family
+     * @param eventRate           long run fraction of lines that are detections
+     * @param burstLength         number of lines of an outbreak window
+     * @param burstIntensity      fraction of the lines of an outbreak that are
+     *                            detections
+     * @param key                 key of the job
+     * @param compileRandom       random source for the signature pool
+     */
+    public MalwareInjector(List<MalwareFamily> families, int signaturesPerFamily, double eventRate,
+            long burstLength, double burstIntensity, long key, RandomSource compileRandom) {
+        this.key = key;
+        this.burstLength = Math.max(1, burstLength);
+        // an outbreak cannot detect more than every line
+        this.burstIntensity = Math.min(1, Math.max(burstIntensity, eventRate));
+        this.outbreakProbability = Math.min(1, eventRate / this.burstIntensity);
+
+        int size = families.size() * signaturesPerFamily;
+        this.paths = new String[size];
+        this.hashes = new String[size];
+        for (int i = 0; i < size; i++) {
+            paths[i] = families.get(i / signaturesPerFamily).samplePath(compileRandom);
+            hashes[i] = FastSha256.next(compileRandom);
+        }
+        this.encodedPaths = encode(paths);
+        this.encodedHashes = encode(hashes);
+    }
+
+    private static byte[][] encode(String[] values) {
+        byte[][] encoded = new byte[values.length][];
+        JsonLineEncoder encoder = new JsonLineEncoder(128);
+        for (int i = 0; i < values.length; i++) {
+            encoder.reset();
+            encoder.writeString(values[i]);
+            encoded[i] = encoder.toByteArray();
+        }
+        return encoded;
+    }
+
+    /**
+     * Decides whether a line is a malware detection and sets the signature
+     * detected on the context
+     *
+     * @param context the state of the running job, on the line to decide
+     * @return true if the line is a detection
+     */
+    public boolean isDetection(GenerationContext context) {
+        long line = context.getLineIndex();
+        long window = line / burstLength;
+        long windowBits = RandomSource.mix64(key + window * RandomSource.GOLDEN_GAMMA);
+        if (toUnitDouble(windowBits) >= outbreakProbability) {
+            return false;
+        }
+        long lineBits = RandomSource.mix64((key ^ LINE_SALT) + line * RandomSource.GOLDEN_GAMMA);
+        if (toUnitDouble(lineBits) >= burstIntensity) {
+            return false;
+        }
+        // the whole outbreak spreads the same signature
+        context.setMalwareSignature((int) (((windowBits >>> 32) * paths.length) >>> 32));
+        return true;
+    }
+
+    private static double toUnitDouble(long bits) {
+        return (bits >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Replaces the file fields of the generated slots of a job with the
+     * signature detected on the line
+     *
+     * @param generatedSlots
+     * @return the generated slots of detection lines
+     */
+    public List<FieldSlot> detectionSlots(List<FieldSlot> generatedSlots) {
+        List<FieldSlot> slots = new ArrayList<>(generatedSlots.size());
+        for (FieldSlot slot : generatedSlots) {
+            switch (slot.getName()) {
+                case "pathToFile":
+                    slots.add(FieldSlot.generated(slot.getName(), new SignatureWriter(paths, encodedPaths)));
+                    break;
+                case "fileSHA256":
+                    slots.add(FieldSlot.generated(slot.getName(), new SignatureWriter(hashes, encodedHashes)));
+                    break;
+                case "disposition":
+                    slots.add(FieldSlot.constant(slot.getName(), MALICIOUS));
+                    break;
+                default:
+                    slots.add(slot);
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * @return the number of signatures in the pool
+     */
+    public int getSignatureCount() {
+        return paths.length;
+    }
+
+    /**
+     * Writes a value of the signature detected on the line. Unlike a
+     * ValueListWriter the index comes from the context, so the path and the
+     * hash of a line belong to the same signature
+     */
+    private static final class SignatureWriter implements FieldWriter {
+
+        private final String[] values;
+        private final byte[][] encodedValues;
+        private final int maxWidth;
+
+        private SignatureWriter(String[] values, byte[][] encodedValues) {
+            this.values = values;
+            this.encodedValues = encodedValues;
+            int maxWidth = 0;
+            for (byte[] encodedValue : encodedValues) {
+                maxWidth = Math.max(maxWidth, encodedValue.length);
+            }
+            this.maxWidth = maxWidth;
+        }
+
+        @Override
+        public int maxWidth() {
+            return maxWidth;
+        }
+
+        @Override
+        public Object generate(GenerationContext context) {
+            return values[context.getMalwareSignature()];
+        }
+
+        @Override
+        public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+            encoder.writeRaw(encodedValues[context.getMalwareSignature()]);
+        }
+
+    }
+
+}
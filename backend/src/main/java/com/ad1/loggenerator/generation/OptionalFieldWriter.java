@@ -0,0 +1,119 @@
+package com.ad1.loggenerator.generation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.ad1.loggenerator.model.fieldsettingsmodels.FieldSetting;
+
+/**
+ * Writer of a field that is null or missing on some lines. Whether the field
+ * is present is decided from 32 bits of the presence words the context
+ * draws once per line, so two optional fields of a line share one random
+ * long instead of drawing a value each. Rates are exact to 2^-32
+ */
+public final class OptionalFieldWriter implements FieldWriter {
+
+    // bits of a presence word each field uses
+    private static final int BITS = 32;
+    private static final int FIELDS_PER_WORD = 64 / BITS;
+    private static final double SCALE = 0x1.0p32;
+
+    private final FieldWriter writer;
+    // presence word and bits of the field
+    private final int word;
+    private final int shift;
+    // the field is missing below the first threshold and null below the second
+    private final long missingBelow;
+    private final long nullBelow;
+
+    private OptionalFieldWriter(FieldWriter writer, int word, int shift, double missingRate, double nullRate) {
+        this.writer = writer;
+        this.word = word;
+        this.shift = shift;
+        this.missingBelow = Math.round(Math.min(missingRate, 1) * SCALE);
+        this.nullBelow = Math.round(Math.min(missingRate + nullRate, 1) * SCALE);
+    }
+
+    /**
+     * Replaces the generated slots of fields with a null or missing rate
+     *
+     * @param generatedSlots the generated slots of the job, optional fields
+     *                       are replaced in place
+     * @param settings       the settings of the fields, by field name
+     * @return the number of presence words a line needs
+     */
+    public static int wrapSlots(List<FieldSlot> generatedSlots, Map<String, FieldSetting> settings) {
+        List<Integer> optional = new ArrayList<>();
+        for (int i = 0; i < generatedSlots.size(); i++) {
+            FieldSetting setting = settings.get(generatedSlots.get(i).getName());
+            if (setting != null && (rate(setting.getMissingRate()) > 0 || rate(setting.getNullRate()) > 0)) {
+                optional.add(i);
+            }
+        }
+
+        for (int k = 0; k < optional.size(); k++) {
+            int i = optional.get(k);
+            FieldSlot slot = generatedSlots.get(i);
+            FieldSetting setting = settings.get(slot.getName());
+            generatedSlots.set(i, FieldSlot.generated(slot.getName(), new OptionalFieldWriter(slot.getWriter(),
+                    k / FIELDS_PER_WORD, (k % FIELDS_PER_WORD) * BITS,
+                    rate(setting.getMissingRate()), rate(setting.getNullRate()))));
+        }
+        return (optional.size() + FIELDS_PER_WORD - 1) / FIELDS_PER_WORD;
+    }
+
+    private static double rate(Double rate) {
+        return rate != null && rate > 0 ? rate : 0;
+    }
+
+    private long presence(GenerationContext context) {
+        return (context.getPresenceWords()[word] >>> shift) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * @param context the state of the running job
+     * @return true if the field is left out of the current line
+     */
+    public boolean isMissing(GenerationContext context) {
+        return presence(context) < missingBelow;
+    }
+
+    @Override
+    public Object generate(GenerationContext context) {
+        return presence(context) < nullBelow ? null : writer.generate(context);
+    }
+
+    @Override
+    public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+        if (presence(context) < nullBelow) {
+            encoder.writeValue(null);
+        } else {
+            writer.writeTo(encoder, context);
+        }
+    }
+
+    @Override
+    public void writeText(JsonLineEncoder encoder, GenerationContext context, TextEscapes escapes) {
+        if (presence(context) < nullBelow) {
+            encoder.writeText((Object) null, escapes);
+        } else {
+            writer.writeText(encoder, context, escapes);
+        }
+    }
+
+    /**
+     * @return true if the field can be left out of a line
+     */
+    public boolean canBeMissing() {
+        return missingBelow > 0;
+    }
+
+    @Override
+    public int maxWidth() {
+        // a missing field changes the bytes around it, a null one is written as null
+        int maxWidth = writer.maxWidth();
+        return canBeMissing() || maxWidth < 0 ? -1 : Math.max(maxWidth, 4);
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.ad1.loggenerator.generation;
+
+import java.nio.charset.StandardCharsets;
+
+import lombok.Getter;
+
+/**
+ * How the lines of a job are put together in the output. JSON lines form a
+ * JSON array, template lines are plain text with one line per event
+ */
+@Getter
+public final class OutputFormat {
+
+    // lines are JSON objects in a JSON array
+    public static final OutputFormat JSON_ARRAY = new OutputFormat("[", ",\n", "]", "application/json");
+    // lines are rendered from a template, one per text line
+    public static final OutputFormat TEXT_LINES = new OutputFormat("", "\n", "\n", "text/plain");
+
+    // written before the first line
+    private final byte[] start;
+    // written between two lines
+    private final byte[] delimiter;
+    // written after the last line
+    private final byte[] end;
+    // media type of the output when it is sent to an address or uploaded
+    private final String mediaType;
+
+    private OutputFormat(String start, String delimiter, String end, String mediaType) {
+        this.start = start.getBytes(StandardCharsets.US_ASCII);
+        this.delimiter = delimiter.getBytes(StandardCharsets.US_ASCII);
+        this.end = end.getBytes(StandardCharsets.US_ASCII);
+        this.mediaType = mediaType;
+    }
+
+}
@@ -0,0 +1,162 @@
+package com.ad1.loggenerator.generation;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import com.ad1.loggenerator.model.CustomLog;
+import com.ad1.loggenerator.model.SchemaVersion;
+import com.ad1.loggenerator.model.SelectionModel;
+
+/**
+ * Plans of a stream whose fields change while it runs. Every schema version
+ * is compiled before the stream starts and the current plan is swapped
+ * between blocks of lines, so the stream never waits for a compilation and
+ * takes no lock. The context of the generating thread moves to the new plan
+ * with the random state, clock, sessions and files of the old one, so only
+ * the layouts of the lines change
+ */
+public final class PlanSchedule {
+
+    // plans in start order, the first is the plan of the job
+    private final GenerationPlan[] plans;
+    // nanoseconds after the stream starts when each plan takes over
+    private final long[] startNanos;
+    // time the stream started, from System.nanoTime
+    private final long startNanoTime;
+    // plan lines are generated with, readable from any thread
+    private final AtomicReference<GenerationPlan> plan;
+    // index of the next plan to take over
+    private int nextPlan = 1;
+    // state of the generating thread for the current plan
+    private GenerationContext context;
+
+    public PlanSchedule(List<GenerationPlan> plans, long[] startSeconds, long startNanoTime) {
+        if (plans.isEmpty() || plans.size() != startSeconds.length) {
+            throw new IllegalArgumentException("A plan schedule needs a start time for each plan");
+        }
+        this.plans = plans.toArray(new GenerationPlan[0]);
+        this.startNanos = new long[startSeconds.length];
+        for (int i = 0; i < startSeconds.length; i++) {
+            startNanos[i] = TimeUnit.SECONDS.toNanos(startSeconds[i]);
+        }
+        this.startNanoTime = startNanoTime;
+        this.plan = new AtomicReference<>(this.plans[0]);
+        this.context = this.plans[0].newContext();
+    }
+
+    /**
+     * Compiles a stream job and each of its schema versions into a schedule
+     * that starts now
+     *
+     * @param selectionModel the stream job
+     * @param schemaVersions the schema versions of the stream, null if it has none
+     * @param compiler       compiles a selection model into a plan
+     * @return the schedule, starting with the plan of the job
+     */
+    public static PlanSchedule compile(SelectionModel selectionModel, List<SchemaVersion> schemaVersions,
+            Function<SelectionModel, GenerationPlan> compiler) {
+        List<SchemaVersion> versions = schemaVersions != null
+                ? new ArrayList<>(schemaVersions)
+                : new ArrayList<>();
+        versions.sort(Comparator.comparingLong(SchemaVersion::getStartSecond));
+
+        // versions copy the custom logs before fields excluded by the job are removed from them
+        List<SelectionModel> versionModels = new ArrayList<>();
+        for (SchemaVersion version : versions) {
+            versionModels.add(createVersionModel(selectionModel, version));
+        }
+
+        List<GenerationPlan> plans = new ArrayList<>();
+        long[] startSeconds = new long[versions.size() + 1];
+        plans.add(compiler.apply(selectionModel));
+        for (int i = 0; i < versions.size(); i++) {
+            plans.add(compiler.apply(versionModels.get(i)));
+            startSeconds[i + 1] = versions.get(i).getStartSecond();
+        }
+
+        return new PlanSchedule(plans, startSeconds, System.nanoTime());
+    }
+
+    /**
+     * Utility method to create the selection model of a schema version, the
+     * job with the field settings and custom logs of the version
+     *
+     * @param selectionModel
+     * @param version
+     * @return the selection model of the version
+     */
+    private static SelectionModel createVersionModel(SelectionModel selectionModel, SchemaVersion version) {
+        List<CustomLog> customLogs = version.getCustomLogs() != null
+                ? version.getCustomLogs()
+                : selectionModel.getCustomLogs();
+        List<CustomLog> copies = null;
+        if (customLogs != null) {
+            copies = new ArrayList<>();
+            for (CustomLog customLog : customLogs) {
+                if (customLog == null || customLog.getFields() == null) {
+                    copies.add(customLog);
+                    continue;
+                }
+                copies.add(new CustomLog(customLog.getFrequency(), new LinkedHashMap<>(customLog.getFields())));
+            }
+        }
+
+        SelectionModel versionModel = new SelectionModel();
+        versionModel.setJobId(selectionModel.getJobId());
+        versionModel.setRepeatingLoglinesPercent(selectionModel.getRepeatingLoglinesPercent());
+        versionModel.setFieldSettings(version.getFieldSettings() != null
+                ? version.getFieldSettings()
+                : selectionModel.getFieldSettings());
+        versionModel.setMalwareSettings(selectionModel.getMalwareSettings());
+        versionModel.setMode(selectionModel.getMode());
+        versionModel.setStreamSettings(selectionModel.getStreamSettings());
+        versionModel.setBatchSettings(selectionModel.getBatchSettings());
+        versionModel.setCustomLogs(copies);
+        versionModel.setGenerationSettings(selectionModel.getGenerationSettings());
+        versionModel.setLineTemplate(selectionModel.getLineTemplate());
+        return versionModel;
+    }
+
+    /**
+     * Swaps in the last plan whose start time has passed. Called by the
+     * generating thread between blocks of lines
+     *
+     * @param nanoTime the current time from System.nanoTime
+     * @return true if the plan changed
+     */
+    public boolean advance(long nanoTime) {
+        int due = nextPlan;
+        while (due < plans.length && nanoTime - startNanoTime >= startNanos[due]) {
+            due++;
+        }
+        if (due == nextPlan) {
+            return false;
+        }
+        nextPlan = due;
+        GenerationPlan next = plans[due - 1];
+        context = next.continueContext(context);
+        plan.set(next);
+        return true;
+    }
+
+    /**
+     * @return the plan lines are generated with
+     */
+    public GenerationPlan getPlan() {
+        return plan.get();
+    }
+
+    /**
+     * @return the context of the current plan, only used by the generating
+     *         thread
+     */
+    public GenerationContext getContext() {
+        return context;
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.ad1.loggenerator.generation;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Inverse CDF lookup table for sampling a continuous distribution without
+ * calling Math.log or Math.exp per value. The quantile function is evaluated
+ * once at evenly spaced probabilities and a sample interpolates linearly
+ * between the two quantiles around a uniform random value. The first and
+ * last segments hold the tails, where a straight line overestimates convex
+ * quantiles, so the few samples that land there evaluate the quantile
+ * function directly
+ */
+public final class QuantileTable {
+
+    // the table has 2^BITS segments, picked by the high bits of a random long
+    private static final int BITS = 12;
+    private static final int SEGMENTS = 1 << BITS;
+    // the tails are cut off at the probability closest to 1 a double can
+    // hold, which keeps the quantiles of unbounded distributions finite
+    private static final double TAIL = 0x1.0p-53;
+
+    // the inverse CDF, evaluated for samples in the first and last segments
+    private final DoubleUnaryOperator quantile;
+    // quantile at probability i / SEGMENTS for i from 0 to SEGMENTS
+    private final double[] quantiles;
+
+    /**
+     * Builds the table of a distribution
+     *
+     * @param quantile the inverse CDF of the distribution, called for
+     *                 probabilities in (0, 1)
+     */
+    public QuantileTable(DoubleUnaryOperator quantile) {
+        this.quantile = quantile;
+        quantiles = new double[SEGMENTS + 1];
+        for (int i = 0; i <= SEGMENTS; i++) {
+            double probability = clamp((double) i / SEGMENTS);
+            quantiles[i] = quantile.applyAsDouble(probability);
+            if (Double.isNaN(quantiles[i]) || Double.isInfinite(quantiles[i])) {
+                throw new IllegalArgumentException("Quantile at " + probability + " is not a finite number");
+            }
+        }
+    }
+
+    /**
+     * Creates the table of an empirical distribution given as points of its
+     * cumulative distribution function, interpolating linearly between them
+     *
+     * @param values        the values in increasing order
+     * @param probabilities the fraction of values up to each value, not
+     *                      decreasing. They are scaled so the last one is 1
+     * @return the table
+     */
+    public static QuantileTable empirical(double[] values, double[] probabilities) {
+        int n = values.length;
+        if (n < 2 || probabilities.length != n) {
+            throw new IllegalArgumentException("An empirical distribution needs at least two values and"
+                    + " one probability per value");
+        }
+        double total = probabilities[n - 1];
+        for (int i = 0; i < n; i++) {
+            if (probabilities[i] < 0 || (i > 0 && (probabilities[i] < probabilities[i - 1]
+                    || values[i] < values[i - 1]))) {
+                throw new IllegalArgumentException(
+                        "Empirical values and probabilities must not decrease");
+            }
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("An empirical distribution needs a positive probability");
+        }
+
+        return new QuantileTable(probability -> {
+            double target = probability * total;
+            // first point whose probability is not below the target
+            int low = 0;
+            int high = n - 1;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (probabilities[middle] < target) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            if (low == 0) {
+                return values[0];
+            }
+            double span = probabilities[low] - probabilities[low - 1];
+            double fraction = span > 0 ? (target - probabilities[low - 1]) / span : 1;
+            return values[low - 1] + (values[low] - values[low - 1]) * fraction;
+        });
+    }
+
+    /**
+     * Utility method to compute the quantile of the standard normal
+     * distribution with the rational approximation of P. J. Acklam, which
+     * has a relative error below 1.2e-9. Only used to build tables
+     *
+     * @param probability in (0, 1)
+     * @return the quantile
+     */
+    public static double normalQuantile(double probability) {
+        final double[] a = { -3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00 };
+        final double[] b = { -5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01 };
+        final double[] c = { -7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00 };
+        final double[] d = { 7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00 };
+        final double low = 0.02425;
+
+        if (probability < low) {
+            double q = Math.sqrt(-2 * Math.log(probability));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (probability > 1 - low) {
+            double q = Math.sqrt(-2 * Math.log(1 - probability));
+            return -(((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        double q = probability - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+
+    /**
+     * @return the smallest value the table can sample
+     */
+    public double min() {
+        return quantiles[0];
+    }
+
+    /**
+     * @return the largest value the table can sample
+     */
+    public double max() {
+        return quantiles[SEGMENTS];
+    }
+
+    /**
+     * Samples a value. The high bits of one random long pick the segment
+     * and the remaining bits the position within it
+     *
+     * @param random
+     * @return the sampled value
+     */
+    public double sample(RandomSource random) {
+        long bits = random.nextLong();
+        int segment = (int) (bits >>> (64 - BITS));
+        double fraction = (bits & ((1L << (64 - BITS)) - 1)) * 0x1.0p-52;
+        if (segment == 0) {
+            return quantile.applyAsDouble(clamp(fraction / SEGMENTS));
+        }
+        if (segment == SEGMENTS - 1) {
+            // 1 - fraction is exact, so the distance to 1 keeps all its bits
+            return quantile.applyAsDouble(clamp(1 - (1 - fraction) / SEGMENTS));
+        }
+        double from = quantiles[segment];
+        return from + (quantiles[segment + 1] - from) * fraction;
+    }
+
+    /**
+     * Utility method to keep a probability within the tails of the table
+     *
+     * @param probability
+     * @return the probability between TAIL and 1 - TAIL
+     */
+    private static double clamp(double probability) {
+        return Math.min(Math.max(probability, TAIL), 1 - TAIL);
+    }
+
+}
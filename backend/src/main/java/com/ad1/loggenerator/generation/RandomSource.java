@@ -0,0 +1,111 @@
+package com.ad1.loggenerator.generation;
+
+/**
+ * Fast non thread safe random number generator (xoshiro256**). Each job owns
+ * its own instance so generating lines never touches a shared, contended
+ * generator and never allocates. The same seed always produces the same
+ * sequence of values
+ */
+public final class RandomSource {
+
+    // odd constant used to spread consecutive seeds and counters
+    public static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    public RandomSource(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Resets the generator state from a seed. The four state words are
+     * expanded from the seed with SplitMix64 so similar seeds produce
+     * unrelated sequences
+     *
+     * @param seed
+     */
+    public void setSeed(long seed) {
+        s0 = mix64(seed += GOLDEN_GAMMA);
+        s1 = mix64(seed += GOLDEN_GAMMA);
+        s2 = mix64(seed += GOLDEN_GAMMA);
+        s3 = mix64(seed + GOLDEN_GAMMA);
+    }
+
+    /**
+     * @return a uniformly distributed long
+     */
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    /**
+     * @return a uniformly distributed int
+     */
+    public int nextInt() {
+        return (int) (nextLong() >>> 32);
+    }
+
+    /**
+     * Returns a uniformly distributed int in [0, bound) using Lemire's
+     * multiply and shift method, which avoids a division on almost every call
+     *
+     * @param bound the exclusive upper bound, must be positive
+     * @return a random int in [0, bound)
+     */
+    public int nextInt(int bound) {
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            // rare path, reject values that would bias the result
+            long threshold = (1L << 32) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    /**
+     * @return a uniformly distributed double in [0, 1)
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * DOUBLE_UNIT;
+    }
+
+    /**
+     * Creates a new generator seeded from this one, for example to give each
+     * worker of a job its own independent stream
+     *
+     * @return the new generator
+     */
+    public RandomSource split() {
+        return new RandomSource(nextLong());
+    }
+
+    /**
+     * SplitMix64 finalizer. Maps any long to a well mixed long
+     *
+     * @param z
+     * @return the mixed value
+     */
+    public static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
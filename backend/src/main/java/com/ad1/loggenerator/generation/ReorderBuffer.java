@@ -0,0 +1,154 @@
+package com.ad1.loggenerator.generation;
+
+/**
+ * Bounded buffer that writes lines out of order. Every line gets a release
+ * position a random number of lines after its own and waits in a binary
+ * min heap of slot indices until the stream reaches that position, so a
+ * line is late by at most the lateness it was given. Stragglers are given
+ * a much larger lateness. The slots and their line buffers are reused, so
+ * memory stays fixed
+ */
+public final class ReorderBuffer {
+
+    private final int maxLateness;
+    private final double stragglerFraction;
+    private final int stragglerLateness;
+
+    // the bytes of the line in each slot
+    private final JsonLineEncoder[] lines;
+    // position the line of each slot is released at, and its own position
+    private final long[] releases;
+    private final long[] sequences;
+    // slots ordered as a min heap by release and then by position
+    private final int[] heap;
+    private int size;
+    // slots without a line
+    private final int[] freeSlots;
+    private int freeCount;
+    // position of the next line
+    private long sequence;
+
+    /**
+     * @param maxLateness       most lines a line is written after its place
+     * @param stragglerFraction fraction of lines that are stragglers
+     * @param stragglerLateness most lines a straggler is written after its
+     *                          place
+     */
+    public ReorderBuffer(int maxLateness, double stragglerFraction, int stragglerLateness) {
+        this.maxLateness = maxLateness;
+        this.stragglerFraction = stragglerFraction;
+        this.stragglerLateness = stragglerLateness;
+
+        // a line waits at most its lateness, so the buffer never overflows
+        int capacity = Math.max(maxLateness, stragglerFraction > 0 ? stragglerLateness : 0) + 1;
+        this.lines = new JsonLineEncoder[capacity];
+        this.releases = new long[capacity];
+        this.sequences = new long[capacity];
+        this.heap = new int[capacity];
+        this.freeSlots = new int[capacity];
+        for (int i = 0; i < capacity; i++) {
+            freeSlots[i] = capacity - 1 - i;
+        }
+        this.freeCount = capacity;
+    }
+
+    /**
+     * Creates an empty buffer with the same settings, for a new context of
+     * the same plan
+     *
+     * @return the new buffer
+     */
+    public ReorderBuffer copy() {
+        return new ReorderBuffer(maxLateness, stragglerFraction, stragglerLateness);
+    }
+
+    /**
+     * @return true if the line of the next position or a line released
+     *         before it is waiting, or if no slot is free
+     */
+    public boolean hasDueLine() {
+        return size > 0 && (freeCount == 0 || releases[heap[0]] <= sequence);
+    }
+
+    /**
+     * Gets the buffer of a free slot to write the next line to. Call add
+     * once the line is written
+     *
+     * @return the empty line buffer
+     */
+    public JsonLineEncoder nextLine() {
+        int slot = freeSlots[freeCount - 1];
+        JsonLineEncoder line = lines[slot];
+        if (line == null) {
+            line = new JsonLineEncoder(256);
+            lines[slot] = line;
+        }
+        line.reset();
+        return line;
+    }
+
+    /**
+     * Adds the line written to the buffer of nextLine with a random
+     * lateness
+     *
+     * @param random the random source of the job
+     */
+    public void add(RandomSource random) {
+        int slot = freeSlots[--freeCount];
+        int lateness = stragglerFraction > 0 && random.nextDouble() < stragglerFraction
+                ? random.nextInt(stragglerLateness + 1)
+                : random.nextInt(maxLateness + 1);
+        releases[slot] = sequence + lateness;
+        sequences[slot] = sequence;
+        sequence++;
+
+        // sift the slot up from the end of the heap
+        int index = size++;
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(slot, heap[parent])) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = slot;
+    }
+
+    /**
+     * Writes the line released first to the output and frees its slot
+     *
+     * @param sink the destination of the line
+     */
+    public void writeDueLine(JsonLineEncoder sink) {
+        int slot = heap[0];
+        JsonLineEncoder line = lines[slot];
+        sink.writeRaw(line.getBuffer(), 0, line.size());
+        freeSlots[freeCount++] = slot;
+
+        // sift the last slot down from the root
+        int last = heap[--size];
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], last)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = last;
+    }
+
+    private boolean before(int slot, int other) {
+        return releases[slot] < releases[other]
+                || (releases[slot] == releases[other] && sequences[slot] < sequences[other]);
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.ad1.loggenerator.generation;
+
+/**
+ * Ring buffer of the last serialized lines of a job. A repeated line copies
+ * the bytes of a line from the window, chosen by its distance from the
+ * newest line, so duplicates are spread over the window and are never
+ * serialized again. The window can also be limited to the lines of the
+ * last seconds of event time
+ */
+public final class RepeatWindow {
+
+    private final int capacity;
+    // oldest event time a repeat can copy, relative to now. 0 for no limit
+    private final long windowNanos;
+    // distribution of the distance minus 1, null if distances are uniform
+    private final QuantileTable distances;
+
+    // the bytes of each line in the ring, reused once the ring is full
+    private final JsonLineEncoder[] lines;
+    // event time of each line in the ring
+    private final long[] times;
+    // number of lines in the ring and position of the next line
+    private int count;
+    private int next;
+
+    /**
+     * @param capacity    number of recent lines a repeat can copy
+     * @param windowNanos only repeat lines of this much recent event time,
+     *                    0 for no limit
+     * @param distances   distribution of the distance of a repeat minus 1,
+     *                    null if any line of the window is equally likely
+     */
+    public RepeatWindow(int capacity, long windowNanos, QuantileTable distances) {
+        this.capacity = capacity;
+        this.windowNanos = windowNanos;
+        this.distances = distances;
+        this.lines = new JsonLineEncoder[capacity];
+        this.times = new long[capacity];
+    }
+
+    /**
+     * Creates an empty window with the same settings, for a new context of
+     * the same plan
+     *
+     * @return the new window
+     */
+    public RepeatWindow copy() {
+        return new RepeatWindow(capacity, windowNanos, distances);
+    }
+
+    /**
+     * Keeps a copy of a serialized line, in place of the oldest line once
+     * the ring is full
+     *
+     * @param buffer the bytes the line was written to
+     * @param from   start of the line, inclusive
+     * @param to     end of the line, exclusive
+     * @param time   event time of the line in nanoseconds
+     */
+    public void add(byte[] buffer, int from, int to, long time) {
+        JsonLineEncoder line = lines[next];
+        if (line == null) {
+            line = new JsonLineEncoder(Math.max(256, to - from));
+            lines[next] = line;
+        }
+        line.reset();
+        line.writeRaw(buffer, from, to - from);
+        times[next] = time;
+        next = next + 1 < capacity ? next + 1 : 0;
+        if (count < capacity) {
+            count++;
+        }
+    }
+
+    /**
+     * Copies a line of the window to the output
+     *
+     * @param random the random source of the job
+     * @param now    the current event time in nanoseconds
+     * @param sink   the destination of the line
+     * @return false if the window has no line to repeat
+     */
+    public boolean repeat(RandomSource random, long now, JsonLineEncoder sink) {
+        int available = windowNanos > 0 ? countSince(now - windowNanos) : count;
+        if (available == 0) {
+            return false;
+        }
+        int distance;
+        if (distances != null) {
+            // compared as a double, a far tail value would overflow the int
+            double sample = distances.sample(random);
+            distance = sample < available ? 1 + (int) sample : 1 + random.nextInt(available);
+        } else {
+            distance = 1 + random.nextInt(available);
+        }
+        JsonLineEncoder line = lines[newest(distance)];
+        sink.writeRaw(line.getBuffer(), 0, line.size());
+        return true;
+    }
+
+    /**
+     * @param distance 1 for the newest line
+     * @return the position of a line in the ring
+     */
+    private int newest(int distance) {
+        int index = next - distance;
+        return index >= 0 ? index : index + capacity;
+    }
+
+    /**
+     * Counts the newest lines at or after a time with a binary search, the
+     * times of the ring do not decrease from the oldest to the newest line
+     *
+     * @param cutoff
+     * @return the number of lines
+     */
+    private int countSince(long cutoff) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (times[newest(middle)] >= cutoff) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+}
@@ -0,0 +1,211 @@
+package com.ad1.loggenerator.generation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Fixed size pool of active user sessions. Every line belongs to a random
+ * session of the pool, so the lines of a session are interleaved with other
+ * sessions like real traffic. A session keeps its user, its tenant and a
+ * working set of files until it has written its lines, then it ends and a
+ * new session starts in its place. The pool never grows, so memory stays
+ * flat however long the job runs
+ */
+public final class SessionPool {
+
+    // fields with one value for the whole session
+    private static final List<String> SESSION_FIELDS = Arrays.asList("currentUserID", "businessGUID");
+    // fields with one value per file of the working set, a line uses the
+    // values of the same file for all of them
+    private static final List<String> FILE_FIELDS = Arrays.asList("pathToFile", "fileSHA256");
+
+    private final int poolSize;
+    private final int averageLength;
+    private final int filesPerSession;
+    // names of the session fields
+    private final String[] names;
+    // generators of the values of new sessions, by session field
+    private final FieldWriter[] writers;
+    // number of values each session keeps of each field
+    private final int[] valuesPerSession;
+
+    // values of each field, session i uses the entries from i * valuesPerSession
+    private final Object[][] values;
+    // the same values encoded as JSON
+    private final byte[][][] encodedValues;
+    // lines each session still writes, 0 if the session has to start
+    private final int[] remainingLines;
+    private final JsonLineEncoder scratch = new JsonLineEncoder(256);
+    // session and file of the current line
+    private int session;
+    private int file;
+
+    private SessionPool(int poolSize, int averageLength, int filesPerSession, String[] names,
+            FieldWriter[] writers, int[] valuesPerSession) {
+        this.poolSize = poolSize;
+        this.averageLength = averageLength;
+        this.filesPerSession = filesPerSession;
+        this.names = names;
+        this.writers = writers;
+        this.valuesPerSession = valuesPerSession;
+        this.values = new Object[writers.length][];
+        this.encodedValues = new byte[writers.length][][];
+        for (int i = 0; i < writers.length; i++) {
+            values[i] = new Object[poolSize * valuesPerSession[i]];
+            encodedValues[i] = new byte[poolSize * valuesPerSession[i]][];
+        }
+        this.remainingLines = new int[poolSize];
+    }
+
+    /**
+     * Creates the pool of a plan and replaces the session fields of the
+     * generated slots with the values of the session of each line
+     *
+     * @param poolSize        number of sessions active at the same time
+     * @param averageLength   average number of lines of a session
+     * @param filesPerSession number of files a session works on
+     * @param generatedSlots  the generated slots of the job, session fields
+     *                        are replaced in place
+     * @return the pool, null if the job has no session field
+     */
+    public static SessionPool create(int poolSize, int averageLength, int filesPerSession,
+            List<FieldSlot> generatedSlots) {
+        List<String> names = new ArrayList<>();
+        List<FieldWriter> writers = new ArrayList<>();
+        List<Integer> valuesPerSession = new ArrayList<>();
+        for (int i = 0; i < generatedSlots.size(); i++) {
+            FieldSlot slot = generatedSlots.get(i);
+            boolean perFile = FILE_FIELDS.contains(slot.getName());
+            if (!perFile && !SESSION_FIELDS.contains(slot.getName())) {
+                continue;
+            }
+            generatedSlots.set(i, FieldSlot.generated(slot.getName(),
+                    new SessionWriter(writers.size(), perFile, slot.getWriter().maxWidth())));
+            names.add(slot.getName());
+            writers.add(slot.getWriter());
+            valuesPerSession.add(perFile ? filesPerSession : 1);
+        }
+        if (writers.isEmpty()) {
+            return null;
+        }
+        return new SessionPool(poolSize, averageLength, filesPerSession, names.toArray(new String[0]),
+                writers.toArray(new FieldWriter[0]), valuesPerSession.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Creates an empty pool with the same settings, for a new context of the
+     * same plan
+     *
+     * @return the new pool
+     */
+    public SessionPool copy() {
+        return new SessionPool(poolSize, averageLength, filesPerSession, names, writers, valuesPerSession);
+    }
+
+    /**
+     * Takes over the sessions of the pool of another plan of the same job,
+     * after a schema change. The pool stays empty if a session field of this
+     * plan has no values in the other pool, so every session restarts with
+     * values for all of its fields
+     *
+     * @param previous the pool the sessions were kept in until now
+     */
+    public void continueFrom(SessionPool previous) {
+        if (previous.poolSize != poolSize || previous.filesPerSession != filesPerSession) {
+            return;
+        }
+        int[] previousFields = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            previousFields[i] = Arrays.asList(previous.names).indexOf(names[i]);
+            if (previousFields[i] < 0) {
+                return;
+            }
+        }
+        for (int i = 0; i < names.length; i++) {
+            System.arraycopy(previous.values[previousFields[i]], 0, values[i], 0, values[i].length);
+            System.arraycopy(previous.encodedValues[previousFields[i]], 0, encodedValues[i], 0,
+                    encodedValues[i].length);
+        }
+        System.arraycopy(previous.remainingLines, 0, remainingLines, 0, poolSize);
+        session = previous.session;
+        file = previous.file;
+    }
+
+    /**
+     * Picks the session and the file of the next line, starting a new
+     * session in the slot of one that has ended. Runs in constant time
+     *
+     * @param context the state of the running job
+     */
+    public void nextLine(GenerationContext context) {
+        RandomSource random = context.getRandom();
+        session = random.nextInt(poolSize);
+        if (remainingLines[session] == 0) {
+            startSession(context);
+        }
+        remainingLines[session]--;
+        file = random.nextInt(filesPerSession);
+    }
+
+    private void startSession(GenerationContext context) {
+        // file by file, so the path and hash of a file of the population stay paired
+        for (int file = 0; file < filesPerSession; file++) {
+            if (context.getFiles() != null) {
+                context.getFiles().nextFile(context);
+            }
+            for (int i = 0; i < writers.length; i++) {
+                if (file < valuesPerSession[i]) {
+                    Object value = writers[i].generate(context);
+                    int entry = session * valuesPerSession[i] + file;
+                    scratch.reset();
+                    scratch.writeValue(value);
+                    values[i][entry] = value;
+                    encodedValues[i][entry] = scratch.toByteArray();
+                }
+            }
+        }
+        // lengths are spread evenly between 1 and twice the average
+        remainingLines[session] = 1 + context.getRandom().nextInt(2 * averageLength);
+    }
+
+    private int entry(boolean perFile) {
+        return perFile ? session * filesPerSession + file : session;
+    }
+
+    /**
+     * Writer of a session field, which copies the value the session of the
+     * line keeps
+     */
+    private static final class SessionWriter implements FieldWriter {
+
+        private final int field;
+        private final boolean perFile;
+        private final int maxWidth;
+
+        private SessionWriter(int field, boolean perFile, int maxWidth) {
+            this.field = field;
+            this.perFile = perFile;
+            this.maxWidth = maxWidth;
+        }
+
+        @Override
+        public Object generate(GenerationContext context) {
+            SessionPool sessions = context.getSessions();
+            return sessions.values[field][sessions.entry(perFile)];
+        }
+
+        @Override
+        public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+            SessionPool sessions = context.getSessions();
+            encoder.writeRaw(sessions.encodedValues[field][sessions.entry(perFile)]);
+        }
+
+        @Override
+        public int maxWidth() {
+            return maxWidth;
+        }
+
+    }
+
+}
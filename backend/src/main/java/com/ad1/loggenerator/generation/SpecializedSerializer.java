@@ -0,0 +1,39 @@
+package com.ad1.loggenerator.generation;
+
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+
+/**
+ * Template of the serializers defined for each layout. The class is never
+ * loaded under its own name: its bytes are defined as a hidden class with
+ * the method handle chain of a layout as class data. The handle sits in a
+ * static final field, so the JIT treats it as a constant and inlines the
+ * whole chain with the fragments and generators of the layout baked in
+ */
+final class SpecializedSerializer implements LineSerializer {
+
+    // the method handle chain of the layout, (JsonLineEncoder, GenerationContext)void
+    private static final MethodHandle WRITE;
+
+    static {
+        try {
+            WRITE = MethodHandles.classData(MethodHandles.lookup(), ConstantDescs.DEFAULT_NAME,
+                    MethodHandle.class);
+        } catch (IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Override
+    public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+        try {
+            WRITE.invokeExact(encoder, context);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.ad1.loggenerator.generation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Creates a serializer class for each layout when a job starts. The layout
+ * is turned into a chain of method handles, one per fragment and generated
+ * value, and the chain becomes the constant of a hidden class defined from
+ * the SpecializedSerializer template. The hidden classes are not strongly
+ * linked to their loader, so they are unloaded once the plan of the job is
+ * no longer used
+ */
+public final class SpecializedSerializers {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    // (byte[], JsonLineEncoder, GenerationContext)void
+    private static final MethodHandle WRITE_FRAGMENT;
+    // (FieldWriter, JsonLineEncoder, GenerationContext)void
+    private static final MethodHandle WRITE_VALUE;
+    // (FieldWriter, TextEscapes, JsonLineEncoder, GenerationContext)void
+    private static final MethodHandle WRITE_TEXT;
+    // (LongFieldWriter, ValueFormat, JsonLineEncoder, GenerationContext)void
+    private static final MethodHandle WRITE_FORMATTED;
+    // bytes of the SpecializedSerializer class, null if they could not be read
+    private static final byte[] TEMPLATE;
+
+    static {
+        try {
+            WRITE_FRAGMENT = LOOKUP.findStatic(SpecializedSerializers.class, "writeFragment",
+                    MethodType.methodType(void.class, byte[].class, JsonLineEncoder.class, GenerationContext.class));
+            WRITE_VALUE = LOOKUP.findStatic(SpecializedSerializers.class, "writeValue",
+                    MethodType.methodType(void.class, FieldWriter.class, JsonLineEncoder.class,
+                            GenerationContext.class));
+            WRITE_TEXT = LOOKUP.findStatic(SpecializedSerializers.class, "writeText",
+                    MethodType.methodType(void.class, FieldWriter.class, TextEscapes.class, JsonLineEncoder.class,
+                            GenerationContext.class));
+            WRITE_FORMATTED = LOOKUP.findStatic(SpecializedSerializers.class, "writeFormatted",
+                    MethodType.methodType(void.class, LongFieldWriter.class, ValueFormat.class,
+                            JsonLineEncoder.class, GenerationContext.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+        TEMPLATE = readTemplate();
+    }
+
+    private SpecializedSerializers() {
+    }
+
+    /**
+     * Creates a serializer specialized for a layout
+     *
+     * @param fragments      the pre-encoded fragments of the layout
+     * @param generatedSlots the generated slots of the layout
+     * @return the serializer, null if hidden classes cannot be defined
+     */
+    public static LineSerializer create(byte[][] fragments, FieldSlot[] generatedSlots) {
+        if (TEMPLATE == null) {
+            return null;
+        }
+
+        // built back to front, each fold runs its combiner before the rest of the chain
+        MethodHandle chain = MethodHandles.insertArguments(WRITE_FRAGMENT, 0,
+                (Object) fragments[generatedSlots.length]);
+        for (int i = generatedSlots.length - 1; i >= 0; i--) {
+            chain = MethodHandles.foldArguments(chain, valueWriter(generatedSlots[i].getWriter()));
+            chain = MethodHandles.foldArguments(chain,
+                    MethodHandles.insertArguments(WRITE_FRAGMENT, 0, (Object) fragments[i]));
+        }
+
+        try {
+            MethodHandles.Lookup hidden = LOOKUP.defineHiddenClassWithClassData(TEMPLATE, chain, true);
+            MethodHandle constructor = hidden.findConstructor(hidden.lookupClass(),
+                    MethodType.methodType(void.class));
+            return (LineSerializer) constructor.invoke();
+        } catch (Throwable e) {
+            // the layout keeps using the interpreted path
+            return null;
+        }
+    }
+
+    /**
+     * Binds the writer of a generated value. Template values that are not
+     * copied later bind the writer they wrap, so its call is not shared with
+     * the other placeholders
+     */
+    private static MethodHandle valueWriter(FieldWriter writer) {
+        if (writer instanceof TextFieldWriter) {
+            TextFieldWriter text = (TextFieldWriter) writer;
+            if (text.getMark() < 0 && text.getFormat() == ValueFormat.TEXT) {
+                return MethodHandles.insertArguments(WRITE_TEXT, 0, text.getWriter(), text.getEscapes());
+            }
+            if (text.getMark() < 0 && text.getLongWriter() != null) {
+                return MethodHandles.insertArguments(WRITE_FORMATTED, 0, text.getLongWriter(), text.getFormat());
+            }
+        }
+        return MethodHandles.insertArguments(WRITE_VALUE, 0, writer);
+    }
+
+    private static void writeFragment(byte[] fragment, JsonLineEncoder encoder, GenerationContext context) {
+        encoder.writeRaw(fragment);
+    }
+
+    private static void writeValue(FieldWriter writer, JsonLineEncoder encoder, GenerationContext context) {
+        writer.writeTo(encoder, context);
+    }
+
+    private static void writeText(FieldWriter writer, TextEscapes escapes, JsonLineEncoder encoder,
+            GenerationContext context) {
+        writer.writeText(encoder, context, escapes);
+    }
+
+    private static void writeFormatted(LongFieldWriter writer, ValueFormat format, JsonLineEncoder encoder,
+            GenerationContext context) {
+        format.write(encoder, writer.nextLong(context));
+    }
+
+    private static byte[] readTemplate() {
+        try (InputStream template = SpecializedSerializers.class
+                .getResourceAsStream("SpecializedSerializer.class")) {
+            return template != null ? template.readAllBytes() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+package com.ad1.loggenerator.generation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.ad1.loggenerator.model.LineTemplate;
+import com.ad1.loggenerator.model.LineTemplateFormat;
+
+/**
+ * A line template parsed once per job into literal text and placeholders.
+ * A placeholder is ${field} or ${field:format}, where the format is one of
+ * iso8601, clf or millis for timestamps. The template is compiled against
+ * the slots of each layout into the same fragments and generated slots as a
+ * JSON layout, so rendering a template line is a copy of each fragment and
+ * a write of each generated value
+ */
+public final class TemplatePattern {
+
+    // RFC 5424 with the fields as structured data
+    static final String SYSLOG_PATTERN = "<14>1 ${timeStamp:iso8601} - loggenerator - event [event@32473"
+            + " processingTime=\"${processingTime}\" currentUserID=\"${currentUserID}\""
+            + " businessGUID=\"${businessGUID}\" pathToFile=\"${pathToFile}\" fileSHA256=\"${fileSHA256}\""
+            + " disposition=\"${disposition}\"]";
+    // CEF with the disposition as the severity
+    static final String CEF_PATTERN = "CEF:0|ad1|loggenerator|1.0|file-event|File event|${disposition}|"
+            + "rt=${timeStamp:millis} suser=${currentUserID} cs1Label=businessGUID cs1=${businessGUID}"
+            + " filePath=${pathToFile} fileHash=${fileSHA256} cn1Label=processingTime cn1=${processingTime}";
+    // LEEF 2.0 with tab separated attributes
+    static final String LEEF_PATTERN = "LEEF:2.0|ad1|loggenerator|1.0|${disposition}|"
+            + "devTime=${timeStamp:millis}\tusrName=${currentUserID}\tbusinessGUID=${businessGUID}"
+            + "\tfilePath=${pathToFile}\tfileHash=${fileSHA256}\tprocessingTime=${processingTime}";
+    // Apache combined log format
+    static final String APACHE_PATTERN = "127.0.0.1 - ${currentUserID} ${timeStamp:clf}"
+            + " \"GET ${pathToFile} HTTP/1.1\" 200 ${processingTime} \"-\" \"${businessGUID}\"";
+
+    // literal text before each placeholder, the last one follows the last placeholder
+    private final String[] literals;
+    // field name of each placeholder
+    private final String[] fieldNames;
+    // value format of each placeholder
+    private final ValueFormat[] formats;
+    // characters of values escaped with a backslash
+    private final TextEscapes escapes;
+
+    private TemplatePattern(String[] literals, String[] fieldNames, ValueFormat[] formats, TextEscapes escapes) {
+        this.literals = literals;
+        this.fieldNames = fieldNames;
+        this.formats = formats;
+        this.escapes = escapes;
+    }
+
+    /**
+     * Parses the template of a job. The pattern of the template replaces the
+     * default pattern of its format
+     *
+     * @param template
+     * @return the parsed template
+     */
+    public static TemplatePattern of(LineTemplate template) {
+        LineTemplateFormat format = template.getFormat() != null ? template.getFormat() : LineTemplateFormat.CUSTOM;
+        String pattern = template.getPattern();
+        String escapedChars;
+        String defaultPattern;
+        switch (format) {
+            case SYSLOG:
+                defaultPattern = SYSLOG_PATTERN;
+                escapedChars = "\"\\]";
+                break;
+            case CEF:
+                defaultPattern = CEF_PATTERN;
+                escapedChars = "\\=";
+                break;
+            case LEEF:
+                defaultPattern = LEEF_PATTERN;
+                escapedChars = "";
+                break;
+            case APACHE:
+                defaultPattern = APACHE_PATTERN;
+                escapedChars = "\"\\";
+                break;
+            default:
+                defaultPattern = null;
+                escapedChars = "";
+        }
+        if (pattern == null || pattern.isEmpty()) {
+            pattern = defaultPattern;
+        }
+        if (pattern == null) {
+            throw new IllegalArgumentException("A custom line template needs a pattern");
+        }
+        return parse(pattern, new TextEscapes(escapedChars));
+    }
+
+    /**
+     * Splits a pattern into literal text and placeholders
+     *
+     * @param pattern
+     * @param escapes characters of values escaped with a backslash
+     * @return the parsed template
+     */
+    public static TemplatePattern parse(String pattern, TextEscapes escapes) {
+        List<String> literals = new ArrayList<>();
+        List<String> fieldNames = new ArrayList<>();
+        List<ValueFormat> formats = new ArrayList<>();
+
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < pattern.length()) {
+            int start = pattern.indexOf("${", i);
+            if (start < 0) {
+                literal.append(pattern, i, pattern.length());
+                break;
+            }
+            int end = pattern.indexOf('}', start + 2);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in line template at index " + start);
+            }
+            literal.append(pattern, i, start);
+
+            String placeholder = pattern.substring(start + 2, end);
+            int colon = placeholder.indexOf(':');
+            String name = colon < 0 ? placeholder : placeholder.substring(0, colon);
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Empty placeholder in line template at index " + start);
+            }
+            literals.add(literal.toString());
+            literal.setLength(0);
+            fieldNames.add(name);
+            formats.add(ValueFormat.fromModifier(colon < 0 ? null : placeholder.substring(colon + 1)));
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+
+        return new TemplatePattern(literals.toArray(new String[0]), fieldNames.toArray(new String[0]),
+                formats.toArray(new ValueFormat[0]), escapes);
+    }
+
+    /**
+     * Compiles the template against the slots of a layout. Constant values
+     * and fields the layout does not have are rendered into the fragments,
+     * the other placeholders become generated slots. A generated field used
+     * more than once with the same format is generated once and copied
+     *
+     * @param slots      the fields of the layout
+     * @param specialize true to define a serializer class for the layout
+     * @return the layout
+     */
+    public LineLayout compileLayout(FieldSlot[] slots, boolean specialize) {
+        Map<String, FieldSlot> slotsByName = new HashMap<>();
+        for (FieldSlot slot : slots) {
+            slotsByName.put(slot.getName(), slot);
+        }
+
+        // generated values that are written more than once need a mark
+        Set<String> seen = new HashSet<>();
+        Set<String> repeated = new HashSet<>();
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (!seen.add(fieldNames[i] + ':' + formats[i])) {
+                repeated.add(fieldNames[i] + ':' + formats[i]);
+            }
+        }
+
+        List<byte[]> fragments = new ArrayList<>();
+        List<FieldSlot> generatedSlots = new ArrayList<>();
+        Map<String, Integer> marks = new HashMap<>();
+        JsonLineEncoder fragment = new JsonLineEncoder(256);
+
+        for (int i = 0; i < fieldNames.length; i++) {
+            fragment.writeRaw(literals[i].getBytes(StandardCharsets.UTF_8));
+
+            FieldSlot slot = slotsByName.get(fieldNames[i]);
+            if (slot == null || slot.isConstant()) {
+                formats[i].writeValue(fragment, slot != null ? slot.getConstant() : null, escapes);
+                continue;
+            }
+
+            String key = fieldNames[i] + ':' + formats[i];
+            Integer mark = marks.get(key);
+            FieldWriter writer;
+            if (mark != null) {
+                writer = new CopyWriter(mark);
+            } else {
+                int newMark = -1;
+                if (repeated.contains(key)) {
+                    newMark = marks.size();
+                    marks.put(key, newMark);
+                }
+                writer = new TextFieldWriter(slot.getWriter(), formats[i], escapes, newMark);
+            }
+            generatedSlots.add(FieldSlot.generated(slot.getName(), writer));
+            fragments.add(fragment.toByteArray());
+            fragment.reset();
+        }
+        fragment.writeRaw(literals[fieldNames.length].getBytes(StandardCharsets.UTF_8));
+        fragments.add(fragment.toByteArray());
+
+        return new LineLayout(slots, fragments.toArray(new byte[0][]),
+                generatedSlots.toArray(new FieldSlot[0]), specialize);
+    }
+
+    /**
+     * Writes a value already written on the line again
+     */
+    private static final class CopyWriter implements FieldWriter {
+
+        private final int mark;
+
+        private CopyWriter(int mark) {
+            this.mark = mark;
+        }
+
+        @Override
+        public Object generate(GenerationContext context) {
+            return null;
+        }
+
+        @Override
+        public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+            context.copyValue(mark, encoder);
+        }
+
+    }
+
+}
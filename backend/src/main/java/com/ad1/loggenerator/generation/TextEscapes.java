@@ -0,0 +1,46 @@
+package com.ad1.loggenerator.generation;
+
+/**
+ * The ASCII characters a line template escapes with a backslash in its
+ * values, kept as a bit mask so checking a character is a shift
+ */
+public final class TextEscapes {
+
+    // escapes nothing
+    public static final TextEscapes NONE = new TextEscapes("");
+
+    // characters 0 to 63
+    private final long low;
+    // characters 64 to 127
+    private final long high;
+
+    /**
+     * @param chars the escaped characters, all ASCII
+     */
+    public TextEscapes(String chars) {
+        long low = 0;
+        long high = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (c >= 0x80) {
+                throw new IllegalArgumentException("Only ASCII characters can be escaped: " + c);
+            }
+            if (c < 64) {
+                low |= 1L << c;
+            } else {
+                high |= 1L << (c - 64);
+            }
+        }
+        this.low = low;
+        this.high = high;
+    }
+
+    /**
+     * @param c an ASCII character
+     * @return true if the character is escaped
+     */
+    public boolean isEscaped(char c) {
+        return ((c < 64 ? low : high) & (1L << c)) != 0;
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.ad1.loggenerator.generation;
+
+import lombok.Getter;
+
+/**
+ * Writes the value of a field writer as text in the format of a template
+ * placeholder. Specialized serializers bind the wrapped writer directly, so
+ * the JIT sees the exact writer of each placeholder
+ */
+@Getter
+final class TextFieldWriter implements FieldWriter {
+
+    // the writer of the field
+    private final FieldWriter writer;
+    // the same writer if it writes numbers without boxing, null otherwise
+    private final LongFieldWriter longWriter;
+    // format of the placeholder
+    private final ValueFormat format;
+    // characters of values escaped with a backslash
+    private final TextEscapes escapes;
+    // index of the value on the line if it is copied later, -1 otherwise
+    private final int mark;
+
+    TextFieldWriter(FieldWriter writer, ValueFormat format, TextEscapes escapes, int mark) {
+        this.writer = writer;
+        this.longWriter = writer instanceof LongFieldWriter ? (LongFieldWriter) writer : null;
+        this.format = format;
+        this.escapes = escapes;
+        this.mark = mark;
+    }
+
+    @Override
+    public Object generate(GenerationContext context) {
+        return writer.generate(context);
+    }
+
+    @Override
+    public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+        int start = encoder.size();
+        if (format == ValueFormat.TEXT) {
+            writer.writeText(encoder, context, escapes);
+        } else if (longWriter != null) {
+            format.write(encoder, longWriter.nextLong(context));
+        } else {
+            format.writeValue(encoder, writer.generate(context), escapes);
+        }
+        if (mark >= 0) {
+            context.markValue(mark, start, encoder.size());
+        }
+    }
+
+}
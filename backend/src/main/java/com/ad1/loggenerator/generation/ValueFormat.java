@@ -0,0 +1,150 @@
+package com.ad1.loggenerator.generation;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * How a template placeholder writes its value, chosen with the modifier of
+ * the placeholder, for example ${timeStamp:iso8601}. The time formats take
+ * a value in epoch seconds and write it in UTC without creating any object
+ */
+public enum ValueFormat {
+
+    // the value as text
+    TEXT,
+    // RFC 3339 timestamp, 2023-04-05T12:34:56Z
+    ISO8601,
+    // Apache common log timestamp, [05/Apr/2023:12:34:56 +0000]
+    CLF,
+    // epoch milliseconds
+    MILLIS;
+
+    private static final byte[] MONTHS = "JanFebMarAprMayJunJulAugSepOctNovDec"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CLF_ZONE = " +0000]".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * @param modifier the modifier of a placeholder, null if there is none
+     * @return the format
+     */
+    public static ValueFormat fromModifier(String modifier) {
+        if (modifier == null) {
+            return TEXT;
+        }
+        switch (modifier) {
+            case "iso8601":
+                return ISO8601;
+            case "clf":
+                return CLF;
+            case "millis":
+                return MILLIS;
+            default:
+                throw new IllegalArgumentException("Unknown template value format: " + modifier);
+        }
+    }
+
+    /**
+     * Writes a numeric value in this format
+     *
+     * @param encoder
+     * @param epochSeconds
+     */
+    public void write(JsonLineEncoder encoder, long epochSeconds) {
+        switch (this) {
+            case ISO8601:
+                writeIso8601(encoder, epochSeconds);
+                break;
+            case CLF:
+                writeClf(encoder, epochSeconds);
+                break;
+            case MILLIS:
+                encoder.writeLong(epochSeconds * 1000);
+                break;
+            default:
+                encoder.writeLong(epochSeconds);
+        }
+    }
+
+    /**
+     * Writes any value in this format. Values that are not numbers are
+     * written as text
+     *
+     * @param encoder
+     * @param value
+     * @param escapes characters escaped with a backslash
+     */
+    public void writeValue(JsonLineEncoder encoder, Object value, TextEscapes escapes) {
+        if (this != TEXT && value instanceof Number) {
+            write(encoder, ((Number) value).longValue());
+        } else {
+            encoder.writeText(value, escapes);
+        }
+    }
+
+    private static void writeIso8601(JsonLineEncoder encoder, long epochSeconds) {
+        long days = Math.floorDiv(epochSeconds, 86400);
+        int secondOfDay = (int) Math.floorMod(epochSeconds, 86400);
+        long civil = civilFromDays(days);
+        int pos = encoder.reserve(20);
+        byte[] buffer = encoder.getBuffer();
+        writeDigits(buffer, pos, (int) (civil >> 9), 4);
+        buffer[pos + 4] = '-';
+        writeDigits(buffer, pos + 5, (int) ((civil >> 5) & 0xF), 2);
+        buffer[pos + 7] = '-';
+        writeDigits(buffer, pos + 8, (int) (civil & 0x1F), 2);
+        buffer[pos + 10] = 'T';
+        writeTime(buffer, pos + 11, secondOfDay);
+        buffer[pos + 19] = 'Z';
+    }
+
+    private static void writeClf(JsonLineEncoder encoder, long epochSeconds) {
+        long days = Math.floorDiv(epochSeconds, 86400);
+        int secondOfDay = (int) Math.floorMod(epochSeconds, 86400);
+        long civil = civilFromDays(days);
+        int pos = encoder.reserve(28);
+        byte[] buffer = encoder.getBuffer();
+        buffer[pos] = '[';
+        writeDigits(buffer, pos + 1, (int) (civil & 0x1F), 2);
+        buffer[pos + 3] = '/';
+        System.arraycopy(MONTHS, ((int) ((civil >> 5) & 0xF) - 1) * 3, buffer, pos + 4, 3);
+        buffer[pos + 7] = '/';
+        writeDigits(buffer, pos + 8, (int) (civil >> 9), 4);
+        buffer[pos + 12] = ':';
+        writeTime(buffer, pos + 13, secondOfDay);
+        System.arraycopy(CLF_ZONE, 0, buffer, pos + 21, CLF_ZONE.length);
+    }
+
+    /**
+     * Converts days since the epoch to a date, packed as year << 9 | month
+     * << 5 | day (H. Hinnant's civil_from_days)
+     */
+    private static long civilFromDays(long days) {
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthIndex = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * monthIndex + 2) / 5 + 1;
+        long month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        // years past 9999 do not fit the fixed width formats
+        year = Math.max(0, Math.min(9999, year));
+        return year << 9 | month << 5 | day;
+    }
+
+    private static void writeTime(byte[] buffer, int pos, int secondOfDay) {
+        writeDigits(buffer, pos, secondOfDay / 3600, 2);
+        buffer[pos + 2] = ':';
+        writeDigits(buffer, pos + 3, (secondOfDay / 60) % 60, 2);
+        buffer[pos + 5] = ':';
+        writeDigits(buffer, pos + 6, secondOfDay % 60, 2);
+    }
+
+    private static void writeDigits(byte[] buffer, int pos, int value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            buffer[pos + i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.ad1.loggenerator.generation.fields;
+
+import com.ad1.loggenerator.generation.CompileContext;
+import com.ad1.loggenerator.generation.FieldGenerator;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.fieldsettingsmodels.BusinessGuid;
+
+/**
+ * Built-in businessGUID field, a unique id of a business
+ */
+public final class BusinessGuidGenerator implements FieldGenerator<BusinessGuid> {
+
+    @Override
+    public String getName() {
+        return "businessGUID";
+    }
+
+    @Override
+    public Class<BusinessGuid> getSettingsType() {
+        return BusinessGuid.class;
+    }
+
+    @Override
+    public BusinessGuid getSettings(FieldSettings fieldSettings) {
+        return fieldSettings.getBusinessGUID();
+    }
+
+    @Override
+    public FieldWriter compile(BusinessGuid settings, CompileContext context) {
+        if (!settings.getValues().isEmpty()) {
+            return new ValueListWriter(settings.getValues(), settings);
+        }
+        if (context.isSecureIds()) {
+            return new SecureUuidWriter();
+        }
+        return new FastUuidWriter();
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.ad1.loggenerator.generation.fields;
+
+import com.ad1.loggenerator.generation.CompileContext;
+import com.ad1.loggenerator.generation.FieldGenerator;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.fieldsettingsmodels.CurrentUserId;
+
+/**
+ * Built-in currentUserID field, a unique id of a user
+ */
+public final class CurrentUserIdGenerator implements FieldGenerator<CurrentUserId> {
+
+    @Override
+    public String getName() {
+        return "currentUserID";
+    }
+
+    @Override
+    public Class<CurrentUserId> getSettingsType() {
+        return CurrentUserId.class;
+    }
+
+    @Override
+    public CurrentUserId getSettings(FieldSettings fieldSettings) {
+        return fieldSettings.getCurrentUserID();
+    }
+
+    @Override
+    public FieldWriter compile(CurrentUserId settings, CompileContext context) {
+        if (!settings.getValues().isEmpty()) {
+            return new ValueListWriter(settings.getValues(), settings);
+        }
+        if (context.isSecureIds()) {
+            return new SecureUuidWriter();
+        }
+        return new FastUuidWriter();
+    }
+
+}
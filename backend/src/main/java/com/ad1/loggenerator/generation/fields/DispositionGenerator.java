@@ -0,0 +1,72 @@
+package com.ad1.loggenerator.generation.fields;
+
+import com.ad1.loggenerator.generation.CompileContext;
+import com.ad1.loggenerator.generation.FieldGenerator;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
+import com.ad1.loggenerator.generation.RandomSource;
+import com.ad1.loggenerator.generation.TextEscapes;
+import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.fieldsettingsmodels.Disposition;
+
+/**
+ * Built-in disposition field: 1 = Clean, 2 = Suspicious, 3 = Malicious,
+ * 4 = Unknown
+ */
+public final class DispositionGenerator implements FieldGenerator<Disposition> {
+
+    @Override
+    public String getName() {
+        return "disposition";
+    }
+
+    @Override
+    public Class<Disposition> getSettingsType() {
+        return Disposition.class;
+    }
+
+    @Override
+    public Disposition getSettings(FieldSettings fieldSettings) {
+        return fieldSettings.getDisposition();
+    }
+
+    @Override
+    public FieldWriter compile(Disposition settings, CompileContext context) {
+        if (!settings.getValues().isEmpty()) {
+            return new ValueListWriter(settings.getValues(), settings);
+        }
+        return new FieldWriter() {
+            @Override
+            public Object generate(GenerationContext line) {
+                return randomDisposition(line.getRandom());
+            }
+
+            @Override
+            public void writeTo(JsonLineEncoder encoder, GenerationContext line) {
+                encoder.writeLong(randomDisposition(line.getRandom()));
+            }
+
+            @Override
+            public int maxWidth() {
+                return 1;
+            }
+
+            @Override
+            public void writeText(JsonLineEncoder encoder, GenerationContext line, TextEscapes escapes) {
+                encoder.writeLong(randomDisposition(line.getRandom()));
+            }
+        };
+    }
+
+    /**
+     * Utility method to generate a random disposition
+     *
+     * @param random
+     * @return a random disposition
+     */
+    public static int randomDisposition(RandomSource random) {
+        return random.nextInt(4) + 1;
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.ad1.loggenerator.generation.fields;
+
+import java.util.Arrays;
+
+import com.ad1.loggenerator.generation.FastUuid;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
+import com.ad1.loggenerator.generation.RandomSource;
+import com.ad1.loggenerator.generation.TextEscapes;
+
+/**
+ * Writer of random file paths with a fast, non cryptographic file name. The
+ * folders and extensions are encoded once, so a path is written into the
+ * line without concatenating Strings
+ */
+public final class FastFilepathWriter implements FieldWriter {
+
+    private final String[] folders;
+    private final String[] extensions;
+    // JSON encoded bytes before the file name of each folder, from the
+    // opening quote to the separator, and after it for each extension
+    private final byte[][] encodedFolders;
+    private final byte[][] encodedExtensions;
+    // length of the longest encoded path
+    private final int maxWidth;
+
+    public FastFilepathWriter(String[] folders, String[] extensions) {
+        this.folders = folders;
+        this.extensions = extensions;
+        this.encodedFolders = new byte[folders.length][];
+        this.encodedExtensions = new byte[extensions.length][];
+
+        int longestFolder = 0;
+        for (int i = 0; i < folders.length; i++) {
+            // drop the closing quote
+            byte[] encoded = encode(folders[i] + "\\");
+            encodedFolders[i] = Arrays.copyOf(encoded, encoded.length - 1);
+            longestFolder = Math.max(longestFolder, encodedFolders[i].length);
+        }
+        int longestExtension = 0;
+        for (int i = 0; i < extensions.length; i++) {
+            // drop the opening quote
+            byte[] encoded = encode(extensions[i]);
+            encodedExtensions[i] = Arrays.copyOfRange(encoded, 1, encoded.length);
+            longestExtension = Math.max(longestExtension, encodedExtensions[i].length);
+        }
+        this.maxWidth = longestFolder + FastUuid.LENGTH + longestExtension;
+    }
+
+    private static byte[] encode(String value) {
+        JsonLineEncoder encoder = new JsonLineEncoder(256);
+        encoder.writeString(value);
+        return encoder.toByteArray();
+    }
+
+    @Override
+    public Object generate(GenerationContext context) {
+        return PathToFileGenerator.randomFilepath(context.getRandom());
+    }
+
+    @Override
+    public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+        RandomSource random = context.getRandom();
+        encoder.writeRaw(encodedFolders[random.nextInt(encodedFolders.length)]);
+        long msb = random.nextLong();
+        long lsb = random.nextLong();
+        int pos = encoder.reserve(FastUuid.LENGTH);
+        FastUuid.writeTo(encoder.getBuffer(), pos, msb, lsb);
+        encoder.writeRaw(encodedExtensions[random.nextInt(encodedExtensions.length)]);
+    }
+
+    @Override
+    public int maxWidth() {
+        return maxWidth;
+    }
+
+    @Override
+    public void writeText(JsonLineEncoder encoder, GenerationContext context, TextEscapes escapes) {
+        RandomSource random = context.getRandom();
+        encoder.writeText(folders[random.nextInt(folders.length)], escapes);
+        encoder.writeText("\\", escapes);
+        long msb = random.nextLong();
+        long lsb = random.nextLong();
+        int pos = encoder.reserve(FastUuid.LENGTH);
+        FastUuid.writeTo(encoder.getBuffer(), pos, msb, lsb);
+        encoder.writeText(extensions[random.nextInt(extensions.length)], escapes);
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.ad1.loggenerator.generation.fields;
+
+import com.ad1.loggenerator.generation.FastSha256;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
+import com.ad1.loggenerator.generation.TextEscapes;
+
+/**
+ * Writer of fast, non cryptographic random SHA256 values. The digest is
+ * formatted straight into the line without creating a String
+ */
+public final class FastSha256Writer implements FieldWriter {
+
+    @Override
+    public Object generate(GenerationContext context) {
+        return FastSha256.next(context.getRandom());
+    }
+
+    @Override
+    public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+        int pos = encoder.reserve(FastSha256.LENGTH + 2);
+        byte[] buffer = encoder.getBuffer();
+        buffer[pos] = '"';
+        FastSha256.writeTo(buffer, pos + 1, context.getRandom());
+        buffer[pos + FastSha256.LENGTH + 1] = '"';
+    }
+
+    @Override
+    public int maxWidth() {
+        return FastSha256.LENGTH + 2;
+    }
+
+    @Override
+    public void writeText(JsonLineEncoder encoder, GenerationContext context, TextEscapes escapes) {
+        int pos = encoder.reserve(FastSha256.LENGTH);
+        FastSha256.writeTo(encoder.getBuffer(), pos, context.getRandom());
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.ad1.loggenerator.generation.fields;
+
+import com.ad1.loggenerator.generation.FastUuid;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
+import com.ad1.loggenerator.generation.RandomSource;
+import com.ad1.loggenerator.generation.TextEscapes;
+
+/**
+ * Writer of fast, non cryptographic random ids. The id is formatted straight
+ * into the line without creating a String
+ */
+public final class FastUuidWriter implements FieldWriter {
+
+    @Override
+    public Object generate(GenerationContext context) {
+        return FastUuid.next(context.getRandom());
+    }
+
+    @Override
+    public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+        RandomSource random = context.getRandom();
+        long msb = random.nextLong();
+        long lsb = random.nextLong();
+        int pos = encoder.reserve(FastUuid.LENGTH + 2);
+        byte[] buffer = encoder.getBuffer();
+        buffer[pos] = '"';
+        FastUuid.writeTo(buffer, pos + 1, msb, lsb);
+        buffer[pos + FastUuid.LENGTH + 1] = '"';
+    }
+
+    @Override
+    public int maxWidth() {
+        return FastUuid.LENGTH + 2;
+    }
+
+    @Override
+    public void writeText(JsonLineEncoder encoder, GenerationContext context, TextEscapes escapes) {
+        RandomSource random = context.getRandom();
+        long msb = random.nextLong();
+        long lsb = random.nextLong();
+        int pos = encoder.reserve(FastUuid.LENGTH);
+        FastUuid.writeTo(encoder.getBuffer(), pos, msb, lsb);
+    }
+
+}
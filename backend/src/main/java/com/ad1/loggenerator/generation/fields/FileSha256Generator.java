@@ -0,0 +1,75 @@
+package com.ad1.loggenerator.generation.fields;
+
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import com.ad1.loggenerator.generation.CompileContext;
+import com.ad1.loggenerator.generation.FastSha256;
+import com.ad1.loggenerator.generation.FieldGenerator;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.fieldsettingsmodels.FileSha256;
+
+/**
+ * Built-in fileSHA256 field, 64 hex characters
+ */
+public final class FileSha256Generator implements FieldGenerator<FileSha256> {
+
+    // source of the cryptographically secure random file SHA256 values
+    private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+
+    @Override
+    public String getName() {
+        return "fileSHA256";
+    }
+
+    @Override
+    public Class<FileSha256> getSettingsType() {
+        return FileSha256.class;
+    }
+
+    @Override
+    public FileSha256 getSettings(FieldSettings fieldSettings) {
+        return fieldSettings.getFileSHA256();
+    }
+
+    @Override
+    public FieldWriter compile(FileSha256 settings, CompileContext context) {
+        if (!settings.getValues().isEmpty()) {
+            return new ValueListWriter(settings.getValues(), settings);
+        }
+        if (settings.getPoolSize() != null) {
+            // draw from a bounded pool of random hashes to control cardinality
+            return new ValueListWriter(Arrays.asList(
+                    FastSha256.pool(settings.getPoolSize(), context.getCompileRandom())));
+        }
+        if (context.isSecureIds()) {
+            return new FieldWriter() {
+                @Override
+                public Object generate(GenerationContext line) {
+                    return secureSha256();
+                }
+
+                @Override
+                public int maxWidth() {
+                    return FastSha256.LENGTH + 2;
+                }
+            };
+        }
+        return new FastSha256Writer();
+    }
+
+    /**
+     * Utility method to generate a cryptographically secure random file SHA256
+     *
+     * @return a random file SHA256
+     */
+    public static String secureSha256() {
+        byte[] digest = new byte[32];
+        SECURE_RANDOM.nextBytes(digest);
+        return HexFormat.of().formatHex(digest);
+    }
+
+}
@@ -0,0 +1,51 @@
+package com.ad1.loggenerator.generation.fields;
+
+import java.util.List;
+
+import com.ad1.loggenerator.generation.CompileContext;
+import com.ad1.loggenerator.generation.FieldGenerator;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.QuantileTable;
+import com.ad1.loggenerator.model.fieldsettingsmodels.Message;
+
+/**
+ * Message field that pads lines to a target size. It is not one of the
+ * fields of the field settings, jobs set it as an additional field named
+ * message
+ */
+public final class MessageGenerator implements FieldGenerator<Message> {
+
+    // target line size used when the settings do not have one
+    private static final int DEFAULT_TARGET_LINE_SIZE = 512;
+
+    @Override
+    public String getName() {
+        return "message";
+    }
+
+    @Override
+    public Class<Message> getSettingsType() {
+        return Message.class;
+    }
+
+    @Override
+    public FieldWriter compile(Message settings, CompileContext context) {
+        if (settings.getValues() != null && !settings.getValues().isEmpty()) {
+            return new ValueListWriter(settings.getValues(), settings);
+        }
+        List<Long> lineSizes = settings.getLineSizes();
+        List<Double> lineSizeCdf = settings.getLineSizeCdf();
+        if (lineSizes != null || lineSizeCdf != null) {
+            if (lineSizes == null || lineSizeCdf == null) {
+                throw new IllegalArgumentException("An empirical line size needs sizes and a cdf");
+            }
+            QuantileTable table = QuantileTable.empirical(
+                    lineSizes.stream().mapToDouble(Long::doubleValue).toArray(),
+                    lineSizeCdf.stream().mapToDouble(Double::doubleValue).toArray());
+            return new PaddingWriter(0, table);
+        }
+        Integer targetLineSize = settings.getTargetLineSize();
+        return new PaddingWriter(targetLineSize != null ? targetLineSize : DEFAULT_TARGET_LINE_SIZE, null);
+    }
+
+}
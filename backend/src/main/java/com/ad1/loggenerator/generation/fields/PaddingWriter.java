@@ -0,0 +1,104 @@
+package com.ad1.loggenerator.generation.fields;
+
+import java.nio.charset.StandardCharsets;
+
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
+import com.ad1.loggenerator.generation.QuantileTable;
+import com.ad1.loggenerator.generation.RandomSource;
+import com.ad1.loggenerator.generation.TextEscapes;
+
+/**
+ * Writes a slice of a shared slab of random letters and digits, as long as
+ * it takes to fill the line up to its target size. The slab is made once
+ * and never escaped, so a value costs one copy whatever its length. Bytes
+ * written after the field, such as the closing brace, are not counted
+ */
+public final class PaddingWriter implements FieldWriter {
+
+    // largest target line size
+    public static final int SLAB_SIZE = 1 << 20;
+
+    private static final byte[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    // shared by every job, the content does not depend on the job seed
+    private static final byte[] SLAB = createSlab();
+
+    // target size of every line, used when there is no size distribution
+    private final int targetLineSize;
+    // inverse CDF of the target line sizes, null if the size is fixed
+    private final QuantileTable lineSizes;
+
+    public PaddingWriter(int targetLineSize, QuantileTable lineSizes) {
+        int largest = lineSizes != null ? (int) Math.min(Math.ceil(lineSizes.max()), Integer.MAX_VALUE)
+                : targetLineSize;
+        if (largest > SLAB_SIZE) {
+            throw new IllegalArgumentException("Target line sizes are at most " + SLAB_SIZE + " bytes");
+        }
+        this.targetLineSize = targetLineSize;
+        this.lineSizes = lineSizes;
+    }
+
+    private static byte[] createSlab() {
+        byte[] slab = new byte[SLAB_SIZE];
+        RandomSource random = new RandomSource(0x5eed);
+        for (int i = 0; i < slab.length; i++) {
+            slab[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+        }
+        return slab;
+    }
+
+    /**
+     * Utility method to choose the target size of the current line
+     *
+     * @param random
+     * @return the target size in bytes
+     */
+    private int nextTargetLineSize(RandomSource random) {
+        if (lineSizes == null) {
+            return targetLineSize;
+        }
+        return (int) Math.round(lineSizes.sample(random));
+    }
+
+    /**
+     * Utility method to choose where the value starts in the slab
+     *
+     * @param random
+     * @param length
+     * @return the offset of the value
+     */
+    private static int nextOffset(RandomSource random, int length) {
+        return random.nextInt(SLAB_SIZE - length + 1);
+    }
+
+    @Override
+    public Object generate(GenerationContext context) {
+        // a line built as an object has no size yet, the value takes all of it
+        RandomSource random = context.getRandom();
+        int length = Math.max(0, nextTargetLineSize(random));
+        return new String(SLAB, nextOffset(random, length), length, StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+        RandomSource random = context.getRandom();
+        int target = nextTargetLineSize(random);
+        // the quotes and the closing brace
+        int length = Math.max(0, target - (encoder.size() - context.getLineStart()) - 3);
+        encoder.writeByte('"');
+        encoder.writeRaw(SLAB, nextOffset(random, length), length);
+        encoder.writeByte('"');
+    }
+
+    @Override
+    public void writeText(JsonLineEncoder encoder, GenerationContext context, TextEscapes escapes) {
+        RandomSource random = context.getRandom();
+        int target = nextTargetLineSize(random);
+        int length = Math.max(0, target - (encoder.size() - context.getLineStart()));
+        encoder.writeRaw(SLAB, nextOffset(random, length), length);
+    }
+
+}
@@ -0,0 +1,107 @@
+package com.ad1.loggenerator.generation.fields;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import com.ad1.loggenerator.generation.CompileContext;
+import com.ad1.loggenerator.generation.FastUuid;
+import com.ad1.loggenerator.generation.FieldGenerator;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.RandomSource;
+import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.fieldsettingsmodels.PathToFile;
+
+/**
+ * Built-in pathToFile field, a Windows path of a random file
+ */
+public final class PathToFileGenerator implements FieldGenerator<PathToFile> {
+
+    // folders and extensions used for random file paths
+    private static final String[] FOLDERS = { "C:\\Program Files", "C:\\Windows", "C:\\Program Files (x86)",
+            "C:\\Program Files (x86)\\Common Files", "C:\\tmp", "C:\\home" };
+    private static final String[] EXTENSIONS = { ".pdf", ".xlsx", ".csv", ".txt", ".json", ".sys", ".docx", ".jpg",
+            ".zip" };
+    // writes the random file paths without creating Strings
+    private static final FastFilepathWriter FAST_WRITER = new FastFilepathWriter(FOLDERS, EXTENSIONS);
+
+    @Override
+    public String getName() {
+        return "pathToFile";
+    }
+
+    @Override
+    public Class<PathToFile> getSettingsType() {
+        return PathToFile.class;
+    }
+
+    @Override
+    public PathToFile getSettings(FieldSettings fieldSettings) {
+        return fieldSettings.getPathToFile();
+    }
+
+    @Override
+    public FieldWriter compile(PathToFile settings, CompileContext context) {
+        if (!settings.getValues().isEmpty()) {
+            // unescape the provided file paths once instead of on every line
+            List<String> values = settings.getValues().stream()
+                    .map(value -> value.replace("\\\\", "\\"))
+                    .collect(Collectors.toList());
+            return new ValueListWriter(values, settings);
+        }
+        if (context.isSecureIds()) {
+            return new FieldWriter() {
+                @Override
+                public Object generate(GenerationContext line) {
+                    return secureFilepath();
+                }
+
+                @Override
+                public int maxWidth() {
+                    // secure file names are as long as fast ones
+                    return FAST_WRITER.maxWidth();
+                }
+            };
+        }
+        return FAST_WRITER;
+    }
+
+    /**
+     * Utility method to generate a random filepath with a UUID.randomUUID()
+     * file name
+     *
+     * @return a random filepath
+     */
+    public static String secureFilepath() {
+        // get random path to file
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String pathToFile = FOLDERS[random.nextInt(FOLDERS.length)];
+
+        // get random filename and extension
+        String filename = UUID.randomUUID().toString() + EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+
+        // combine and return
+        return (pathToFile + "\\" + filename);
+    }
+
+    /**
+     * Utility method to generate a random filepath with a fast, non
+     * cryptographic file name from the random source of a job
+     *
+     * @param random
+     * @return a random filepath
+     */
+    public static String randomFilepath(RandomSource random) {
+        // get random path to file
+        String pathToFile = FOLDERS[random.nextInt(FOLDERS.length)];
+
+        // get random filename and extension
+        String filename = FastUuid.next(random) + EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+
+        // combine and return
+        return (pathToFile + "\\" + filename);
+    }
+
+}
@@ -0,0 +1,124 @@
+package com.ad1.loggenerator.generation.fields;
+
+import java.util.List;
+
+import com.ad1.loggenerator.generation.CompileContext;
+import com.ad1.loggenerator.generation.FieldGenerator;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.LongFieldWriter;
+import com.ad1.loggenerator.generation.QuantileTable;
+import com.ad1.loggenerator.generation.RandomSource;
+import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.ProcessingTimeDistribution;
+import com.ad1.loggenerator.model.fieldsettingsmodels.ProcessingTime;
+
+/**
+ * Built-in processingTime field, in seconds
+ */
+public final class ProcessingTimeGenerator implements FieldGenerator<ProcessingTime> {
+
+    // distribution parameters used when the settings do not have them
+    private static final double DEFAULT_SCALE = 100;
+    private static final double DEFAULT_SIGMA = 1;
+    private static final double DEFAULT_ALPHA = 1.5;
+
+    @Override
+    public String getName() {
+        return "processingTime";
+    }
+
+    @Override
+    public Class<ProcessingTime> getSettingsType() {
+        return ProcessingTime.class;
+    }
+
+    @Override
+    public ProcessingTime getSettings(FieldSettings fieldSettings) {
+        return fieldSettings.getProcessingTime();
+    }
+
+    @Override
+    public FieldWriter compile(ProcessingTime settings, CompileContext context) {
+        if (!settings.getValues().isEmpty()) {
+            return new ValueListWriter(settings.getValues(), settings);
+        }
+        ProcessingTimeDistribution distribution = settings.getDistribution();
+        if (distribution != null && distribution != ProcessingTimeDistribution.UNIFORM) {
+            QuantileTable table = compileTable(settings);
+            // empirical values can be negative, so the smallest value may be the widest
+            int maxWidth = Math.max(Long.toString(Math.round(table.min())).length(),
+                    Long.toString(Math.round(table.max())).length());
+            return new LongFieldWriter() {
+                @Override
+                public long nextLong(GenerationContext line) {
+                    return Math.round(table.sample(line.getRandom()));
+                }
+
+                @Override
+                public int maxWidth() {
+                    return maxWidth;
+                }
+            };
+        }
+        return new LongFieldWriter() {
+            @Override
+            public long nextLong(GenerationContext line) {
+                return randomProcessingTime(line.getRandom());
+            }
+
+            @Override
+            public int maxWidth() {
+                // 0 to 999
+                return 3;
+            }
+        };
+    }
+
+    /**
+     * Utility method to build the inverse CDF table of a processing time
+     * distribution, so no logarithm or exponential is computed per line
+     *
+     * @param settings
+     * @return the table
+     */
+    private static QuantileTable compileTable(ProcessingTime settings) {
+        double scale = settings.getScale() != null ? settings.getScale() : DEFAULT_SCALE;
+        switch (settings.getDistribution()) {
+            case LOG_NORMAL: {
+                double sigma = settings.getShape() != null ? settings.getShape() : DEFAULT_SIGMA;
+                return new QuantileTable(p -> scale * Math.exp(sigma * QuantileTable.normalQuantile(p)));
+            }
+            case EXPONENTIAL:
+                return new QuantileTable(p -> -scale * Math.log(1 - p));
+            case PARETO: {
+                double alpha = settings.getShape() != null ? settings.getShape() : DEFAULT_ALPHA;
+                return new QuantileTable(p -> scale / Math.pow(1 - p, 1 / alpha));
+            }
+            case EMPIRICAL: {
+                List<Long> values = settings.getEmpiricalValues();
+                List<Double> cdf = settings.getEmpiricalCdf();
+                if (values == null || cdf == null) {
+                    throw new IllegalArgumentException("An empirical processing time needs values and a cdf");
+                }
+                return QuantileTable.empirical(
+                        values.stream().mapToDouble(Long::doubleValue).toArray(),
+                        cdf.stream().mapToDouble(Double::doubleValue).toArray());
+            }
+            default:
+                throw new IllegalArgumentException("No table for processing time distribution "
+                        + settings.getDistribution());
+        }
+    }
+
+    /**
+     * Utility method to generate a random processing time
+     *
+     * @param random
+     * @return random processing time in seconds
+     */
+    public static long randomProcessingTime(RandomSource random) {
+        return random.nextInt(1000);
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.ad1.loggenerator.generation.fields;
+
+import java.util.UUID;
+
+import com.ad1.loggenerator.generation.FastUuid;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+
+/**
+ * Writer of cryptographically secure random ids from UUID.randomUUID()
+ */
+public final class SecureUuidWriter implements FieldWriter {
+
+    @Override
+    public Object generate(GenerationContext context) {
+        return UUID.randomUUID().toString();
+    }
+
+    @Override
+    public int maxWidth() {
+        return FastUuid.LENGTH + 2;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.ad1.loggenerator.generation.fields;
+
+import com.ad1.loggenerator.generation.CompileContext;
+import com.ad1.loggenerator.generation.FieldGenerator;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.LongFieldWriter;
+import com.ad1.loggenerator.generation.RandomSource;
+import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.fieldsettingsmodels.TimeStamp;
+
+/**
+ * Built-in timeStamp field, in epoch seconds
+ */
+public final class TimeStampGenerator implements FieldGenerator<TimeStamp> {
+
+    @Override
+    public String getName() {
+        return "timeStamp";
+    }
+
+    @Override
+    public Class<TimeStamp> getSettingsType() {
+        return TimeStamp.class;
+    }
+
+    @Override
+    public TimeStamp getSettings(FieldSettings fieldSettings) {
+        return fieldSettings.getTimeStamp();
+    }
+
+    @Override
+    public FieldWriter compile(TimeStamp settings, CompileContext context) {
+        if (settings.getClock() != null) {
+            return (LongFieldWriter) line -> line.getClock().nextSecond(line);
+        }
+        if (!settings.getValues().isEmpty()) {
+            return new ValueListWriter(settings.getValues(), settings);
+        }
+        // the wall clock is read once per job instead of once per line
+        long nowSeconds = System.currentTimeMillis() / 1000;
+        int maxWidth = Long.toString(nowSeconds).length();
+        return new LongFieldWriter() {
+            @Override
+            public long nextLong(GenerationContext line) {
+                return randomTimeStamp(line.getRandom(), nowSeconds);
+            }
+
+            @Override
+            public int maxWidth() {
+                return maxWidth;
+            }
+        };
+    }
+
+    /**
+     * Utility method to generate a random timestamp between the epoch and now
+     *
+     * @param random
+     * @param nowSeconds the current epoch second, read once for the job
+     * @return a timestamp
+     */
+    public static long randomTimeStamp(RandomSource random, long nowSeconds) {
+        return (long) (nowSeconds * random.nextDouble());
+    }
+
+}
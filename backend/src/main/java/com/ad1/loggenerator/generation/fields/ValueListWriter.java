@@ -0,0 +1,113 @@
+package com.ad1.loggenerator.generation.fields;
+
+import java.util.List;
+
+import com.ad1.loggenerator.generation.AliasTable;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
+import com.ad1.loggenerator.generation.RandomSource;
+import com.ad1.loggenerator.model.fieldsettingsmodels.FieldSetting;
+
+/**
+ * Writer of a field whose values are chosen from a list provided by the
+ * user. Every value is encoded once, so a line only copies its bytes. Values
+ * are equally likely unless the settings give them weights or a Zipf
+ * exponent, which are turned into an alias table when the job starts
+ */
+public final class ValueListWriter implements FieldWriter {
+
+    // the values to choose from
+    private final Object[] values;
+    // the JSON bytes of each value
+    private final byte[][] encodedValues;
+    // length of the longest encoded value
+    private final int maxWidth;
+    // distribution of the values, null if they are equally likely
+    private final AliasTable distribution;
+
+    /**
+     * @param values the values to choose from, at least one
+     */
+    public ValueListWriter(List<?> values) {
+        this(values, (AliasTable) null);
+    }
+
+    /**
+     * @param values   the values to choose from, at least one
+     * @param settings the settings with the weights or Zipf exponent of the
+     *                 values
+     */
+    public ValueListWriter(List<?> values, FieldSetting settings) {
+        this(values, createDistribution(settings, values.size()));
+    }
+
+    private ValueListWriter(List<?> values, AliasTable distribution) {
+        this.values = values.toArray();
+        this.encodedValues = new byte[this.values.length][];
+        JsonLineEncoder encoder = new JsonLineEncoder(256);
+        int maxWidth = 0;
+        for (int i = 0; i < this.values.length; i++) {
+            encoder.reset();
+            encoder.writeValue(this.values[i]);
+            encodedValues[i] = encoder.toByteArray();
+            maxWidth = Math.max(maxWidth, encodedValues[i].length);
+        }
+        this.maxWidth = maxWidth;
+        this.distribution = distribution;
+    }
+
+    /**
+     * Utility method to create the distribution of the values of a field.
+     * Weights take precedence over a Zipf exponent, where value i has a
+     * weight of 1 / (i + 1)^exponent
+     *
+     * @param settings
+     * @param count    the number of values
+     * @return the alias table, null if the values are equally likely
+     */
+    private static AliasTable createDistribution(FieldSetting settings, int count) {
+        List<Double> weights = settings.getWeights();
+        if (weights != null && !weights.isEmpty()) {
+            if (weights.size() != count) {
+                throw new IllegalArgumentException(
+                        "Expected " + count + " value weights but got " + weights.size());
+            }
+            double[] table = new double[count];
+            for (int i = 0; i < count; i++) {
+                Double weight = weights.get(i);
+                table[i] = weight != null ? weight : 0;
+            }
+            return new AliasTable(table);
+        }
+        Double exponent = settings.getZipfExponent();
+        if (exponent != null && exponent > 0) {
+            double[] table = new double[count];
+            for (int i = 0; i < count; i++) {
+                table[i] = Math.pow(i + 1, -exponent);
+            }
+            return new AliasTable(table);
+        }
+        return null;
+    }
+
+    private int nextIndex(RandomSource random) {
+        return distribution != null ? distribution.sample(random) : random.nextInt(values.length);
+    }
+
+    @Override
+    public Object generate(GenerationContext context) {
+        return values[nextIndex(context.getRandom())];
+    }
+
+    @Override
+    public int maxWidth() {
+        return maxWidth;
+    }
+
+    @Override
+    public void writeTo(JsonLineEncoder encoder, GenerationContext context) {
+        encoder.writeRaw(encodedValues[nextIndex(context.getRandom())]);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.ad1.loggenerator.model;
+
+public enum ArrivalDistribution {
+
+    // gaps spread evenly between zero and twice the average gap
+    UNIFORM,
+    // exponential gaps, events arrive as a Poisson process
+    POISSON,
+    // long runs of short gaps separated by quiet periods
+    BURSTY
+
+}
@@ -0,0 +1,23 @@
+package com.ad1.loggenerator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class EventClockSettings {
+
+    // epoch second of the first event, the time the job starts if not set
+    private Long startTime;
+
+    // average number of events per second, the stream log rate if not set
+    private double eventsPerSecond;
+
+    // distribution of the gaps between events, POISSON if not set
+    private ArrivalDistribution distribution;
+
+    // seconds of event time that pass per second of generation, 1 if not set
+    private double speedUp;
+}
@@ -1,6 +1,10 @@
 package com.ad1.loggenerator.model;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import com.ad1.loggenerator.model.fieldsettingsmodels.*;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
 
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
@@ -27,4 +31,22 @@ public class FieldSettings {
     private FileSha256 fileSHA256;
     @Valid
     private Disposition disposition;
+
+    // names written in place of field names, by field name
+    private Map<String, String> renamedFields;
+
+    // settings of fields added to the field generator registry, by field name
+    @JsonAnySetter
+    private Map<String, Object> additionalFields = new LinkedHashMap<>();
+
+    public FieldSettings(TimeStamp timeStamp, ProcessingTime processingTime, CurrentUserId currentUserID,
+            BusinessGuid businessGUID, PathToFile pathToFile, FileSha256 fileSHA256, Disposition disposition) {
+        this.timeStamp = timeStamp;
+        this.processingTime = processingTime;
+        this.currentUserID = currentUserID;
+        this.businessGUID = businessGUID;
+        this.pathToFile = pathToFile;
+        this.fileSHA256 = fileSHA256;
+        this.disposition = disposition;
+    }
 }
@@ -0,0 +1,24 @@
+package com.ad1.loggenerator.model;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FilePopulationSettings {
+
+    // number of recently seen files kept for reuse, 10000 if not set
+    @Positive
+    @Max(1000000)
+    private Integer size;
+    // chance a line is about a recently seen file instead of a new one, 0.9 if not set
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double reuseProbability;
+}
@@ -0,0 +1,50 @@
+package com.ad1.loggenerator.model;
+
+import jakarta.validation.Valid;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class GenerationSettings {
+
+    // seed for the random values of the job, a random seed is used if not set
+    private Long seed;
+    // use cryptographically secure UUIDs instead of the faster random ids
+    private boolean secureIds;
+    // generate line N from the seed, the job id and N alone, so any range of
+    // lines can be generated on its own
+    private boolean counterBased;
+    // walk the fields of every line instead of defining a serializer class per
+    // kind of log line when the job starts
+    private boolean interpreted;
+    // serialize every kind of log line once and produce the following lines
+    // by overwriting only the bytes of the generated values
+    private boolean patched;
+    // keep a pool of user sessions that correlate the user, tenant and files
+    // of their lines, lines are independent if not set. Counter based jobs
+    // ignore it, a session depends on the lines before it
+    @Valid
+    private SessionSettings sessions;
+    // draw files from a bounded population where a file keeps its path and
+    // hash, files are independent if not set. Counter based jobs ignore it
+    @Valid
+    private FilePopulationSettings filePopulation;
+    // repeat lines from a window of recent lines instead of only the line
+    // before, not set to only repeat the line before. Counter based jobs ignore it
+    @Valid
+    private RepeatWindowSettings repeatWindow;
+    // write lines out of order with a bounded lateness, lines are in order if
+    // not set. Counter based jobs ignore it
+    @Valid
+    private ReorderSettings reorder;
+
+    public GenerationSettings(Long seed, boolean secureIds, boolean counterBased, boolean interpreted) {
+        this.seed = seed;
+        this.secureIds = secureIds;
+        this.counterBased = counterBased;
+        this.interpreted = interpreted;
+    }
+}
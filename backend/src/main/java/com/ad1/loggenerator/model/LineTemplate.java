@@ -0,0 +1,19 @@
+package com.ad1.loggenerator.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class LineTemplate {
+
+    // format of the log lines, CUSTOM if not set
+    private LineTemplateFormat format;
+
+    // pattern with ${field} or ${field:format} placeholders, replaces the
+    // default pattern of the format if set
+    private String pattern;
+
+}
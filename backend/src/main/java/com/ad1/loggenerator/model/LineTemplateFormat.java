@@ -0,0 +1,16 @@
+package com.ad1.loggenerator.model;
+
+public enum LineTemplateFormat {
+
+    // RFC 5424 syslog with the fields as structured data
+    SYSLOG,
+    // ArcSight Common Event Format
+    CEF,
+    // IBM QRadar Log Event Extended Format 2.0
+    LEEF,
+    // Apache combined access log
+    APACHE,
+    // the pattern of the template
+    CUSTOM
+
+}
@@ -12,4 +12,19 @@ public class MalwareSettings {
     private boolean includeTrojan;
     private boolean includeAdware;
     private boolean includeRansom;
+
+    // long run fraction of lines that are malware detections, 0.01 if not set
+    private double eventRate;
+    // number of lines of an outbreak window, 100 if not set
+    private int burstLength;
+    // fraction of the lines of an outbreak that are detections, 0.5 if not set
+    private double burstIntensity;
+    // number of signatures per malware family, 8 if not set
+    private int signaturesPerFamily;
+
+    public MalwareSettings(boolean includeTrojan, boolean includeAdware, boolean includeRansom) {
+        this.includeTrojan = includeTrojan;
+        this.includeAdware = includeAdware;
+        this.includeRansom = includeRansom;
+    }
 }
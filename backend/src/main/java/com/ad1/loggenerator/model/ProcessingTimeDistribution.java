@@ -0,0 +1,16 @@
+package com.ad1.loggenerator.model;
+
+public enum ProcessingTimeDistribution {
+
+    // spread evenly between 0 and 999
+    UNIFORM,
+    // log-normal with a median of scale and a sigma of shape
+    LOG_NORMAL,
+    // exponential with a mean of scale
+    EXPONENTIAL,
+    // Pareto with a minimum of scale and an alpha of shape
+    PARETO,
+    // piecewise linear between the points of a cumulative distribution
+    EMPIRICAL
+
+}
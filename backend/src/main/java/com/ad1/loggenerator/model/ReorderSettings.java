@@ -0,0 +1,28 @@
+package com.ad1.loggenerator.model;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReorderSettings {
+
+    // most lines a line can be written after its place in the stream, 100 if not set
+    @Positive
+    @Max(100000)
+    private Integer maxLateness;
+    // fraction of lines that are very late stragglers, none if not set
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double stragglerFraction;
+    // most lines a straggler can be written after its place, 10 times maxLateness if not set
+    @Positive
+    @Max(1000000)
+    private Integer stragglerLateness;
+}
@@ -0,0 +1,10 @@
+package com.ad1.loggenerator.model;
+
+public enum RepeatDistance {
+
+    // every line of the window is equally likely to be repeated
+    UNIFORM,
+    // recent lines are more likely to be repeated, with an average distance
+    EXPONENTIAL
+
+}
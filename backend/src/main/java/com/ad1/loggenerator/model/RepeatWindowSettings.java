@@ -0,0 +1,27 @@
+package com.ad1.loggenerator.model;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RepeatWindowSettings {
+
+    // number of recent lines a repeat can copy, 1000 if not set
+    @Positive
+    @Max(100000)
+    private Integer lines;
+    // only repeat lines of the last seconds of event time, no limit if not set
+    @Positive
+    private Double seconds;
+    // how far back the repeated line is, UNIFORM if not set
+    private RepeatDistance distance;
+    // average distance in lines of EXPONENTIAL repeats, a tenth of the window if not set
+    @DecimalMin("1.0")
+    private Double meanDistance;
+}
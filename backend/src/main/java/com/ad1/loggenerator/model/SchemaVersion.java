@@ -0,0 +1,27 @@
+package com.ad1.loggenerator.model;
+
+import java.util.List;
+
+import com.ad1.loggenerator.model.validation.ValidCustomLog;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SchemaVersion {
+
+    // seconds after the stream starts when lines switch to this version
+    @PositiveOrZero
+    private long startSecond;
+    // field settings of the version, renamed fields included
+    @Valid
+    private FieldSettings fieldSettings;
+    // custom logs of the version, the custom logs of the job are kept if not set
+    @ValidCustomLog
+    private List<CustomLog> customLogs;
+}
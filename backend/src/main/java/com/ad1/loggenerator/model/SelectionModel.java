@@ -31,6 +31,7 @@ public class SelectionModel {
     private String mode;
 
     // stream mode settings
+    @Valid
     private StreamSettings streamSettings;
 
     // batch mode settings
@@ -40,4 +41,12 @@ public class SelectionModel {
     @ValidCustomLog
     private List<CustomLog> customLogs;
 
+    // optional settings for how values are generated
+    @Valid
+    private GenerationSettings generationSettings;
+
+    // template of the log lines, lines are JSON objects if not set
+    @Valid
+    private LineTemplate lineTemplate;
+
 }
@@ -0,0 +1,26 @@
+package com.ad1.loggenerator.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SessionSettings {
+
+    // number of sessions active at the same time, 1000 if not set
+    @Positive
+    @Max(100000)
+    private Integer poolSize;
+    // average number of lines of a session, 50 if not set
+    @Positive
+    @Max(1000000)
+    private Integer averageLength;
+    // number of files a session works on, 5 if not set
+    @Positive
+    @Max(100)
+    private Integer filesPerSession;
+}
@@ -1,5 +1,8 @@
 package com.ad1.loggenerator.model;
 
+import java.util.List;
+
+import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -16,4 +19,14 @@ public class StreamSettings {
 
     // if generated logs should be saved
     private boolean saveLogs;
+
+    // versions of the fields the stream switches to while it runs, none if not set
+    @Valid
+    private List<SchemaVersion> schemaVersions;
+
+    public StreamSettings(String streamAddress, int logRate, boolean saveLogs) {
+        this.streamAddress = streamAddress;
+        this.logRate = logRate;
+        this.saveLogs = saveLogs;
+    }
 }
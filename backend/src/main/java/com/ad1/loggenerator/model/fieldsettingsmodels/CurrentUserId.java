@@ -4,7 +4,10 @@ import java.util.List;
 
 import com.ad1.loggenerator.model.validation.ValidUUID;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,7 +15,7 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class CurrentUserId {
+public class CurrentUserId implements FieldSetting {
     
     // whether to include the field
     @NotNull(message="is required")
@@ -21,5 +24,23 @@ public class CurrentUserId {
     // @ValidUUID
     @NotNull
     private List<String> values;
-    
+    // optional weight of each value, the values are equally likely if not set
+    private List<Double> weights;
+    // optional Zipf exponent, the first values are the most likely if set
+    @PositiveOrZero
+    private Double zipfExponent;
+    // chance the field is null on a line, never if not set
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double nullRate;
+    // chance the field is left out of a line, never if not set
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double missingRate;
+
+    public CurrentUserId(Boolean include, List<String> values) {
+        this.include = include;
+        this.values = values;
+    }
+
 }
@@ -2,7 +2,10 @@ package com.ad1.loggenerator.model.fieldsettingsmodels;
 
 import java.util.List;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,7 +13,7 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class Disposition {
+public class Disposition implements FieldSetting {
     
     // whether to include the field
     @NotNull(message="is required")
@@ -18,5 +21,23 @@ public class Disposition {
     // the optional values to include
     @NotNull
     private List<Integer> values;
+    // optional weight of each value, the values are equally likely if not set
+    private List<Double> weights;
+    // optional Zipf exponent, the first values are the most likely if set
+    @PositiveOrZero
+    private Double zipfExponent;
+    // chance the field is null on a line, never if not set
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double nullRate;
+    // chance the field is left out of a line, never if not set
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double missingRate;
+
+    public Disposition(Boolean include, List<Integer> values) {
+        this.include = include;
+        this.values = values;
+    }
 
 }
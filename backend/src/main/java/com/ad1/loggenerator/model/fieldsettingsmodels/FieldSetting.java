@@ -0,0 +1,46 @@
+package com.ad1.loggenerator.model.fieldsettingsmodels;
+
+import java.util.List;
+
+/**
+ * Settings every field of a log line has, whatever else it can be
+ * configured with
+ */
+public interface FieldSetting {
+
+    /**
+     * @return whether to include the field
+     */
+    Boolean getInclude();
+
+    /**
+     * @return the weight of each provided value, null if the values are
+     *         equally likely
+     */
+    default List<Double> getWeights() {
+        return null;
+    }
+
+    /**
+     * @return the exponent of a Zipf distribution over the provided values in
+     *         order, null if the values are equally likely
+     */
+    default Double getZipfExponent() {
+        return null;
+    }
+
+    /**
+     * @return the chance the field is null on a line, null if never
+     */
+    default Double getNullRate() {
+        return null;
+    }
+
+    /**
+     * @return the chance the field is left out of a line, null if never
+     */
+    default Double getMissingRate() {
+        return null;
+    }
+
+}
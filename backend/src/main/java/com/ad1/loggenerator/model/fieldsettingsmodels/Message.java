@@ -0,0 +1,53 @@
+package com.ad1.loggenerator.model.fieldsettingsmodels;
+
+import java.util.List;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class Message implements FieldSetting {
+
+    // whether to include the field
+    @NotNull(message="is required")
+    private Boolean include;
+    // the optional values to include, lines are padded to the target size if empty
+    @NotNull
+    private List<String> values;
+    // optional weight of each value, the values are equally likely if not set
+    private List<Double> weights;
+    // optional Zipf exponent, the first values are the most likely if set
+    @PositiveOrZero
+    private Double zipfExponent;
+    // chance the field is null on a line, never if not set
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double nullRate;
+    // chance the field is left out of a line, never if not set
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double missingRate;
+    // bytes a padded line is filled up to, 512 if not set, at most the padding slab size
+    @Positive
+    @Max(1048576)
+    private Integer targetLineSize;
+    // target line sizes of an empirical size distribution in increasing order
+    private List<@Positive @Max(1048576) Long> lineSizes;
+    // fraction of lines up to each target line size
+    private List<@NotNull @PositiveOrZero Double> lineSizeCdf;
+
+    public Message(Boolean include, List<String> values) {
+        this.include = include;
+        this.values = values;
+    }
+
+}
@@ -2,7 +2,13 @@ package com.ad1.loggenerator.model.fieldsettingsmodels;
 
 import java.util.List;
 
+import com.ad1.loggenerator.model.ProcessingTimeDistribution;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -10,7 +16,7 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-public class ProcessingTime {
+public class ProcessingTime implements FieldSetting {
     
     // whether to include the field
     @NotNull(message="is required")
@@ -18,5 +24,35 @@ public class ProcessingTime {
     // the optional values to include
     @NotNull
     private List<Long> values;
+    // optional weight of each value, the values are equally likely if not set
+    private List<Double> weights;
+    // optional Zipf exponent, the first values are the most likely if set
+    @PositiveOrZero
+    private Double zipfExponent;
+    // chance the field is null on a line, never if not set
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double nullRate;
+    // chance the field is left out of a line, never if not set
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    private Double missingRate;
+    // distribution of random processing times, UNIFORM if not set
+    private ProcessingTimeDistribution distribution;
+    // median of LOG_NORMAL, mean of EXPONENTIAL and minimum of PARETO processing times
+    @Positive
+    private Double scale;
+    // sigma of LOG_NORMAL and alpha of PARETO processing times
+    @Positive
+    private Double shape;
+    // processing times of the EMPIRICAL distribution in increasing order
+    private List<Long> empiricalValues;
+    // fraction of processing times up to each empirical value
+    private List<Double> empiricalCdf;
+
+    public ProcessingTime(Boolean include, List<Long> values) {
+        this.include = include;
+        this.values = values;
+    }
 
 }
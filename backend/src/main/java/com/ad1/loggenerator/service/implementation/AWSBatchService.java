@@ -1,15 +1,17 @@
 package com.ad1.loggenerator.service.implementation;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.URL;
-import java.util.Set;
 
-import org.json.simple.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.ad1.loggenerator.exception.AWSServiceNotAvailableException;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.GenerationPlan;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
 import com.ad1.loggenerator.model.BatchSettings;
 import com.ad1.loggenerator.model.BatchTracker;
 import com.ad1.loggenerator.model.JobStatus;
@@ -18,6 +20,7 @@ import com.ad1.loggenerator.service.AWSLogService;
 import com.amazonaws.SdkClientException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 
 import lombok.AllArgsConstructor;
@@ -50,46 +53,40 @@ public class AWSBatchService {
         String key = "batch/" + awsLogService.createCurrentTimeDate() + ".json";
         AmazonS3 s3Client = awsLogService.createS3Client();
 
-        // remove fields that should not be included in custom logs
-        logService.preProcessCustomLogs(selectionModel.getCustomLogs(), selectionModel);
-        Set<String> masterFieldList = logService.getMasterFieldsList(selectionModel.getCustomLogs());
+        // compile the selection model once for all log lines of the job
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
 
         try {
             // batch settings
             BatchSettings batchSettings = selectionModel.getBatchSettings();
-            // Add log lines to a StringBuilder
-            StringBuilder logLines = new StringBuilder();
-            // append [ as the first character
-            logLines.append("[");
-
-            for (int i = 0; i < batchSettings.getNumberOfLogs()
-                    && batchJobTracker.getStatus() == JobStatus.ACTIVE; i++) {
-
-                if (i > 0) {
-                    // add a delimiter if not the first log line generated
-                    logLines.append(",\n");
-                }
-
-                JSONObject logLine = logService.generateLogLine(selectionModel, masterFieldList);
-                logLines.append(logLine.toString());
-                batchJobTracker.setLogCount(batchJobTracker.getLogCount() + 1);
-
-                // determine if a log lines repeats
-                if (Math.random() < selectionModel.getRepeatingLoglinesPercent()) {
-                    logLines.append(",\n");
-                    logLines.append(logLine.toString());
-                    i++;
-                    batchJobTracker.setLogCount(batchJobTracker.getLogCount() + 1);
-                }
+            // Encode log lines into a reusable buffer
+            JsonLineEncoder logLines = new JsonLineEncoder();
+            // append the start of the output, a [ for JSON lines
+            logLines.writeRaw(plan.getOutputFormat().getStart());
+
+            // generate the log lines one block at a time
+            int numberOfLogs = batchSettings.getNumberOfLogs();
+            for (int written = 0; written < numberOfLogs
+                    && batchJobTracker.getStatus() == JobStatus.ACTIVE;) {
+
+                int count = Math.min(LogService.BLOCK_SIZE, numberOfLogs - written);
+                logService.generate(plan, context, count, logLines);
+                written += count;
+                batchJobTracker.setLogCount(batchJobTracker.getLogCount() + count);
             }
 
             // set job status to finalizing
             batchJobTracker.setStatus(JobStatus.FINALIZING);
 
-            // append ] as the last character
-            logLines.append("]");
+            // append the end of the output
+            logLines.writeRaw(plan.getOutputFormat().getEnd());
             // Upload the batch file to S3
-            s3Client.putObject(bucketName, key, logLines.toString());
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(logLines.size());
+            metadata.setContentType(plan.getOutputFormat().getMediaType());
+            s3Client.putObject(bucketName, key,
+                    new ByteArrayInputStream(logLines.getBuffer(), 0, logLines.size()), metadata);
 
             // Make the s3 object public
             s3Client.setObjectAcl(bucketName, key, CannedAccessControlList.PublicRead);
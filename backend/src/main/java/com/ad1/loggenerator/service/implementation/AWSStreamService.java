@@ -1,15 +1,13 @@
 package com.ad1.loggenerator.service.implementation;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
-import java.util.Set;
 
-import org.json.simple.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.MediaType;
 import org.springframework.scheduling.annotation.Async;
@@ -18,8 +16,13 @@ import org.springframework.web.reactive.function.client.WebClient;
 
 import com.ad1.loggenerator.exception.AWSServiceNotAvailableException;
 import com.ad1.loggenerator.exception.FilePathNotFoundException;
+import com.ad1.loggenerator.generation.GenerationPlan;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
+import com.ad1.loggenerator.generation.OutputFormat;
+import com.ad1.loggenerator.generation.PlanSchedule;
 import com.ad1.loggenerator.model.JobStatus;
 import com.ad1.loggenerator.model.SelectionModel;
+import com.ad1.loggenerator.model.StreamSettings;
 import com.ad1.loggenerator.model.StreamTracker;
 import com.ad1.loggenerator.service.AWSLogService;
 import com.amazonaws.SdkClientException;
@@ -60,33 +63,34 @@ public class AWSStreamService {
         long nextSendNanoTime = System.nanoTime() + nsBetweenRequests;
         long nsToNextRequest = 0;
 
-        // array with given batch size
-        JSONObject[] logs = new JSONObject[batchSize];
-
-        // temporary repeating log
-        JSONObject repeatingLog = null;
+        // reusable buffer the logs of each request are encoded into
+        JsonLineEncoder requestEncoder = new JsonLineEncoder();
 
         // Setup web client for post request to user specified address
-        String streamAddress = selectionModel.getStreamSettings().getStreamAddress();
+        StreamSettings streamSettings = selectionModel.getStreamSettings();
+        String streamAddress = streamSettings.getStreamAddress();
         WebClient webClient = WebClient.create(streamAddress);
         String[] errorMessage = { "" };
 
-        // remove fields that should not be included in custom logs
-        logService.preProcessCustomLogs(selectionModel.getCustomLogs(), selectionModel);
-        Set<String> masterFieldList = logService.getMasterFieldsList(selectionModel.getCustomLogs());
+        // compile the selection model and its schema versions once for all log lines of the job,
+        // the versions share the output format of the first plan
+        PlanSchedule schedule = PlanSchedule.compile(selectionModel, streamSettings.getSchemaVersions(),
+                logService::compilePlan);
+        GenerationPlan plan = schedule.getPlan();
 
         // should logs be saved
         boolean saveLogs = selectionModel.getStreamSettings().isSaveLogs();
 
-        // File and FileWriter for savings log lines
+        // File and OutputStream for savings log lines
         File tempLogFile = null;
-        FileWriter fileWriter = null;
+        OutputStream fileOutputStream = null;
+        JsonLineEncoder fileEncoder = null;
 
         try {
             boolean firstLogSaved = false;
 
             if (saveLogs) {
-                // FileWriter for savings log lines
+                // OutputStream for savings log lines
                 tempLogFile = new File("logs\\stream\\" + streamJobTracker.getJobId() + ".json");
 
                 // Check if the file exists, create a new one if it doesn't exist
@@ -94,41 +98,42 @@ public class AWSStreamService {
                     tempLogFile.createNewFile();
                 }
 
-                // FileWriter to append to the log file
-                fileWriter = new FileWriter(tempLogFile, true);
+                // OutputStream to append to the log file
+                fileOutputStream = new FileOutputStream(tempLogFile, true);
+                fileEncoder = new JsonLineEncoder();
 
-                // write a [ to begin the log file if it is empty
+                // write the start of the output, a [ for JSON lines, to begin the log file if it is empty
                 if (tempLogFile.length() == 0) {
-                    fileWriter.write("[");
+                    fileEncoder.writeRaw(plan.getOutputFormat().getStart());
                 }
             }
             while (streamJobTracker.getStatus() == JobStatus.ACTIVE) {
+                // every request is its own json array or block of text lines
+                requestEncoder.reset();
+                requestEncoder.writeRaw(plan.getOutputFormat().getStart());
+
+                // switch to the schema version that is due, if any
+                schedule.advance(System.nanoTime());
+                schedule.getContext().startArray();
+
                 // generate batchSize number of logs
-                for (int i = 0; i < batchSize; i++) {
-                    // if no repeating log, generate a new log, otherwise add the repeating log
-                    if (repeatingLog == null) {
-                        logs[i] = logService.generateLogLine(selectionModel, masterFieldList);
-
-                        // determine if a log lines repeats
-                        if (Math.random() < selectionModel.getRepeatingLoglinesPercent()) {
-                            repeatingLog = logs[i];
-                        }
-                    } else {
-                        logs[i] = repeatingLog;
-                        repeatingLog = null;
-                    }
+                logService.generate(schedule.getPlan(), schedule.getContext(), batchSize, requestEncoder);
 
-                    // writing logs to temp file
-                    if (saveLogs) {
-                        if (firstLogSaved) { // add delimiter if not first log line written
-                            fileWriter.write(",\n");
-                        }
-                        // Write the log lines to the temp log file
-                        fileWriter.write(logs[i].toString());
+                // writing logs to temp file
+                if (saveLogs) {
+                    if (firstLogSaved) { // add delimiter if not first log line written
+                        fileEncoder.writeRaw(plan.getOutputFormat().getDelimiter());
+                    }
+                    // Write the log lines of the request without the start of the output
+                    int start = plan.getOutputFormat().getStart().length;
+                    fileEncoder.writeRaw(requestEncoder.getBuffer(), start, requestEncoder.size() - start);
+                    firstLogSaved = true;
 
-                        firstLogSaved = true;
+                    if (fileEncoder.size() >= JsonLineEncoder.FLUSH_SIZE) {
+                        fileEncoder.flushTo(fileOutputStream);
                     }
                 }
+                requestEncoder.writeRaw(plan.getOutputFormat().getEnd());
                 // nanoseconds until next request time
                 nsToNextRequest = nextSendNanoTime - System.nanoTime();
 
@@ -150,8 +155,8 @@ public class AWSStreamService {
 
                 // set up post request
                 Mono<String> response = webClient.post()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .bodyValue(logs)
+                        .contentType(MediaType.parseMediaType(plan.getOutputFormat().getMediaType()))
+                        .bodyValue(requestEncoder.toByteArray())
                         .retrieve()
                         .bodyToMono(String.class);
 
@@ -172,9 +177,10 @@ public class AWSStreamService {
 
             // upload logs to s3 is saveLogs
             if (saveLogs) {
-                // write a ] to end the log file
-                fileWriter.write("]");
-                fileWriter.close();
+                // write the end of the output to end the log file
+                fileEncoder.writeRaw(plan.getOutputFormat().getEnd());
+                fileEncoder.flushTo(fileOutputStream);
+                fileOutputStream.close();
 
                 // upload logs to s3
                 try {
@@ -221,17 +227,20 @@ public class AWSStreamService {
         // specify the s3 bucket and key for the log file
         String bucketName = "stream-s3-log-generator";
         String key = "stream/" + awsLogService.createCurrentTimeDate() + ".json";
-        // remove fields that should not be included in custom logs
-        logService.preProcessCustomLogs(selectionModel.getCustomLogs(), selectionModel);
-        Set<String> masterFieldList = logService.getMasterFieldsList(selectionModel.getCustomLogs());
+        // compile the selection model and its schema versions once for all log lines of the job,
+        // the versions share the output format of the first plan
+        PlanSchedule schedule = PlanSchedule.compile(selectionModel,
+                selectionModel.getStreamSettings().getSchemaVersions(), logService::compilePlan);
+        GenerationPlan plan = schedule.getPlan();
         // create s3 client instance
         AmazonS3 s3Client = awsLogService.createS3Client();
         // reset the start time of the stream
         streamJobTracker.setLastPing(System.currentTimeMillis() / 1000);
         // specify buffer size for uploading log lines to S3
         int bufferSize = 20 * 1024 * 1024; // 20MB buffer
-        // create a temporary buffer to store log lines
-        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bufferSize);
+        // create a temporary buffer to encode log lines into
+        JsonLineEncoder buffer = new JsonLineEncoder(bufferSize + JsonLineEncoder.FLUSH_SIZE);
+        buffer.writeRaw(plan.getOutputFormat().getStart());
         // keep track of the number of log lines written to the buffer
         int numLogLines = 0;
 
@@ -239,45 +248,24 @@ public class AWSStreamService {
             // generate and write log lines to buffer
             while (streamJobTracker.getStatus() == JobStatus.ACTIVE) {
 
-                // generate log line
-                JSONObject logLine = logService.generateLogLine(selectionModel, masterFieldList);
-                // add a comma before log line if it's not the first one
-                if (numLogLines > 0) {
-                    buffer.write(",\n".getBytes());
-                }
-                // write log line to buffer
-                buffer.write(logLine.toString().getBytes());
+                // switch to the schema version that is due, if any
+                schedule.advance(System.nanoTime());
 
-                // determine if a log line repeats
-                if (Math.random() < selectionModel.getRepeatingLoglinesPercent()) {
-                    if (numLogLines > 0) {
-                        buffer.write(",\n".getBytes());
-                    }
-                    buffer.write(logLine.toString().getBytes());
-                }
-                numLogLines++;
+                // generate the next block of log lines into the buffer
+                logService.generate(schedule.getPlan(), schedule.getContext(), LogService.BLOCK_SIZE, buffer);
+                numLogLines += LogService.BLOCK_SIZE;
 
                 // upload buffer to S3 when it is full
                 if (buffer.size() >= bufferSize) {
-                    try (InputStream inputStream = new ByteArrayInputStream(
-                            ("[" + buffer.toString() + "]").getBytes())) {
-                        ObjectMetadata metadata = new ObjectMetadata();
-                        metadata.setContentLength(buffer.size() + 2);
-                        s3Client.putObject(bucketName, key, inputStream, metadata);
-                    }
-                    buffer.reset();
+                    uploadBuffer(s3Client, bucketName, key, buffer, plan.getOutputFormat());
+                    schedule.getContext().startArray();
                     numLogLines = 0;
                 }
             }
 
             // upload remaining log lines to S3
-            if (buffer.size() > 0) {
-                try (InputStream inputStream = new ByteArrayInputStream(("[" + buffer.toString() + "]").getBytes())) {
-                    ObjectMetadata metadata = new ObjectMetadata();
-                    metadata.setContentLength(buffer.size() + 2);
-                    s3Client.putObject(bucketName, key, inputStream, metadata);
-                }
-                buffer.reset();
+            if (numLogLines > 0) {
+                uploadBuffer(s3Client, bucketName, key, buffer, plan.getOutputFormat());
             }
 
             // Make the s3 object public
@@ -311,9 +299,11 @@ public class AWSStreamService {
         String bucketName = "stream-s3-log-generator";
         String key = "stream/" + awsLogService.createCurrentTimeDate() + ".json";
 
-        // remove fields that should not be included in custom logs
-        logService.preProcessCustomLogs(selectionModel.getCustomLogs(), selectionModel);
-        Set<String> masterFieldList = logService.getMasterFieldsList(selectionModel.getCustomLogs());
+        // compile the selection model and its schema versions once for all log lines of the job,
+        // the versions share the output format of the first plan
+        PlanSchedule schedule = PlanSchedule.compile(selectionModel,
+                selectionModel.getStreamSettings().getSchemaVersions(), logService::compilePlan);
+        GenerationPlan plan = schedule.getPlan();
 
         // create s3 client instance
         AmazonS3 s3Client = awsLogService.createS3Client();
@@ -321,39 +311,26 @@ public class AWSStreamService {
         // reset the start time of the stream
         streamJobTracker.setLastPing(System.currentTimeMillis() / 1000);
 
-        // create StringBuilder object to append log lines
-        StringBuilder stringBuilder = new StringBuilder();
-        // keep track of the number of log lines written to the stringBuilder
-        int numLogLines = 0;
+        // create an encoder to write log lines into
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        encoder.writeRaw(plan.getOutputFormat().getStart());
 
         try {
             while (streamJobTracker.getStatus() == JobStatus.ACTIVE) {
-                // append a delimiter if not the first log line generated
-                if (numLogLines > 0) {
-                    stringBuilder.append(",\n");
-                }
-                // generate log line
-                JSONObject logLine = logService.generateLogLine(selectionModel, masterFieldList);
-                // append log line to StringBuilder
-                stringBuilder.append(logLine.toString());
-                // determine if a log line repeats
-                if (Math.random() < selectionModel.getRepeatingLoglinesPercent()) {
-                    // append a delimiter
-                    if (numLogLines > 0) {
-                        stringBuilder.append(",\n");
-                    }
-                    // append repeated log line to StringBuilder
-                    stringBuilder.append(logLine.toString());
-                }
-                numLogLines++;
+                // switch to the schema version that is due, if any
+                schedule.advance(System.nanoTime());
+
+                // generate the next block of log lines into the encoder
+                logService.generate(schedule.getPlan(), schedule.getContext(), LogService.BLOCK_SIZE, encoder);
             }
             if (streamJobTracker.getStatus() != JobStatus.ACTIVE && streamJobTracker.getStreamObjectURL() == null)
                 streamJobTracker.setStatus(JobStatus.FAILED);
-            // write StringBuilder content to S3
-            byte[] contentAsBytes = ("[" + stringBuilder.toString() + "]").getBytes();
+            // write encoded content to S3
+            encoder.writeRaw(plan.getOutputFormat().getEnd());
             ObjectMetadata metadata = new ObjectMetadata();
-            metadata.setContentLength(contentAsBytes.length);
-            ByteArrayInputStream inputStream = new ByteArrayInputStream(contentAsBytes);
+            metadata.setContentLength(encoder.size());
+            metadata.setContentType(plan.getOutputFormat().getMediaType());
+            ByteArrayInputStream inputStream = new ByteArrayInputStream(encoder.getBuffer(), 0, encoder.size());
             PutObjectRequest putObjectRequest = new PutObjectRequest(bucketName, key, inputStream, metadata);
             s3Client.putObject(putObjectRequest);
             // Make the s3 object public
@@ -379,6 +356,30 @@ public class AWSStreamService {
         }
     }
 
+    /**
+     * Uploads the log lines in the buffer as a complete output and starts a new
+     * array in the buffer
+     * 
+     * @param s3Client
+     * @param bucketName
+     * @param key
+     * @param buffer       encoded log lines, starting with the start of the output
+     * @param outputFormat how the lines are put together in the output
+     * @throws IOException
+     */
+    private void uploadBuffer(AmazonS3 s3Client, String bucketName, String key, JsonLineEncoder buffer,
+            OutputFormat outputFormat) throws IOException {
+        buffer.writeRaw(outputFormat.getEnd());
+        try (InputStream inputStream = new ByteArrayInputStream(buffer.getBuffer(), 0, buffer.size())) {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(buffer.size());
+            metadata.setContentType(outputFormat.getMediaType());
+            s3Client.putObject(bucketName, key, inputStream, metadata);
+        }
+        buffer.reset();
+        buffer.writeRaw(outputFormat.getStart());
+    }
+
     public void saveLogsToAWSS3(StreamTracker streamJobTracker)
             throws IOException, AWSServiceNotAvailableException, RuntimeException {
         // specify the s3 bucket and key for the log file
@@ -1,16 +1,19 @@
 package com.ad1.loggenerator.service.implementation;
 
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Set;
+import java.io.OutputStream;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
-import org.json.simple.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.ad1.loggenerator.exception.FilePathNotFoundException;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.GenerationPlan;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
 import com.ad1.loggenerator.model.BatchSettings;
 import com.ad1.loggenerator.model.BatchTracker;
 import com.ad1.loggenerator.model.JobStatus;
@@ -26,6 +29,9 @@ import lombok.Data;
 @Service
 public class BatchService {
 
+    // number of log lines generated between two writes in parallel mode
+    private static final int PARALLEL_WAVE_SIZE = 64 * 1024;
+
     private LogService logService;
 
     public BatchService(@Autowired LogService logService) {
@@ -47,47 +53,19 @@ public class BatchService {
 
             // specify filepath location for batch file
             String filename = "logs\\batch\\" + selectionModel.getJobId() + ".json";
-            FileWriter fileWriter = new FileWriter(filename);
-
-            // remove fields that should not be included in custom logs
-            logService.preProcessCustomLogs(selectionModel.getCustomLogs(), selectionModel);
-            Set<String> masterFieldList = logService.getMasterFieldsList(selectionModel.getCustomLogs());
-
-            // write a [ to begin the log file
-            fileWriter.write("[");
-
-            // add log lines to batch file
-            for (int i = 0; i < batchSettings.getNumberOfLogs()
-                    && batchJobTracker.getStatus() == JobStatus.ACTIVE; i++) { // repeat for specified batch size
-
-                // add a delimiter if it's not the first log line written
-                if (i > 0) {
-                    fileWriter.write(",\n");
-                }
+            OutputStream outputStream = new FileOutputStream(filename);
 
-                JSONObject logLine = logService.generateLogLine(selectionModel, masterFieldList);
-                fileWriter.write(logLine.toString());
-                batchJobTracker.setLogCount(batchJobTracker.getLogCount() + 1);
-
-                // determine if a log lines repeats
-                // check i + 1 because at this point i is one behind actual logs written
-                if (Math.random() < selectionModel.getRepeatingLoglinesPercent()
-                        && i + 1 < batchSettings.getNumberOfLogs() && batchJobTracker.getStatus() == JobStatus.ACTIVE) {
-
-                    // add a delimiter
-                    fileWriter.write(",\n");
-                    // write the log line
-                    fileWriter.write(logLine.toString());
-                    i++;
-                    batchJobTracker.setLogCount(batchJobTracker.getLogCount() + 1);
-                }
+            // compile the selection model once for all log lines of the job
+            GenerationPlan plan = logService.compilePlan(selectionModel);
 
+            if (plan.isCounterBased()) {
+                // lines do not depend on each other, so ranges are generated in parallel
+                writeLogLinesInParallel(plan, batchSettings.getNumberOfLogs(), batchJobTracker, outputStream);
+            } else {
+                writeLogLines(plan, batchSettings.getNumberOfLogs(), batchJobTracker, outputStream);
             }
 
-            // write a ] to end the log file
-            fileWriter.write("]");
-
-            fileWriter.close();
+            outputStream.close();
         } catch (IOException e) {
             // Mark the job as failed if an exception occurred
             batchJobTracker.setStatus(JobStatus.FAILED);
@@ -100,6 +78,95 @@ public class BatchService {
         }
     }
 
+    /**
+     * Generates the log lines one after the other and writes them to the
+     * batch file
+     * 
+     * @param plan            the compiled plan of the job
+     * @param numberOfLogs    the number of log lines to write
+     * @param batchJobTracker
+     * @param outputStream    the batch file
+     * @throws IOException
+     */
+    private void writeLogLines(GenerationPlan plan, int numberOfLogs, BatchTracker batchJobTracker,
+            OutputStream outputStream) throws IOException {
+
+        GenerationContext context = plan.newContext();
+
+        // reusable buffer the log lines are encoded into
+        JsonLineEncoder encoder = new JsonLineEncoder();
+
+        // write the start of the output, a [ for JSON lines, to begin the log file
+        encoder.writeRaw(plan.getOutputFormat().getStart());
+
+        // add log lines to batch file one block at a time
+        for (int written = 0; written < numberOfLogs
+                && batchJobTracker.getStatus() == JobStatus.ACTIVE;) {
+
+            int count = Math.min(LogService.BLOCK_SIZE, numberOfLogs - written);
+            logService.generate(plan, context, count, encoder);
+            written += count;
+            batchJobTracker.setLogCount(batchJobTracker.getLogCount() + count);
+
+            // write the encoded log lines to the file when the buffer is full
+            if (encoder.size() >= JsonLineEncoder.FLUSH_SIZE) {
+                encoder.flushTo(outputStream);
+            }
+        }
+
+        // write the end of the output to end the log file
+        encoder.writeRaw(plan.getOutputFormat().getEnd());
+        encoder.flushTo(outputStream);
+    }
+
+    /**
+     * Generates the log lines of a counter based plan in waves. Each wave is
+     * split into one range of lines per worker, the ranges are generated in
+     * parallel and written to the batch file in order
+     * 
+     * @param plan            the compiled counter based plan of the job
+     * @param numberOfLogs    the number of log lines to write
+     * @param batchJobTracker
+     * @param outputStream    the batch file
+     * @throws IOException
+     */
+    private void writeLogLinesInParallel(GenerationPlan plan, int numberOfLogs, BatchTracker batchJobTracker,
+            OutputStream outputStream) throws IOException {
+
+        int workers = Runtime.getRuntime().availableProcessors();
+        GenerationContext[] contexts = new GenerationContext[workers];
+        JsonLineEncoder[] encoders = new JsonLineEncoder[workers];
+        for (int w = 0; w < workers; w++) {
+            contexts[w] = plan.newContext();
+            encoders[w] = new JsonLineEncoder();
+        }
+
+        outputStream.write(plan.getOutputFormat().getStart());
+
+        for (long waveStart = 0; waveStart < numberOfLogs
+                && batchJobTracker.getStatus() == JobStatus.ACTIVE; waveStart += PARALLEL_WAVE_SIZE) {
+
+            long waveEnd = Math.min(numberOfLogs, waveStart + PARALLEL_WAVE_SIZE);
+            long rangeSize = (waveEnd - waveStart + workers - 1) / workers;
+            long firstLine = waveStart;
+
+            // generate one range of the wave per worker
+            IntStream.range(0, workers).parallel().forEach(w -> {
+                long fromLine = Math.min(waveEnd, firstLine + w * rangeSize);
+                long toLine = Math.min(waveEnd, fromLine + rangeSize);
+                encoders[w].reset();
+                logService.writeLogLines(plan, contexts[w], fromLine, toLine, encoders[w]);
+            });
+
+            for (JsonLineEncoder encoder : encoders) {
+                encoder.flushTo(outputStream);
+            }
+            batchJobTracker.setLogCount(batchJobTracker.getLogCount() + (int) (waveEnd - waveStart));
+        }
+
+        outputStream.write(plan.getOutputFormat().getEnd());
+    }
+
     public String generateJobId() {
         return UUID.randomUUID().toString();
     }
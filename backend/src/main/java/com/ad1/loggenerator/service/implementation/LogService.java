@@ -1,21 +1,60 @@
 package com.ad1.loggenerator.service.implementation;
 
-import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
-import lombok.AllArgsConstructor;
 import org.json.simple.JSONObject;
 import org.springframework.stereotype.Service;
 
+import com.ad1.loggenerator.exception.InvalidSettingsException;
+import com.ad1.loggenerator.generation.EventClock;
+import com.ad1.loggenerator.generation.CompileContext;
+import com.ad1.loggenerator.generation.FieldGenerator;
+import com.ad1.loggenerator.generation.FilePopulation;
+import com.ad1.loggenerator.generation.FieldGeneratorRegistry;
+import com.ad1.loggenerator.generation.FieldSlot;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.GenerationPlan;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
+import com.ad1.loggenerator.generation.LineLayout;
+import com.ad1.loggenerator.generation.MalwareFamily;
+import com.ad1.loggenerator.generation.MalwareInjector;
+import com.ad1.loggenerator.generation.OptionalFieldWriter;
+import com.ad1.loggenerator.generation.OutputFormat;
+import com.ad1.loggenerator.generation.PlanSchedule;
+import com.ad1.loggenerator.generation.QuantileTable;
+import com.ad1.loggenerator.generation.RandomSource;
+import com.ad1.loggenerator.generation.ReorderBuffer;
+import com.ad1.loggenerator.generation.RepeatWindow;
+import com.ad1.loggenerator.generation.SessionPool;
+import com.ad1.loggenerator.generation.TemplatePattern;
+import com.ad1.loggenerator.generation.fields.FileSha256Generator;
+import com.ad1.loggenerator.generation.fields.PathToFileGenerator;
+import com.ad1.loggenerator.model.ArrivalDistribution;
 import com.ad1.loggenerator.model.CustomLog;
+import com.ad1.loggenerator.model.EventClockSettings;
 import com.ad1.loggenerator.model.FieldSettings;
-import com.ad1.loggenerator.model.LogModel;
+import com.ad1.loggenerator.model.FilePopulationSettings;
+import com.ad1.loggenerator.model.GenerationSettings;
+import com.ad1.loggenerator.model.LineTemplate;
+import com.ad1.loggenerator.model.MalwareSettings;
+import com.ad1.loggenerator.model.ReorderSettings;
+import com.ad1.loggenerator.model.RepeatDistance;
+import com.ad1.loggenerator.model.RepeatWindowSettings;
+import com.ad1.loggenerator.model.SchemaVersion;
 import com.ad1.loggenerator.model.SelectionModel;
+import com.ad1.loggenerator.model.SessionSettings;
+import com.ad1.loggenerator.model.StreamSettings;
+import com.ad1.loggenerator.model.fieldsettingsmodels.FieldSetting;
+import com.ad1.loggenerator.model.fieldsettingsmodels.TimeStamp;
 
 import lombok.Data;
 
@@ -26,70 +65,763 @@ import lombok.Data;
 @Service
 public class LogService {
 
+    // number of log lines the services generate per call of generate
+    public static final int BLOCK_SIZE = 1024;
+
+    // the fields a job can generate, in output order
+    private FieldGeneratorRegistry fieldGenerators = FieldGeneratorRegistry.withBuiltIns();
+
     /**
-     * Generates each log line as defined by the parameters
+     * Generates each log line as defined by the parameters. The plan of a
+     * single line is interpreted, so no serializer class is defined for it
      * 
      * @param selectionModel defines all the parameters to be included in the log
      *                       lines as per the user
      * @return a single log line in JSON format
      */
     public JSONObject generateLogLine(SelectionModel selectionModel, Set<String> masterFieldList) {
+        GenerationPlan plan = compilePlan(selectionModel, masterFieldList, false);
+        return generateLogLine(plan, plan.newContext());
+    }
 
-        // generated fields settings
-        FieldSettings fieldSettings = selectionModel.getFieldSettings();
+    /**
+     * Generates a log line by running a plan compiled for the job
+     * 
+     * @param plan    the compiled generation plan of the job
+     * @param context the state of the running job
+     * @return a single log line in JSON format
+     */
+    public JSONObject generateLogLine(GenerationPlan plan, GenerationContext context) {
+
+        context.beginLine();
+
+        // inject malware or choose a random custom log based on frequency
+        LineLayout layout = plan.chooseLayout(context);
 
-        // Create logline objects
-        LogModel logLine = new LogModel();
         JSONObject logLineJSON = new JSONObject();
+        for (FieldSlot slot : layout.getSlots()) {
+            if (slot.getWriter() instanceof OptionalFieldWriter
+                    && ((OptionalFieldWriter) slot.getWriter()).isMissing(context)) {
+                continue;
+            }
+            logLineJSON.put(slot.getName(), slot.value(context));
+        }
+
+        return logLineJSON;
+    }
+
+    /**
+     * Generates a log line by running a plan compiled for the job and writes
+     * it directly as JSON bytes, without building a JSONObject
+     * 
+     * @param plan    the compiled generation plan of the job
+     * @param context the state of the running job
+     * @param encoder the destination of the log line
+     */
+    public void writeLogLine(GenerationPlan plan, GenerationContext context, JsonLineEncoder encoder) {
+
+        context.beginLine();
+
+        // inject malware or choose a random custom log based on frequency
+        LineLayout layout = plan.chooseLayout(context);
+
+        context.setLineStart(encoder.size());
+        if (plan.isPatched()) {
+            layout.writePatched(encoder, context);
+        } else {
+            layout.writeTo(encoder, context);
+        }
+    }
+
+    /**
+     * Generates the next count lines of a job into the sink. Every line is
+     * preceded by a delimiter except the first line of the output and
+     * repeated lines are copied from the line before them, also when that
+     * line was generated by an earlier call. Consecutive calls continue the
+     * same output until the context starts a new array, the caller only
+     * writes the start and end of the output format
+     * 
+     * @param plan    the compiled generation plan of the job
+     * @param context the state of the running job
+     * @param count   the number of lines to write, repeats included
+     * @param sink    the destination of the log lines
+     */
+    public void generate(GenerationPlan plan, GenerationContext context, int count, JsonLineEncoder sink) {
+
+        boolean delimitFirstLine = context.isArrayHasLines();
+        byte[] delimiter = plan.getOutputFormat().getDelimiter();
+
+        if (plan.isCounterBased()) {
+            // lines and repeats only depend on the index of the line
+            long fromLine = context.getLinesWritten();
+            writeLogLines(plan, context, fromLine, fromLine + count, sink, delimitFirstLine);
+            context.addLinesWritten(count);
+            return;
+        }
+
+        if (context.getReorderBuffer() != null) {
+            generateReordered(plan, context, count, sink, delimitFirstLine);
+            return;
+        }
+
+        if (context.getRepeatWindow() != null) {
+            generateWindowed(plan, context, count, sink, delimitFirstLine);
+            return;
+        }
+
+        double repeatingLoglinesPercent = plan.getRepeatingLoglinesPercent();
+        boolean repeat = context.isRepeatPending();
+        int lineStart = -1;
+        int lineEnd = -1;
+
+        for (int i = 0; i < count; i++) {
+            if (i > 0 || delimitFirstLine) {
+                sink.writeRaw(delimiter);
+            }
+
+            if (repeat) {
+                if (lineStart >= 0) {
+                    sink.copy(lineStart, lineEnd);
+                } else {
+                    // the line to repeat was written by the previous call
+                    JsonLineEncoder repeatLine = context.getRepeatLine();
+                    sink.writeRaw(repeatLine.getBuffer(), 0, repeatLine.size());
+                }
+                repeat = false;
+                continue;
+            }
+
+            lineStart = sink.size();
+            writeLogLine(plan, context, sink);
+            lineEnd = sink.size();
+
+            // determine if a log line repeats
+            repeat = context.getRandom().nextDouble() < repeatingLoglinesPercent;
+        }
+
+        // keep the line to repeat, the sink may be flushed before the next call
+        if (repeat && lineStart >= 0) {
+            JsonLineEncoder repeatLine = context.getRepeatLine();
+            repeatLine.reset();
+            repeatLine.writeRaw(sink.getBuffer(), lineStart, lineEnd - lineStart);
+        }
+        context.setRepeatPending(repeat);
+        context.addLinesWritten(count);
+    }
+
+    /**
+     * Generates the next count lines of a job that repeats lines from a
+     * window of recent lines. Every generated line is kept in the window and
+     * a repeat copies the bytes of one of them, so it is not serialized
+     * again
+     *
+     * @param plan             the compiled generation plan of the job
+     * @param context          the state of the running job
+     * @param count            the number of lines to write, repeats included
+     * @param sink             the destination of the log lines
+     * @param delimitFirstLine whether the first line follows earlier lines
+     */
+    private void generateWindowed(GenerationPlan plan, GenerationContext context, int count,
+            JsonLineEncoder sink, boolean delimitFirstLine) {
+
+        byte[] delimiter = plan.getOutputFormat().getDelimiter();
+        double repeatingLoglinesPercent = plan.getRepeatingLoglinesPercent();
+        RepeatWindow window = context.getRepeatWindow();
+        RandomSource random = context.getRandom();
+
+        for (int i = 0; i < count; i++) {
+            if (i > 0 || delimitFirstLine) {
+                sink.writeRaw(delimiter);
+            }
+
+            if (random.nextDouble() < repeatingLoglinesPercent
+                    && window.repeat(random, eventTimeNanos(context), sink)) {
+                continue;
+            }
+
+            int lineStart = sink.size();
+            writeLogLine(plan, context, sink);
+            window.add(sink.getBuffer(), lineStart, sink.size(), eventTimeNanos(context));
+        }
+        context.addLinesWritten(count);
+    }
+
+    /**
+     * Generates the next count lines of a job that writes lines out of
+     * order. New lines wait in the reorder buffer until the stream reaches
+     * their release position, so a call writes count lines but not
+     * necessarily the last lines it generated
+     *
+     * @param plan             the compiled generation plan of the job
+     * @param context          the state of the running job
+     * @param count            the number of lines to write, repeats included
+     * @param sink             the destination of the log lines
+     * @param delimitFirstLine whether the first line follows earlier lines
+     */
+    private void generateReordered(GenerationPlan plan, GenerationContext context, int count,
+            JsonLineEncoder sink, boolean delimitFirstLine) {
+
+        byte[] delimiter = plan.getOutputFormat().getDelimiter();
+        ReorderBuffer buffer = context.getReorderBuffer();
+
+        int written = 0;
+        while (written < count) {
+            if (buffer.hasDueLine()) {
+                if (written > 0 || delimitFirstLine) {
+                    sink.writeRaw(delimiter);
+                }
+                buffer.writeDueLine(sink);
+                written++;
+            } else {
+                produceLine(plan, context, buffer.nextLine());
+                buffer.add(context.getRandom());
+            }
+        }
+        context.addLinesWritten(count);
+    }
+
+    /**
+     * Writes the next line of a job in order, a new line or a repeat of an
+     * earlier one, without a delimiter
+     *
+     * @param plan    the compiled generation plan of the job
+     * @param context the state of the running job
+     * @param line    the destination of the line
+     */
+    private void produceLine(GenerationPlan plan, GenerationContext context, JsonLineEncoder line) {
+        RandomSource random = context.getRandom();
+        double repeatingLoglinesPercent = plan.getRepeatingLoglinesPercent();
+
+        RepeatWindow window = context.getRepeatWindow();
+        if (window != null) {
+            if (random.nextDouble() < repeatingLoglinesPercent
+                    && window.repeat(random, eventTimeNanos(context), line)) {
+                return;
+            }
+            int lineStart = line.size();
+            writeLogLine(plan, context, line);
+            window.add(line.getBuffer(), lineStart, line.size(), eventTimeNanos(context));
+            return;
+        }
+
+        JsonLineEncoder repeatLine = context.getRepeatLine();
+        if (context.isRepeatPending()) {
+            line.writeRaw(repeatLine.getBuffer(), 0, repeatLine.size());
+            context.setRepeatPending(false);
+            return;
+        }
+        int lineStart = line.size();
+        writeLogLine(plan, context, line);
+        if (random.nextDouble() < repeatingLoglinesPercent) {
+            repeatLine.reset();
+            repeatLine.writeRaw(line.getBuffer(), lineStart, line.size() - lineStart);
+            context.setRepeatPending(true);
+        }
+    }
+
+    /**
+     * @param context
+     * @return the event time of the job, the time of the event clock if
+     *         there is one
+     */
+    private static long eventTimeNanos(GenerationContext context) {
+        return context.getClock() != null ? context.getClock().getEventTimeNanos() : System.nanoTime();
+    }
+
+    /**
+     * Writes lines fromLine to toLine of a counter based plan. Every line is
+     * preceded by a delimiter except the first line of the job, so the output
+     * of consecutive ranges can simply be concatenated. Any worker can write
+     * any range and get the same bytes
+     * 
+     * @param plan     the compiled counter based plan of the job
+     * @param context  the state of the worker
+     * @param fromLine index of the first line, inclusive
+     * @param toLine   index of the last line, exclusive
+     * @param encoder  the destination of the log lines
+     */
+    public void writeLogLines(GenerationPlan plan, GenerationContext context, long fromLine, long toLine,
+            JsonLineEncoder encoder) {
+        writeLogLines(plan, context, fromLine, toLine, encoder, fromLine > 0);
+    }
+
+    private void writeLogLines(GenerationPlan plan, GenerationContext context, long fromLine, long toLine,
+            JsonLineEncoder encoder, boolean delimitFirstLine) {
+
+        byte[] delimiter = plan.getOutputFormat().getDelimiter();
+        int lineStart = 0;
+        int lineEnd = 0;
+        for (long line = fromLine; line < toLine; line++) {
+            if (line > fromLine || delimitFirstLine) {
+                encoder.writeRaw(delimiter);
+            }
+
+            if (line > fromLine && plan.isRepeatedLine(line)) {
+                // copy the previous line of the range
+                int copyStart = encoder.size();
+                encoder.copy(lineStart, lineEnd);
+                lineStart = copyStart;
+                lineEnd = encoder.size();
+                continue;
+            }
+
+            // a repeated first line is a copy of the closest line before it that is not repeated
+            long sourceLine = line;
+            if (line == fromLine) {
+                while (plan.isRepeatedLine(sourceLine)) {
+                    sourceLine--;
+                }
+            }
+
+            context.seekLine(sourceLine);
+            lineStart = encoder.size();
+            writeLogLine(plan, context, encoder);
+            lineEnd = encoder.size();
+        }
+    }
+
+    /**
+     * Compiles the selection model of a job, and the schema versions of a
+     * stream job, so settings that only fail once a plan is built are
+     * rejected before the job starts. The plans are interpreted and thrown
+     * away
+     * 
+     * @param selectionModel defines all the parameters to be included in the log
+     *                       lines as per the user
+     * @throws InvalidSettingsException if the settings cannot be compiled
+     */
+    public void validatePlan(SelectionModel selectionModel) {
+        StreamSettings streamSettings = selectionModel.getStreamSettings();
+        List<SchemaVersion> schemaVersions = "Stream".equals(selectionModel.getMode()) && streamSettings != null
+                ? streamSettings.getSchemaVersions()
+                : null;
+        try {
+            PlanSchedule.compile(selectionModel, schemaVersions,
+                    model -> compilePlan(model, getMasterFieldsList(model.getCustomLogs()), false));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSettingsException(e.getMessage());
+        }
+    }
 
+    /**
+     * Compiles the selection model of a job into a plan that is reused for
+     * every line of the job. Fields that should not be included are removed
+     * from the custom logs first
+     * 
+     * @param selectionModel defines all the parameters to be included in the log
+     *                       lines as per the user
+     * @return the compiled generation plan
+     */
+    public GenerationPlan compilePlan(SelectionModel selectionModel) {
         List<CustomLog> customLogs = selectionModel.getCustomLogs();
-        // choose a random custom log based on frequency
-        CustomLog customLog = chooseCustomLog(customLogs);
+        preProcessCustomLogs(customLogs, selectionModel);
+        return compilePlan(selectionModel, getMasterFieldsList(customLogs));
+    }
+
+    /**
+     * Compiles the selection model of a job into a plan that is reused for
+     * every line of the job. Each layout has the custom log overrides and the
+     * null padded master fields already resolved
+     * 
+     * @param selectionModel
+     * @param masterFieldList all fields of all custom logs
+     * @return the compiled generation plan
+     */
+    public GenerationPlan compilePlan(SelectionModel selectionModel, Set<String> masterFieldList) {
+        GenerationSettings generationSettings = selectionModel.getGenerationSettings();
+        return compilePlan(selectionModel, masterFieldList,
+                generationSettings == null || !generationSettings.isInterpreted());
+    }
+
+    /**
+     * Compiles the selection model of a job into a plan, choosing whether
+     * the layouts define serializer classes. Plans that only write a few
+     * lines are not worth a class per layout
+     * 
+     * @param selectionModel
+     * @param masterFieldList all fields of all custom logs
+     * @param specialize      true to define a serializer class for each layout
+     * @return the compiled generation plan
+     */
+    public GenerationPlan compilePlan(SelectionModel selectionModel, Set<String> masterFieldList,
+            boolean specialize) {
+
+        GenerationSettings generationSettings = selectionModel.getGenerationSettings();
+        Long seed = generationSettings != null ? generationSettings.getSeed() : null;
+        boolean secureIds = generationSettings != null && generationSettings.isSecureIds();
+        boolean counterBased = generationSettings != null && generationSettings.isCounterBased();
+
+        // random source for values that are fixed when the plan is compiled
+        RandomSource compileRandom = new RandomSource(
+                seed != null ? RandomSource.mix64(seed) : ThreadLocalRandom.current().nextLong());
+
+        // a line template is parsed once and compiled into every layout
+        LineTemplate lineTemplate = selectionModel.getLineTemplate();
+        TemplatePattern template = lineTemplate != null ? TemplatePattern.of(lineTemplate) : null;
 
-        if (customLog != null) {
-            addCustomLogFields(logLineJSON, customLog);
+        FieldSettings fieldSettings = selectionModel.getFieldSettings();
+        EventClock clock = compileEventClock(fieldSettings.getTimeStamp(), selectionModel);
+
+        List<FieldSlot> generatedSlots = compileGeneratedSlots(fieldSettings,
+                new CompileContext(secureIds, compileRandom));
+        // the file population, the sessions and then the null and missing
+        // rates replace their fields of the generated slots
+        FilePopulation files = generationSettings != null && !counterBased
+                ? compileFilePopulation(generationSettings.getFilePopulation(), generatedSlots)
+                : null;
+        SessionPool sessions = generationSettings != null && !counterBased
+                ? compileSessions(generationSettings.getSessions(), generatedSlots)
+                : null;
+        int presenceWords = OptionalFieldWriter.wrapSlots(generatedSlots, collectFieldSettings(fieldSettings));
+        RepeatWindow repeatWindow = generationSettings != null && !counterBased
+                ? compileRepeatWindow(generationSettings.getRepeatWindow())
+                : null;
+        ReorderBuffer reorderBuffer = generationSettings != null && !counterBased
+                ? compileReorderBuffer(generationSettings.getReorder())
+                : null;
+        Map<String, String> renamedFields = fieldSettings.getRenamedFields() != null
+                ? fieldSettings.getRenamedFields()
+                : Collections.emptyMap();
+        LineLayout baseLayout = compileLayout(null, generatedSlots, masterFieldList, renamedFields, template,
+                specialize);
+
+        List<CustomLog> customLogs = selectionModel.getCustomLogs();
+        List<LineLayout> customLogLayouts = new ArrayList<>();
+        List<Double> frequencies = new ArrayList<>();
+
+        if (customLogs != null) {
+            for (CustomLog customLog : customLogs) {
+                if (customLog == null) {
+                    continue;
+                }
+                customLogLayouts.add(
+                        compileLayout(customLog, generatedSlots, masterFieldList, renamedFields, template,
+                                specialize));
+                frequencies.add(customLog.getFrequency());
+            }
+        }
+
+        MalwareInjector malware = compileMalwareInjector(selectionModel.getMalwareSettings(), compileRandom);
+        LineLayout malwareLayout = malware != null
+                ? compileLayout(null, malware.detectionSlots(generatedSlots), masterFieldList, renamedFields,
+                        template, specialize)
+                : null;
+
+        // in counter based mode every line stream is keyed by the seed and the job id
+        Long counterKey = null;
+        if (counterBased) {
+            long jobSeed = seed != null ? seed : compileRandom.nextLong();
+            counterKey = RandomSource.mix64(jobSeed ^ hashJobId(selectionModel.getJobId()));
+        }
+
+        // lines are only patched in place if every value of every layout has a bounded width
+        boolean patched = generationSettings != null && generationSettings.isPatched()
+                && baseLayout.isPatchable()
+                && customLogLayouts.stream().allMatch(LineLayout::isPatchable)
+                && (malwareLayout == null || malwareLayout.isPatchable());
+
+        return new GenerationPlan(
+                baseLayout,
+                customLogLayouts.toArray(new LineLayout[0]),
+                frequencies.stream().mapToDouble(Double::doubleValue).toArray(),
+                selectionModel.getRepeatingLoglinesPercent(),
+                seed,
+                counterKey,
+                clock,
+                malware,
+                malwareLayout,
+                template != null ? OutputFormat.TEXT_LINES : OutputFormat.JSON_ARRAY,
+                patched,
+                sessions,
+                files,
+                repeatWindow,
+                reorderBuffer,
+                presenceWords);
+    }
+
+    /**
+     * Utility method to create the reorder buffer of a job. Missing settings
+     * fall back to lines up to 100 lines late and, if there are stragglers,
+     * stragglers up to 10 times as late
+     *
+     * @param reorderSettings
+     * @return the reorder buffer, null if lines are in order
+     */
+    private ReorderBuffer compileReorderBuffer(ReorderSettings reorderSettings) {
+        if (reorderSettings == null) {
+            return null;
+        }
+        int maxLateness = reorderSettings.getMaxLateness() != null ? reorderSettings.getMaxLateness() : 100;
+        int stragglerLateness = reorderSettings.getStragglerLateness() != null
+                ? reorderSettings.getStragglerLateness()
+                : 10 * maxLateness;
+        double stragglerFraction = reorderSettings.getStragglerFraction() != null
+                ? reorderSettings.getStragglerFraction()
+                : 0;
+        return new ReorderBuffer(maxLateness, stragglerFraction, stragglerLateness);
+    }
+
+    /**
+     * Utility method to create the repeat window of a job. Missing settings
+     * fall back to a window of the last 1000 lines, with no time limit, where
+     * every line is equally likely to be repeated
+     *
+     * @param repeatWindowSettings
+     * @return the repeat window, null if only the line before is repeated
+     */
+    private RepeatWindow compileRepeatWindow(RepeatWindowSettings repeatWindowSettings) {
+        if (repeatWindowSettings == null) {
+            return null;
+        }
+        int lines = repeatWindowSettings.getLines() != null ? repeatWindowSettings.getLines() : 1000;
+        long windowNanos = repeatWindowSettings.getSeconds() != null
+                ? (long) (repeatWindowSettings.getSeconds() * 1e9)
+                : 0;
+        QuantileTable distances = null;
+        if (repeatWindowSettings.getDistance() == RepeatDistance.EXPONENTIAL) {
+            double mean = repeatWindowSettings.getMeanDistance() != null ? repeatWindowSettings.getMeanDistance()
+                    : Math.max(1, lines / 10.0);
+            // the table samples the distance minus 1
+            double tableMean = Math.max(mean - 1, 1e-9);
+            distances = new QuantileTable(p -> -tableMean * Math.log(1 - p));
+        }
+        return new RepeatWindow(lines, windowNanos, distances);
+    }
+
+    /**
+     * Utility method to create the file population of a job. Missing
+     * settings fall back to reusing one of the last 10000 files 90% of the
+     * time
+     *
+     * @param filePopulationSettings
+     * @param generatedSlots         the generated slots, file fields are
+     *                               replaced
+     * @return the file population, null if files are independent
+     */
+    private FilePopulation compileFilePopulation(FilePopulationSettings filePopulationSettings,
+            List<FieldSlot> generatedSlots) {
+        if (filePopulationSettings == null) {
+            return null;
+        }
+        return FilePopulation.create(
+                filePopulationSettings.getSize() != null ? filePopulationSettings.getSize() : 10000,
+                filePopulationSettings.getReuseProbability() != null ? filePopulationSettings.getReuseProbability()
+                        : 0.9,
+                generatedSlots);
+    }
+
+    /**
+     * Utility method to create the session pool of a job. Missing settings
+     * fall back to 1000 active sessions of 50 lines on average, each with 5
+     * files
+     *
+     * @param sessionSettings
+     * @param generatedSlots  the generated slots, session fields are replaced
+     * @return the session pool, null if lines are independent
+     */
+    private SessionPool compileSessions(SessionSettings sessionSettings, List<FieldSlot> generatedSlots) {
+        if (sessionSettings == null) {
+            return null;
         }
+        return SessionPool.create(
+                sessionSettings.getPoolSize() != null ? sessionSettings.getPoolSize() : 1000,
+                sessionSettings.getAverageLength() != null ? sessionSettings.getAverageLength() : 50,
+                sessionSettings.getFilesPerSession() != null ? sessionSettings.getFilesPerSession() : 5,
+                generatedSlots);
+    }
 
-        // Generate log line data
-        if (fieldSettings.getTimeStamp().getInclude() && !logLineJSON.containsKey("timeStamp")) {
-            List<Long> values = fieldSettings.getTimeStamp().getValues();
-            logLine.setTimeStamp(generateTimeStamp(values));
-            logLineJSON.put("timeStamp", logLine.getTimeStamp());
+    /**
+     * Utility method to create the malware injector of a job. Missing
+     * settings fall back to 1% of the lines in outbreaks of 100 lines where
+     * every other line is a detection, with 8 signatures per family
+     * 
+     * @param malwareSettings
+     * @param compileRandom   random source for values fixed for the whole job
+     * @return the malware injector, null if no malware is included
+     */
+    private MalwareInjector compileMalwareInjector(MalwareSettings malwareSettings, RandomSource compileRandom) {
+        if (malwareSettings == null) {
+            return null;
         }
-        if (fieldSettings.getProcessingTime().getInclude() && !logLineJSON.containsKey("processingTime")) {
-            List<Long> values = fieldSettings.getProcessingTime().getValues();
-            logLine.setProcessingTime(generateProcessingTime(values));
-            logLineJSON.put("processingTime", logLine.getProcessingTime());
+
+        List<MalwareFamily> families = new ArrayList<>();
+        if (malwareSettings.isIncludeTrojan()) {
+            families.add(MalwareFamily.TROJAN);
         }
-        if (fieldSettings.getCurrentUserID().getInclude() && !logLineJSON.containsKey("currentUserID")) {
-            List<String> values = fieldSettings.getCurrentUserID().getValues();
-            logLine.setCurrentUserID(generateUserId(values));
-            logLineJSON.put("currentUserID", logLine.getCurrentUserID());
+        if (malwareSettings.isIncludeAdware()) {
+            families.add(MalwareFamily.ADWARE);
         }
-        if (fieldSettings.getBusinessGUID().getInclude() && !logLineJSON.containsKey("businessGUID")) {
-            List<String> values = fieldSettings.getBusinessGUID().getValues();
-            logLine.setBusinessGUID(generateBusinessId(values));
-            logLineJSON.put("businessGUID", logLine.getBusinessGUID());
+        if (malwareSettings.isIncludeRansom()) {
+            families.add(MalwareFamily.RANSOM);
         }
-        if (fieldSettings.getPathToFile().getInclude() && !logLineJSON.containsKey("pathToFile")) {
-            List<String> values = fieldSettings.getPathToFile().getValues();
-            logLine.setPathToFile(generateFilepath(values));
-            logLineJSON.put("pathToFile", logLine.getPathToFile().replace("\\\\", "\\"));
+        if (families.isEmpty()) {
+            return null;
         }
-        if (fieldSettings.getFileSHA256().getInclude() && !logLineJSON.containsKey("fileSHA256")) {
-            List<String> values = fieldSettings.getFileSHA256().getValues();
-            logLine.setFileSHA256(generateFileSHA256(values));
-            logLineJSON.put("fileSHA256", logLine.getFileSHA256());
+
+        double eventRate = malwareSettings.getEventRate() > 0 ? malwareSettings.getEventRate() : 0.01;
+        int burstLength = malwareSettings.getBurstLength() > 0 ? malwareSettings.getBurstLength() : 100;
+        double burstIntensity = malwareSettings.getBurstIntensity() > 0 ? malwareSettings.getBurstIntensity() : 0.5;
+        int signaturesPerFamily = malwareSettings.getSignaturesPerFamily() > 0
+                ? malwareSettings.getSignaturesPerFamily()
+                : 8;
+
+        return new MalwareInjector(families, signaturesPerFamily, eventRate, burstLength, burstIntensity,
+                RandomSource.mix64(compileRandom.nextLong()), compileRandom);
+    }
+
+    /**
+     * Utility method to create the event clock of a job from the timestamp
+     * settings. Missing settings fall back to the start of the job, the
+     * stream log rate, Poisson arrivals and real time
+     * 
+     * @param timeStamp
+     * @param selectionModel
+     * @return the event clock, null if timestamps are random
+     */
+    private EventClock compileEventClock(TimeStamp timeStamp, SelectionModel selectionModel) {
+        EventClockSettings settings = timeStamp != null ? timeStamp.getClock() : null;
+        if (settings == null) {
+            return null;
         }
-        if (fieldSettings.getDisposition().getInclude() && !logLineJSON.containsKey("disposition")) {
-            List<Integer> values = fieldSettings.getDisposition().getValues();
-            logLine.setDisposition(generateDisposition(values)); // 1 = Clean, 2 = Suspicious, 3 = Malicious, 4 = Unknown
-            logLineJSON.put("disposition", logLine.getDisposition());
+
+        long startTime = settings.getStartTime() != null
+                ? settings.getStartTime()
+                : System.currentTimeMillis() / 1000;
+
+        double eventsPerSecond = settings.getEventsPerSecond();
+        if (eventsPerSecond <= 0) {
+            StreamSettings streamSettings = selectionModel.getStreamSettings();
+            eventsPerSecond = streamSettings != null && streamSettings.getLogRate() > 0
+                    ? streamSettings.getLogRate()
+                    : 1;
         }
 
-        addMasterFieldList(logLineJSON, masterFieldList);
+        double speedUp = settings.getSpeedUp() > 0 ? settings.getSpeedUp() : 1;
+        ArrivalDistribution distribution = settings.getDistribution() != null
+                ? settings.getDistribution()
+                : ArrivalDistribution.POISSON;
 
-        return logLineJSON;
+        return new EventClock(startTime, eventsPerSecond, speedUp, distribution);
+    }
+
+    /**
+     * Utility method to hash a job id into 64 bits (FNV-1a)
+     * 
+     * @param jobId
+     * @return the hash, 0 if there is no job id
+     */
+    private long hashJobId(String jobId) {
+        if (jobId == null) {
+            return 0;
+        }
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < jobId.length(); i++) {
+            hash ^= jobId.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Resolves the fields of one kind of log line. Custom log fields overwrite
+     * the generated fields with the same name and fields of the master field
+     * list that are still missing are padded with null. Renamed fields are
+     * written under their new names
+     * 
+     * @param customLog the custom log of the layout, null for random lines
+     * @param generatedSlots
+     * @param masterFieldList
+     * @param renamedFields   names written in place of field names
+     * @param template        the line template of the job, null for JSON lines
+     * @param specialize      true to define a serializer class for the layout
+     * @return the layout
+     */
+    private LineLayout compileLayout(CustomLog customLog, List<FieldSlot> generatedSlots,
+            Set<String> masterFieldList, Map<String, String> renamedFields, TemplatePattern template,
+            boolean specialize) {
+
+        Map<String, FieldSlot> slots = new LinkedHashMap<>();
+
+        if (customLog != null && customLog.getFields() != null) {
+            for (Map.Entry<String, Object> field : customLog.getFields().entrySet()) {
+                String name = renamedFields.getOrDefault(field.getKey(), field.getKey());
+                slots.put(name, FieldSlot.constant(name, field.getValue()));
+            }
+        }
+
+        for (FieldSlot slot : generatedSlots) {
+            String name = renamedFields.getOrDefault(slot.getName(), slot.getName());
+            slots.putIfAbsent(name, slot.renamed(name));
+        }
+
+        for (String field : masterFieldList) {
+            String name = renamedFields.getOrDefault(field, field);
+            slots.putIfAbsent(name, FieldSlot.constant(name, null));
+        }
+
+        FieldSlot[] layoutSlots = slots.values().toArray(new FieldSlot[0]);
+        return template != null
+                ? template.compileLayout(layoutSlots, specialize)
+                : new LineLayout(layoutSlots, specialize);
+    }
+
+    /**
+     * Resolves a writer for each included field of the field generator
+     * registry. Whether values were provided is decided here once instead of
+     * on every line
+     * 
+     * @param fieldSettings
+     * @param compileContext the options of the job being compiled
+     * @return the generated slots in output order
+     */
+    private List<FieldSlot> compileGeneratedSlots(FieldSettings fieldSettings, CompileContext compileContext) {
+
+        List<FieldSlot> slots = new ArrayList<>();
+
+        for (FieldGenerator<?> generator : fieldGenerators.getGenerators()) {
+            FieldWriter writer = compileField(generator, fieldSettings, compileContext);
+            if (writer != null) {
+                slots.add(FieldSlot.generated(generator.getName(), writer));
+            }
+        }
+
+        return slots;
+    }
+
+    /**
+     * Utility method to get the settings of every field of the field
+     * generator registry
+     *
+     * @param fieldSettings
+     * @return the settings of the fields that have them, by field name
+     */
+    private Map<String, FieldSetting> collectFieldSettings(FieldSettings fieldSettings) {
+        Map<String, FieldSetting> settings = new LinkedHashMap<>();
+        for (FieldGenerator<?> generator : fieldGenerators.getGenerators()) {
+            FieldSetting setting = generator.getSettings(fieldSettings);
+            if (setting != null) {
+                settings.put(generator.getName(), setting);
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * Utility method to compile a single field of a job
+     * 
+     * @param <S>
+     * @param generator
+     * @param fieldSettings
+     * @param compileContext
+     * @return the writer of the field, null if the field is not included
+     */
+    private <S extends FieldSetting> FieldWriter compileField(FieldGenerator<S> generator,
+            FieldSettings fieldSettings, CompileContext compileContext) {
+        S settings = generator.getSettings(fieldSettings);
+        if (settings == null || !Boolean.TRUE.equals(settings.getInclude())) {
+            return null;
+        }
+        return generator.compile(settings, compileContext);
     }
 
     public void addMasterFieldList(JSONObject logLineJSON, Set<String> masterFieldList) {
@@ -128,33 +860,11 @@ public class LogService {
         }
 
         for (CustomLog customLog: customLogs) {
-            if (customLog.getFields().containsKey("timeStamp")
-                        && !fieldSettings.getTimeStamp().getInclude()) {
-                customLog.getFields().remove("timeStamp");
-            }
-            if (customLog.getFields().containsKey("processingTime")
-                        && !fieldSettings.getProcessingTime().getInclude()) {
-                customLog.getFields().remove("processingTime");
-            }
-            if (customLog.getFields().containsKey("currentUserID")
-                        && !fieldSettings.getCurrentUserID().getInclude()) {
-                customLog.getFields().remove("currentUserID");
-            }
-            if (customLog.getFields().containsKey("businessGUID")
-                        && !fieldSettings.getBusinessGUID().getInclude()) {
-                customLog.getFields().remove("businessGUID");
-            }
-            if (customLog.getFields().containsKey("pathToFile")
-                        && !fieldSettings.getPathToFile().getInclude()) {
-                customLog.getFields().remove("pathToFile");
-            }
-            if (customLog.getFields().containsKey("fileSHA256")
-                        && !fieldSettings.getFileSHA256().getInclude()) {
-                customLog.getFields().remove("fileSHA256");
-            }
-            if (customLog.getFields().containsKey("disposition")
-                        && !fieldSettings.getDisposition().getInclude()) {
-                customLog.getFields().remove("disposition");
+            for (FieldGenerator<?> generator : fieldGenerators.getGenerators()) {
+                FieldSetting settings = generator.getSettings(fieldSettings);
+                if (settings != null && !settings.getInclude()) {
+                    customLog.getFields().remove(generator.getName());
+                }
             }
         }
     }
@@ -216,45 +926,6 @@ public class LogService {
 
     }
 
-    /**
-     * Randomly choose a custom log to generate. The frequencies in the List 
-     * must total <= 1.00. This method also returns null when a custom log
-     * is not selected and a random log should be generated
-     * 
-     * @param customLogs
-     * @return
-     */
-    public CustomLog chooseCustomLog(List<CustomLog> customLogs) {
-        
-        if (customLogs == null) {
-            return null;
-        }
-
-        // get a random value
-        Random random = new Random();
-        double randomDouble = random.nextDouble(1);
-
-        double lower = 0;
-        double upper = 0;
-        for (CustomLog customLog: customLogs) {
-
-            if (customLog == null) {
-                continue;
-            }
-
-            upper += customLog.getFrequency();
-            
-            // return the custom log chosen
-            if (randomDouble <= upper && randomDouble > lower) {
-                return customLog;
-            }
-            lower = upper;
-        }
-
-        // return null if no custom log chosen
-        return null;
-    }
-
     /**
      * Utility method to generate a timestamp
      * 
@@ -268,8 +939,7 @@ public class LogService {
         }
 
         // if value provided, select one at random
-        Random random = new Random();
-        int randomIndex = random.nextInt(values.size());
+        int randomIndex = ThreadLocalRandom.current().nextInt(values.size());
         return values.get(randomIndex);
     }
 
@@ -279,7 +949,7 @@ public class LogService {
      * @return a timestamp
      */
     public long generateRandomTimeStamp() {
-        return (long) ((System.currentTimeMillis() / 1000) * Math.random());
+        return (long) ((System.currentTimeMillis() / 1000) * ThreadLocalRandom.current().nextDouble());
     }
 
     /**
@@ -295,8 +965,7 @@ public class LogService {
         }
 
         // if value provided, select one at random
-        Random random = new Random();
-        int randomIndex = random.nextInt(values.size());
+        int randomIndex = ThreadLocalRandom.current().nextInt(values.size());
         return values.get(randomIndex);
     }
 
@@ -306,7 +975,7 @@ public class LogService {
      * @return random processing time in seconds
      */
     public long generateRandomProcessingTime() {
-        return (long) (Math.random() * 1000);
+        return ThreadLocalRandom.current().nextInt(1000);
     }
 
     /**
@@ -322,8 +991,7 @@ public class LogService {
         }
 
         // if value provided, select one at random
-        Random random = new Random();
-        int randomIndex = random.nextInt(values.size());
+        int randomIndex = ThreadLocalRandom.current().nextInt(values.size());
         return values.get(randomIndex);
     }
 
@@ -349,8 +1017,7 @@ public class LogService {
         }
 
         // if value provided, select one at random
-        Random random = new Random();
-        int randomIndex = random.nextInt(values.size());
+        int randomIndex = ThreadLocalRandom.current().nextInt(values.size());
         return values.get(randomIndex);
     }
 
@@ -376,8 +1043,7 @@ public class LogService {
         }
 
         // if value provided, select one at random
-        Random random = new Random();
-        int randomIndex = random.nextInt(values.size());
+        int randomIndex = ThreadLocalRandom.current().nextInt(values.size());
         return values.get(randomIndex);
     }
 
@@ -387,22 +1053,7 @@ public class LogService {
      * @return a random filepath
      */
     public String generateRandomFilepath() {
-        // random information
-        String[] folders = { "C:\\Program Files", "C:\\Windows", "C:\\Program Files (x86)",
-                "C:\\Program Files (x86)\\Common Files", "C:\\tmp", "C:\\home" };
-        String[] ext = { ".pdf", ".xlsx", ".csv", ".txt", ".json", ".sys", ".docx", ".jpg", ".zip" };
-
-        // get random path to file
-        Random random = new Random();
-        int index = random.nextInt(folders.length);
-        String pathToFile = folders[index];
-
-        // get random filename and extension
-        index = random.nextInt(ext.length);
-        String filename = UUID.randomUUID().toString() + ext[index];
-
-        // combine and return
-        return (pathToFile + "\\" + filename);
+        return PathToFileGenerator.secureFilepath();
     }
 
     /**
@@ -418,8 +1069,7 @@ public class LogService {
         }
 
         // if value provided, select one at random
-        Random random = new Random();
-        int randomIndex = random.nextInt(values.size());
+        int randomIndex = ThreadLocalRandom.current().nextInt(values.size());
         return values.get(randomIndex);
     }
 
@@ -429,7 +1079,7 @@ public class LogService {
      * @return a random file SHA256
      */
     public String generateRandomFileSHA256() {
-        return UUID.randomUUID().toString();
+        return FileSha256Generator.secureSha256();
     }
 
     /**
@@ -445,8 +1095,7 @@ public class LogService {
         }
 
         // if value provided, select one at random
-        Random random = new Random();
-        int randomIndex = random.nextInt(values.size());
+        int randomIndex = ThreadLocalRandom.current().nextInt(values.size());
         return values.get(randomIndex);
     }
 
@@ -456,7 +1105,7 @@ public class LogService {
      * @return a random disposition
      */
     public int generateRandomDisposition() {
-        return (int) (Math.random() * ((4 - 1) + 1) + 1);
+        return ThreadLocalRandom.current().nextInt(4) + 1;
     }
 
 }
\ No newline at end of file
@@ -1,10 +1,10 @@
 package com.ad1.loggenerator.service.implementation;
 
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.HashSet;
-import java.util.Set;
 import java.util.UUID;
 
 import org.json.simple.JSONObject;
@@ -18,8 +18,12 @@ import org.springframework.web.reactive.function.client.WebClientRequestExceptio
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import com.ad1.loggenerator.exception.FilePathNotFoundException;
+import com.ad1.loggenerator.generation.GenerationPlan;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
+import com.ad1.loggenerator.generation.PlanSchedule;
 import com.ad1.loggenerator.model.JobStatus;
 import com.ad1.loggenerator.model.SelectionModel;
+import com.ad1.loggenerator.model.StreamSettings;
 import com.ad1.loggenerator.model.StreamTracker;
 
 import lombok.Data;
@@ -71,33 +75,34 @@ public class StreamingService {
         long nextSendNanoTime = System.nanoTime() + nsBetweenRequests;
         long nsToNextRequest = 0;
 
-        // array with given batch size
-        JSONObject[] logs = new JSONObject[batchSize];
-
-        // temporary repeating log
-        JSONObject repeatingLog = null;
+        // reusable buffer the logs of each request are encoded into
+        JsonLineEncoder requestEncoder = new JsonLineEncoder();
 
         // Setup web client for post request to user specified address
-        String streamAddress = selectionModel.getStreamSettings().getStreamAddress();
+        StreamSettings streamSettings = selectionModel.getStreamSettings();
+        String streamAddress = streamSettings.getStreamAddress();
         WebClient webClient = WebClient.create(streamAddress);
         String[] errorMessage = { "" };
 
-        // remove fields that should not be included in custom logs
-        logService.preProcessCustomLogs(selectionModel.getCustomLogs(), selectionModel);
-        Set<String> masterFieldList = logService.getMasterFieldsList(selectionModel.getCustomLogs());
+        // compile the selection model and its schema versions once for all log lines of the job,
+        // the versions share the output format of the first plan
+        PlanSchedule schedule = PlanSchedule.compile(selectionModel, streamSettings.getSchemaVersions(),
+                logService::compilePlan);
+        GenerationPlan plan = schedule.getPlan();
 
         // should logs be saved
         boolean saveLogs = selectionModel.getStreamSettings().isSaveLogs();
 
-        // File and FileWriter for savings log lines
+        // File and OutputStream for savings log lines
         File tempLogFile = null;
-        FileWriter fileWriter = null;
+        OutputStream fileOutputStream = null;
+        JsonLineEncoder fileEncoder = null;
 
         try {
             boolean firstLogSaved = false;
 
             if (saveLogs) {
-                // FileWriter for savings log lines
+                // OutputStream for savings log lines
                 tempLogFile = new File("logs\\stream\\" + streamJobTracker.getJobId() + ".json");
 
                 // Check if the file exists, create a new one if it doesn't exist
@@ -105,41 +110,42 @@ public class StreamingService {
                     tempLogFile.createNewFile();
                 }
 
-                // FileWriter to append to the log file
-                fileWriter = new FileWriter(tempLogFile, true);
+                // OutputStream to append to the log file
+                fileOutputStream = new FileOutputStream(tempLogFile, true);
+                fileEncoder = new JsonLineEncoder();
 
-                // write a [ to begin the log file if it is empty
+                // write the start of the output, a [ for JSON lines, to begin the log file if it is empty
                 if (tempLogFile.length() == 0) {
-                    fileWriter.write("[");
+                    fileEncoder.writeRaw(plan.getOutputFormat().getStart());
                 }
             }
             while (streamJobTracker.getStatus() == JobStatus.ACTIVE) {
+                // every request is its own json array or block of text lines
+                requestEncoder.reset();
+                requestEncoder.writeRaw(plan.getOutputFormat().getStart());
+
+                // switch to the schema version that is due, if any
+                schedule.advance(System.nanoTime());
+                schedule.getContext().startArray();
+
                 // generate batchSize number of logs
-                for (int i = 0; i < batchSize; i++) {
-                    // if no repeating log, generate a new log, otherwise add the repeating log
-                    if (repeatingLog == null) {
-                        logs[i] = logService.generateLogLine(selectionModel, masterFieldList);
-
-                        // determine if a log lines repeats
-                        if (Math.random() < selectionModel.getRepeatingLoglinesPercent()) {
-                            repeatingLog = logs[i];
-                        }
-                    } else {
-                        logs[i] = repeatingLog;
-                        repeatingLog = null;
-                    }
+                logService.generate(schedule.getPlan(), schedule.getContext(), batchSize, requestEncoder);
 
-                    // writing logs to temp file
-                    if (saveLogs) {
-                        if (firstLogSaved) { // add delimiter if not first log line written
-                            fileWriter.write(",\n");
-                        }
-                        // Write the log lines to the temp log file
-                        fileWriter.write(logs[i].toString());
+                // writing logs to temp file
+                if (saveLogs) {
+                    if (firstLogSaved) { // add delimiter if not first log line written
+                        fileEncoder.writeRaw(plan.getOutputFormat().getDelimiter());
+                    }
+                    // Write the log lines of the request without the start of the output
+                    int start = plan.getOutputFormat().getStart().length;
+                    fileEncoder.writeRaw(requestEncoder.getBuffer(), start, requestEncoder.size() - start);
+                    firstLogSaved = true;
 
-                        firstLogSaved = true;
+                    if (fileEncoder.size() >= JsonLineEncoder.FLUSH_SIZE) {
+                        fileEncoder.flushTo(fileOutputStream);
                     }
                 }
+                requestEncoder.writeRaw(plan.getOutputFormat().getEnd());
                 // nanoseconds until next request time
                 nsToNextRequest = nextSendNanoTime - System.nanoTime();
 
@@ -161,8 +167,8 @@ public class StreamingService {
 
                 // set up post request
                 Mono<String> response = webClient.post()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .bodyValue(logs)
+                        .contentType(MediaType.parseMediaType(plan.getOutputFormat().getMediaType()))
+                        .bodyValue(requestEncoder.toByteArray())
                         .retrieve()
                         .bodyToMono(String.class);
 
@@ -182,9 +188,10 @@ public class StreamingService {
             }
 
             if (saveLogs) {
-                // write a ] to end the log file
-                fileWriter.write("]");
-                fileWriter.close();
+                // write the end of the output to end the log file
+                fileEncoder.writeRaw(plan.getOutputFormat().getEnd());
+                fileEncoder.flushTo(fileOutputStream);
+                fileOutputStream.close();
             }
 
         } catch (IOException e) {
@@ -212,39 +219,41 @@ public class StreamingService {
         // specify filepath location for stream file
         String filename = "logs\\stream\\" + selectionModel.getJobId() + ".json";
 
-        // remove fields that should not be included in custom logs
-        logService.preProcessCustomLogs(selectionModel.getCustomLogs(), selectionModel);
-        Set<String> masterFieldList = logService.getMasterFieldsList(selectionModel.getCustomLogs());
+        // compile the selection model and its schema versions once for all log lines of the job,
+        // the versions share the output format of the first plan
+        PlanSchedule schedule = PlanSchedule.compile(selectionModel,
+                selectionModel.getStreamSettings().getSchemaVersions(), logService::compilePlan);
+        GenerationPlan plan = schedule.getPlan();
 
         try {
-            FileWriter fileWriter = new FileWriter(filename);
+            OutputStream outputStream = new FileOutputStream(filename);
 
-            // write a [ to begin the log file
-            fileWriter.write("[");
+            // reusable buffer the log lines are encoded into
+            JsonLineEncoder encoder = new JsonLineEncoder();
+
+            // write the start of the output, a [ for JSON lines, to begin the log file
+            encoder.writeRaw(plan.getOutputFormat().getStart());
 
             while (streamJobTracker.getStatus() == JobStatus.ACTIVE) {
 
-                if (streamJobTracker.getLogCount() > 0) { // add delimiter if not first log line written
-                    fileWriter.write(",\n");
-                }
+                // switch to the schema version that is due, if any
+                schedule.advance(System.nanoTime());
 
-                JSONObject logLine = logService.generateLogLine(selectionModel, masterFieldList);
-                fileWriter.write(logLine.toString());
-                streamJobTracker.setLogCount(streamJobTracker.getLogCount() + 1);
+                // generate the next block of log lines
+                logService.generate(schedule.getPlan(), schedule.getContext(), LogService.BLOCK_SIZE, encoder);
+                streamJobTracker.setLogCount(streamJobTracker.getLogCount() + LogService.BLOCK_SIZE);
 
-                // determine if a log lines repeats
-                if (Math.random() < selectionModel.getRepeatingLoglinesPercent()
-                        && streamJobTracker.getStatus() == JobStatus.ACTIVE) {
-                    fileWriter.write(",\n");
-                    fileWriter.write(logLine.toString());
-                    streamJobTracker.setLogCount(streamJobTracker.getLogCount() + 1);
+                // write the encoded log lines to the file when the buffer is full
+                if (encoder.size() >= JsonLineEncoder.FLUSH_SIZE) {
+                    encoder.flushTo(outputStream);
                 }
             }
 
-            // write a ] to end the log file
-            fileWriter.write("]");
+            // write the end of the output to end the log file
+            encoder.writeRaw(plan.getOutputFormat().getEnd());
+            encoder.flushTo(outputStream);
 
-            fileWriter.close();
+            outputStream.close();
 
         } catch (IOException e) {
             // Mark the job as failed if exception occurred
@@ -0,0 +1,155 @@
+package com.ad1.loggenerator.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.GenerationPlan;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
+import com.ad1.loggenerator.model.CustomLog;
+import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.GenerationSettings;
+import com.ad1.loggenerator.model.LineTemplate;
+import com.ad1.loggenerator.model.LineTemplateFormat;
+import com.ad1.loggenerator.model.SelectionModel;
+import com.ad1.loggenerator.model.fieldsettingsmodels.BusinessGuid;
+import com.ad1.loggenerator.model.fieldsettingsmodels.CurrentUserId;
+import com.ad1.loggenerator.model.fieldsettingsmodels.Disposition;
+import com.ad1.loggenerator.model.fieldsettingsmodels.FileSha256;
+import com.ad1.loggenerator.model.fieldsettingsmodels.PathToFile;
+import com.ad1.loggenerator.model.fieldsettingsmodels.ProcessingTime;
+import com.ad1.loggenerator.model.fieldsettingsmodels.TimeStamp;
+import com.ad1.loggenerator.service.implementation.LogService;
+
+/**
+ * Compares the specialized serializers with the interpreted layouts, for
+ * JSON lines and for line templates. Run it
+ * after mvn test-compile with the test classpath, for example from the IDE
+ * or with exec:java -Dexec.classpathScope=test. The main method runs it with
+ * the GC profiler and fails if a line allocates more than the budget
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    // bytes a line may allocate once the job is warmed up
+    public static final double ALLOCATION_BUDGET = 8;
+
+    @Param({ "true", "false" })
+    private boolean interpreted;
+
+    // JSON, or the format of a line template
+    @Param({ "JSON", "SYSLOG", "CEF" })
+    private String format;
+
+    // patch JSON lines in place, run with -p patched=true
+    @Param({ "false" })
+    private boolean patched;
+
+    private LogService logService;
+    private GenerationPlan plan;
+    private GenerationContext context;
+    private JsonLineEncoder encoder;
+
+    @Setup
+    public void setUp() {
+        logService = new LogService();
+        SelectionModel selectionModel = createSelectionModel(interpreted);
+        if (!"JSON".equals(format)) {
+            selectionModel.setLineTemplate(new LineTemplate(LineTemplateFormat.valueOf(format), null));
+        }
+        selectionModel.getGenerationSettings().setPatched(patched);
+        plan = logService.compilePlan(selectionModel);
+        context = plan.newContext();
+        encoder = new JsonLineEncoder();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LogService.BLOCK_SIZE)
+    public void generateBlock(Blackhole blackhole) {
+        encoder.reset();
+        logService.generate(plan, context, LogService.BLOCK_SIZE, encoder);
+        blackhole.consume(encoder.size());
+    }
+
+    /**
+     * Utility method to create a job with every field and two custom logs
+     *
+     * @param interpreted
+     * @return the selection model
+     */
+    public static SelectionModel createSelectionModel(boolean interpreted) {
+        FieldSettings fieldSettings = new FieldSettings(
+                new TimeStamp(true, new ArrayList<Long>()),
+                new ProcessingTime(true, new ArrayList<Long>()),
+                new CurrentUserId(true, new ArrayList<String>()),
+                new BusinessGuid(true, new ArrayList<String>()),
+                new PathToFile(true, new ArrayList<String>()),
+                new FileSha256(true, new ArrayList<String>()),
+                new Disposition(true, new ArrayList<Integer>()));
+
+        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+        Map<String, Object> fields1 = new HashMap<String, Object>();
+        fields1.put("disposition", 4);
+        fields1.put("malware", "trojan");
+        customLogs.add(new CustomLog(0.1, fields1));
+        Map<String, Object> fields2 = new HashMap<String, Object>();
+        fields2.put("pathToFile", "C:\\Windows\\evil.exe");
+        customLogs.add(new CustomLog(0.05, fields2));
+
+        SelectionModel selectionModel = new SelectionModel();
+        selectionModel.setJobId("benchmark");
+        selectionModel.setRepeatingLoglinesPercent(0.1);
+        selectionModel.setFieldSettings(fieldSettings);
+        selectionModel.setCustomLogs(customLogs);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, interpreted));
+        return selectionModel;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Collection<RunResult> results = new Runner(new OptionsBuilder()
+                .include(SerializerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+
+        // the benchmark runs one operation per line, so B/op is bytes per line
+        for (RunResult result : results) {
+            for (Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+                if (secondary.getKey().endsWith("gc.alloc.rate.norm")
+                        && secondary.getValue().getScore() > ALLOCATION_BUDGET) {
+                    throw new IllegalStateException("Lines allocate " + secondary.getValue().getScore()
+                            + " bytes with " + result.getParams() + ", the budget is " + ALLOCATION_BUDGET);
+                }
+            }
+        }
+    }
+
+}
@@ -3,7 +3,11 @@ package com.ad1.loggenerator.controller;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.hasItem;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -25,14 +29,22 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.ad1.loggenerator.exception.InvalidSettingsException;
 import com.ad1.loggenerator.model.AllJobMetrics;
 import com.ad1.loggenerator.model.BatchJobMetrics;
 import com.ad1.loggenerator.model.BatchSettings;
 import com.ad1.loggenerator.model.CustomLog;
 import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.FilePopulationSettings;
+import com.ad1.loggenerator.model.GenerationSettings;
 import com.ad1.loggenerator.model.JobStatus;
 import com.ad1.loggenerator.model.MalwareSettings;
+import com.ad1.loggenerator.model.ReorderSettings;
+import com.ad1.loggenerator.model.RepeatDistance;
+import com.ad1.loggenerator.model.RepeatWindowSettings;
+import com.ad1.loggenerator.model.SchemaVersion;
 import com.ad1.loggenerator.model.SelectionModel;
+import com.ad1.loggenerator.model.SessionSettings;
 import com.ad1.loggenerator.model.StreamJobMetrics;
 import com.ad1.loggenerator.model.StreamSettings;
 import com.ad1.loggenerator.model.fieldsettingsmodels.BusinessGuid;
@@ -46,6 +58,7 @@ import com.ad1.loggenerator.service.AWSLogService;
 import com.ad1.loggenerator.service.implementation.AWSBatchService;
 import com.ad1.loggenerator.service.implementation.AWSStreamService;
 import com.ad1.loggenerator.service.implementation.BatchTrackerService;
+import com.ad1.loggenerator.service.implementation.LogService;
 import com.ad1.loggenerator.service.implementation.StatisticsUtilitiesService;
 import com.ad1.loggenerator.service.implementation.StreamTrackerService;
 import com.ad1.loggenerator.service.implementation.StreamingService;
@@ -69,6 +82,8 @@ public class LogControllerTest {
     private AWSLogService awsLogService;
     @MockBean
     private StreamingService streamingService;
+    @MockBean
+    private LogService logService;
 
     private SelectionModel selectionModelBatch;
     private SelectionModel selectionModelStream;
@@ -126,7 +141,9 @@ public class LogControllerTest {
                 streamMode,
                 streamSettings,
                 batchSettings,
-                customLogs);
+                customLogs,
+                null,
+                null);
 
         selectionModelBatch = new SelectionModel(
                 jobId,
@@ -136,7 +153,9 @@ public class LogControllerTest {
                 batchMode,
                 streamSettings,
                 batchSettings,
-                customLogs);
+                customLogs,
+                null,
+                null);
 
         setUpAWSBatchServiceMock();
         setUpBatchTrackerServiceMock();
@@ -200,6 +219,115 @@ public class LogControllerTest {
                 .andExpect(content().string("Invalid Request. Try again"));
     }
 
+    @Test
+    public void test_generateStreamRequestToS3_shouldRejectInvalidSchemaVersion_19() throws Exception {
+        FieldSettings fieldSettings = selectionModelStream.getFieldSettings();
+        FileSha256 fileSha256 = new FileSha256(true, new ArrayList<String>());
+        fileSha256.setPoolSize(0);
+        FieldSettings versionFieldSettings = new FieldSettings(
+                fieldSettings.getTimeStamp(),
+                fieldSettings.getProcessingTime(),
+                fieldSettings.getCurrentUserID(),
+                fieldSettings.getBusinessGUID(),
+                fieldSettings.getPathToFile(),
+                fileSha256,
+                fieldSettings.getDisposition());
+        List<SchemaVersion> schemaVersions = new ArrayList<SchemaVersion>();
+        schemaVersions.add(new SchemaVersion(60, versionFieldSettings, null));
+        selectionModelStream.getStreamSettings().setSchemaVersions(schemaVersions);
+
+        mockMvc.perform(post(streamModeUrl)
+                .content(objectMapper.writeValueAsString(selectionModelStream))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("['streamSettings.schemaVersions[0].fieldSettings.fileSHA256.poolSize']",
+                        equalTo("must be greater than 0")));
+    }
+
+    @Test
+    public void test_generateStreamRequestToS3_shouldRejectInvalidReorderSettings_20() throws Exception {
+        GenerationSettings generationSettings = new GenerationSettings(null, false, false, false);
+        generationSettings.setReorder(new ReorderSettings(Integer.MAX_VALUE, 1.5, 0));
+        selectionModelStream.setGenerationSettings(generationSettings);
+
+        mockMvc.perform(post(streamModeUrl)
+                .content(objectMapper.writeValueAsString(selectionModelStream))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("['generationSettings.reorder.maxLateness']",
+                        equalTo("must be less than or equal to 100000")))
+                .andExpect(jsonPath("['generationSettings.reorder.stragglerFraction']",
+                        equalTo("must be less than or equal to 1.0")))
+                .andExpect(jsonPath("['generationSettings.reorder.stragglerLateness']",
+                        equalTo("must be greater than 0")));
+    }
+
+    @Test
+    public void test_generateStreamRequestToS3_shouldRejectInvalidSessionSettings_21() throws Exception {
+        GenerationSettings generationSettings = new GenerationSettings(null, false, false, false);
+        generationSettings.setSessions(new SessionSettings(Integer.MAX_VALUE, 0, 1000));
+        selectionModelStream.setGenerationSettings(generationSettings);
+
+        mockMvc.perform(post(streamModeUrl)
+                .content(objectMapper.writeValueAsString(selectionModelStream))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("['generationSettings.sessions.poolSize']",
+                        equalTo("must be less than or equal to 100000")))
+                .andExpect(jsonPath("['generationSettings.sessions.averageLength']",
+                        equalTo("must be greater than 0")))
+                .andExpect(jsonPath("['generationSettings.sessions.filesPerSession']",
+                        equalTo("must be less than or equal to 100")));
+    }
+
+    @Test
+    public void test_generateStreamRequestToS3_shouldRejectInvalidFilePopulationSettings_22() throws Exception {
+        GenerationSettings generationSettings = new GenerationSettings(null, false, false, false);
+        generationSettings.setFilePopulation(new FilePopulationSettings(-1, 1.5));
+        selectionModelStream.setGenerationSettings(generationSettings);
+
+        mockMvc.perform(post(streamModeUrl)
+                .content(objectMapper.writeValueAsString(selectionModelStream))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("['generationSettings.filePopulation.size']",
+                        equalTo("must be greater than 0")))
+                .andExpect(jsonPath("['generationSettings.filePopulation.reuseProbability']",
+                        equalTo("must be less than or equal to 1.0")));
+    }
+
+    @Test
+    public void test_generateStreamRequestToS3_shouldRejectInvalidRepeatWindowSettings_23() throws Exception {
+        GenerationSettings generationSettings = new GenerationSettings(null, false, false, false);
+        generationSettings.setRepeatWindow(new RepeatWindowSettings(Integer.MAX_VALUE, -1.0,
+                RepeatDistance.EXPONENTIAL, 0.5));
+        selectionModelStream.setGenerationSettings(generationSettings);
+
+        mockMvc.perform(post(streamModeUrl)
+                .content(objectMapper.writeValueAsString(selectionModelStream))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("['generationSettings.repeatWindow.lines']",
+                        equalTo("must be less than or equal to 100000")))
+                .andExpect(jsonPath("['generationSettings.repeatWindow.seconds']",
+                        equalTo("must be greater than 0")))
+                .andExpect(jsonPath("['generationSettings.repeatWindow.meanDistance']",
+                        equalTo("must be greater than or equal to 1.0")));
+    }
+
+    @Test
+    public void test_generateStreamRequestToS3_shouldRejectUncompilableSettings_24() throws Exception {
+        doThrow(new InvalidSettingsException("Empirical values and probabilities must not decrease"))
+                .when(logService).validatePlan(any(SelectionModel.class));
+
+        mockMvc.perform(post(streamModeUrl)
+                .content(objectMapper.writeValueAsString(selectionModelStream))
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("message", equalTo("Empirical values and probabilities must not decrease")));
+        verify(awsStreamService, never()).streamToS3(any(), any());
+    }
+
     @Test
     public void test_stopBatchRequest_shouldReturnOk_7() throws Exception {
         when(batchTrackerService.stopBatchJob(anyString())).thenReturn(true);
@@ -27,6 +27,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 
 import com.ad1.loggenerator.controller.LogsToFileController;
+import com.ad1.loggenerator.exception.InvalidSettingsException;
 import com.ad1.loggenerator.model.BatchSettings;
 import com.ad1.loggenerator.model.MalwareSettings;
 import com.ad1.loggenerator.model.SelectionModel;
@@ -42,6 +43,7 @@ import com.ad1.loggenerator.model.CustomLog;
 import com.ad1.loggenerator.model.FieldSettings;
 import com.ad1.loggenerator.service.implementation.BatchService;
 import com.ad1.loggenerator.service.implementation.BatchTrackerService;
+import com.ad1.loggenerator.service.implementation.LogService;
 import com.ad1.loggenerator.service.implementation.StreamTrackerService;
 import com.ad1.loggenerator.service.implementation.StreamingService;
 
@@ -57,6 +59,8 @@ public class LogsToFileControllerTest {
     private StreamingService streamingService;
     @MockBean
     private StreamTrackerService streamTrackerService;
+    @MockBean
+    private LogService logService;
     private SelectionModel selectionModelBatch;
     private SelectionModel selectionModelStream;
     @Autowired
@@ -105,7 +109,9 @@ public class LogsToFileControllerTest {
             streamMode,
             streamSettings,
             batchSettings,
-            customLogs
+            customLogs,
+            null,
+            null
         );
 
         selectionModelBatch = new SelectionModel(
@@ -116,7 +122,9 @@ public class LogsToFileControllerTest {
             batchMode,
             streamSettings,
             batchSettings,
-            customLogs
+            customLogs,
+            null,
+            null
         );
 
         setUpBatchServiceMock();
@@ -174,6 +182,19 @@ public class LogsToFileControllerTest {
             .andExpect(jsonPath("message", equalTo("Stream address   is not available.")));
     }
 
+    @Test
+    public void test_generateBatchRequest_shouldRejectUncompilableSettings_6() throws Exception {
+        doThrow(new InvalidSettingsException("Unclosed placeholder in line template at index 0"))
+            .when(logService).validatePlan(any(SelectionModel.class));
+
+        mockMvc.perform(post(batchModeURL)
+            .content(objectMapper.writeValueAsString(selectionModelBatch))
+            .contentType(MediaType.APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("message", equalTo("Unclosed placeholder in line template at index 0")));
+        verify(batchService, never()).batchMode(any(), any());
+    }
+
     public void setUpBatchServiceMock() {
         when(batchService.generateJobId()).thenReturn(jobId);
     }
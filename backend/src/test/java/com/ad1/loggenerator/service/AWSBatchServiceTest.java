@@ -2,6 +2,7 @@ package com.ad1.loggenerator.service;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -9,6 +10,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -38,6 +40,7 @@ import com.ad1.loggenerator.service.implementation.AWSBatchService;
 import com.ad1.loggenerator.service.implementation.LogService;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.S3Object;
 
 import mockit.Mocked;
@@ -133,7 +136,8 @@ public class AWSBatchServiceTest {
     @Test
     public void testPutObjectInAmazonS3() {
         // then - verify that the expected interactions occurred
-        verify(s3Client, times(1)).putObject(anyString(), anyString(), anyString());
+        verify(s3Client, times(1)).putObject(anyString(), anyString(), any(InputStream.class),
+                argThat((ObjectMetadata metadata) -> "application/json".equals(metadata.getContentType())));
     }
 
     @DisplayName("Testing upload logs to AWS S3 bucket in batch mode - verify the Object ACL is set to public read while uploading log lines")
@@ -4,9 +4,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
-import static org.mockito.AdditionalMatchers.or;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -18,17 +18,22 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
-import org.json.simple.JSONObject;
+import org.json.simple.JSONArray;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import com.ad1.loggenerator.exception.FilePathNotFoundException;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.GenerationPlan;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
 import com.ad1.loggenerator.model.BatchSettings;
 import com.ad1.loggenerator.model.BatchTracker;
 import com.ad1.loggenerator.model.CustomLog;
 import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.GenerationSettings;
 import com.ad1.loggenerator.model.JobStatus;
 import com.ad1.loggenerator.model.MalwareSettings;
 import com.ad1.loggenerator.model.SelectionModel;
@@ -117,7 +122,9 @@ public class BatchServiceTest {
                 mode,
                 streamSettings,
                 batchSettings0,
-                customLogs);
+                customLogs,
+                null,
+                null);
 
         selectionModel1 = new SelectionModel(
                 jobId,
@@ -127,7 +134,9 @@ public class BatchServiceTest {
                 mode,
                 streamSettings,
                 batchSettings1,
-                customLogs);
+                customLogs,
+                null,
+                null);
 
         selectionModel2 = new SelectionModel(
                 jobId,
@@ -137,7 +146,9 @@ public class BatchServiceTest {
                 mode,
                 streamSettings,
                 batchSettings2,
-                customLogs);
+                customLogs,
+                null,
+                null);
 
         // Set up mock selection models for 0, 1, 2 batch size
         selectionModelMock0 = createSelectionModel(batchSettings0, repeatingLoglinesPercentage);
@@ -359,7 +370,8 @@ public class BatchServiceTest {
         verify(selectionModelMock0, times(1)).getBatchSettings();
         verify(selectionModelMock0, times(1)).getJobId();
         verify(selectionModelMock0, times(2)).getCustomLogs();
-        verify(selectionModelMock0, times(1)).getFieldSettings();
+        verify(selectionModelMock0, times(2)).getFieldSettings();
+        verify(selectionModelMock0, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
@@ -368,7 +380,7 @@ public class BatchServiceTest {
 
         verify(selectionModelMock1, times(1)).getBatchSettings();
         verify(selectionModelMock1, times(1)).getJobId();
-        verify(selectionModelMock1, times(3)).getCustomLogs();
+        verify(selectionModelMock1, times(2)).getCustomLogs();
         verify(selectionModelMock1, times(2)).getFieldSettings();
         verify(selectionModelMock1, times(1)).getRepeatingLoglinesPercent();
     }
@@ -379,9 +391,9 @@ public class BatchServiceTest {
 
         verify(selectionModelMock2, times(1)).getBatchSettings();
         verify(selectionModelMock2, times(1)).getJobId();
-        verify(selectionModelMock2, times(4)).getCustomLogs();
-        verify(selectionModelMock2, times(3)).getFieldSettings();
-        verify(selectionModelMock2, times(2)).getRepeatingLoglinesPercent();
+        verify(selectionModelMock2, times(2)).getCustomLogs();
+        verify(selectionModelMock2, times(2)).getFieldSettings();
+        verify(selectionModelMock2, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
@@ -392,7 +404,8 @@ public class BatchServiceTest {
         verify(selectionModelMock0, times(1)).getBatchSettings();
         verify(selectionModelMock0, times(1)).getJobId();
         verify(selectionModelMock0, times(2)).getCustomLogs();
-        verify(selectionModelMock0, times(1)).getFieldSettings();
+        verify(selectionModelMock0, times(2)).getFieldSettings();
+        verify(selectionModelMock0, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
@@ -402,7 +415,7 @@ public class BatchServiceTest {
 
         verify(selectionModelMock1, times(1)).getBatchSettings();
         verify(selectionModelMock1, times(1)).getJobId();
-        verify(selectionModelMock1, times(3)).getCustomLogs();
+        verify(selectionModelMock1, times(2)).getCustomLogs();
         verify(selectionModelMock1, times(2)).getFieldSettings();
         verify(selectionModelMock1, times(1)).getRepeatingLoglinesPercent();
     }
@@ -414,126 +427,120 @@ public class BatchServiceTest {
 
         verify(selectionModelMock2, times(1)).getBatchSettings();
         verify(selectionModelMock2, times(1)).getJobId();
-        verify(selectionModelMock2, times(4)).getCustomLogs();
-        verify(selectionModelMock2, times(3)).getFieldSettings();
-        verify(selectionModelMock2, times(2)).getRepeatingLoglinesPercent();
+        verify(selectionModelMock2, times(2)).getCustomLogs();
+        verify(selectionModelMock2, times(2)).getFieldSettings();
+        verify(selectionModelMock2, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
     public void test_batchMode_testCorrectLogServiceCallsNoRepeatingLogs_23() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         batchService = new BatchService(logService);
         batchService.batchMode(selectionModel0, batchTracker);
 
         verify(logService, times(0))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
         verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
     }
 
     @Test
     public void test_batchMode_testCorrectLogServiceCallsNoRepeatingLogs_24() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         batchService = new BatchService(logService);
         batchService.batchMode(selectionModel1, batchTracker);
 
         verify(logService, times(1))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
-        verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
         verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
     }
 
     @Test
     public void test_batchMode_testCorrectLogServiceCallsNoRepeatingLogs_25() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         batchService = new BatchService(logService);
         batchService.batchMode(selectionModel2, batchTracker);
 
         verify(logService, times(2))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
         verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
     }
 
     @Test
     public void test_batchMode_testCorrectLogServiceCallsRepeatingLogs_26() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
         selectionModel0.setRepeatingLoglinesPercent(1);
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         batchService = new BatchService(logService);
         batchService.batchMode(selectionModel0, batchTracker);
 
         verify(logService, times(0))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
-        verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
         verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
     }
 
     @Test
     public void test_batchMode_testCorrectLogServiceCallsRepeatingLogs_27() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
         selectionModel0.setRepeatingLoglinesPercent(1);
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         batchService = new BatchService(logService);
         batchService.batchMode(selectionModel1, batchTracker);
 
         verify(logService, times(1))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
         verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
     }
 
     @Test
     public void test_batchMode_testCorrectLogServiceCallsRepeatingLogs_28() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
         selectionModel0.setRepeatingLoglinesPercent(1);
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         batchService = new BatchService(logService);
         batchService.batchMode(selectionModel0, batchTracker);
 
         verify(logService, times(0))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
-        verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
         verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
     }
 
     @Test
@@ -543,6 +550,23 @@ public class BatchServiceTest {
         assertTrue(jobIdActual.matches(uuidRegex), "Job id format should be a UUID");
     }
 
+    @Test
+    public void test_batchMode_counterBasedFileShouldHaveAllLogs_30() throws IOException, ParseException {
+        selectionModel0.setBatchSettings(new BatchSettings(1000));
+        selectionModel0.setRepeatingLoglinesPercent(0.3);
+        selectionModel0.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, true, false));
+
+        batchService.batchMode(selectionModel0, batchTracker);
+
+        String fileName = batchModeFolder + batchTracker.getJobId() + ".json";
+        try (FileReader reader = new FileReader(fileName)) {
+            JSONArray actual = (JSONArray) new JSONParser().parse(reader);
+            assertEquals(1000, actual.size(), "File should contain every log line");
+        }
+        assertEquals(1000, batchTracker.getLogCount(), "Log count in batch tracker should be correct");
+        assertEquals(JobStatus.COMPLETED, batchTracker.getStatus(), "Status should be COMPLETED");
+    }
+
     private SelectionModel createSelectionModel(BatchSettings batchSettings, double repeatingLogLinesPercentage) {
         SelectionModel selectionModel = mock(SelectionModel.class);
 
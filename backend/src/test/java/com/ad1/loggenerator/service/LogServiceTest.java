@@ -1,18 +1,51 @@
 package com.ad1.loggenerator.service;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import com.ad1.loggenerator.benchmark.SerializerBenchmark;
+import com.ad1.loggenerator.exception.InvalidSettingsException;
+import com.ad1.loggenerator.generation.CompileContext;
+import com.ad1.loggenerator.generation.FieldGenerator;
+import com.ad1.loggenerator.generation.FieldWriter;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.GenerationPlan;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
+import com.ad1.loggenerator.generation.LineLayout;
+import com.ad1.loggenerator.generation.LongFieldWriter;
+import com.ad1.loggenerator.generation.MalwareInjector;
+import com.ad1.loggenerator.generation.PlanSchedule;
+import com.ad1.loggenerator.generation.RandomSource;
+import com.ad1.loggenerator.generation.fields.ProcessingTimeGenerator;
+import com.ad1.loggenerator.generation.fields.ValueListWriter;
+import com.ad1.loggenerator.model.ArrivalDistribution;
 import com.ad1.loggenerator.model.CustomLog;
+import com.ad1.loggenerator.model.EventClockSettings;
 import com.ad1.loggenerator.model.FieldSettings;
+import com.ad1.loggenerator.model.FilePopulationSettings;
+import com.ad1.loggenerator.model.GenerationSettings;
+import com.ad1.loggenerator.model.LineTemplate;
+import com.ad1.loggenerator.model.LineTemplateFormat;
+import com.ad1.loggenerator.model.MalwareSettings;
+import com.ad1.loggenerator.model.ProcessingTimeDistribution;
+import com.ad1.loggenerator.model.ReorderSettings;
+import com.ad1.loggenerator.model.RepeatDistance;
+import com.ad1.loggenerator.model.RepeatWindowSettings;
+import com.ad1.loggenerator.model.SchemaVersion;
 import com.ad1.loggenerator.model.SelectionModel;
+import com.ad1.loggenerator.model.SessionSettings;
+import com.ad1.loggenerator.model.StreamSettings;
 import com.ad1.loggenerator.model.fieldsettingsmodels.BusinessGuid;
 import com.ad1.loggenerator.model.fieldsettingsmodels.CurrentUserId;
 import com.ad1.loggenerator.model.fieldsettingsmodels.Disposition;
@@ -22,14 +55,23 @@ import com.ad1.loggenerator.model.fieldsettingsmodels.ProcessingTime;
 import com.ad1.loggenerator.model.fieldsettingsmodels.TimeStamp;
 import com.ad1.loggenerator.service.implementation.LogService;
 
+import com.sun.management.ThreadMXBean;
+
+import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 
 public class LogServiceTest {
     
     private LogService logService;
     private final String uuidRegex = "^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$";
+    private final String sha256Regex = "^[0-9a-f]{64}$";
     private final String windowsFilePathRegex = "^[A-z]:\\\\([A-z0-9-_+\\s\\(\\)]+\\\\)*([A-z0-9-_+]+\\.([A-z]+))$";
     private final String unixFilePathRegex = "^\\/([A-z0-9-_+]+\\/)*([A-z0-9-_+]+\\.([A-z]+))$";
     private JSONObject logLineJSON;
@@ -433,6 +475,1449 @@ public class LogServiceTest {
         );
     }
 
+    @Test
+    public void test_generateLogLine_singleLineShouldNotDefineSerializerClasses_10() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        Set<String> masterFieldList = new HashSet<String>();
+        LogService spiedLogService = spy(logService);
+
+        JSONObject actual = spiedLogService.generateLogLine(selectionModel, masterFieldList);
+
+        assertTrue(actual.containsKey("timeStamp"), "A single line should still be generated");
+        verify(spiedLogService).compilePlan(selectionModel, masterFieldList, false);
+        verify(spiedLogService, never()).compilePlan(selectionModel, masterFieldList, true);
+    }
+
+    @Test
+    public void test_validatePlan_malformedTemplateShouldBeRejected_1() {
+        selectionModel.setLineTemplate(new LineTemplate(LineTemplateFormat.CUSTOM, "${timeStamp} ${processingTime"));
+
+        InvalidSettingsException exception = assertThrows(InvalidSettingsException.class,
+                () -> logService.validatePlan(selectionModel));
+
+        assertTrue(exception.getMessage().contains("line template"), "The template error should be reported");
+    }
+
+    @Test
+    public void test_validatePlan_mismatchedWeightsShouldBeRejected_2() {
+        List<Long> values = new ArrayList<Long>();
+        values.add(Long.valueOf(1));
+        values.add(Long.valueOf(2));
+        List<Double> weights = new ArrayList<Double>();
+        weights.add(1.0);
+        selectionModel.getFieldSettings().getProcessingTime().setValues(values);
+        selectionModel.getFieldSettings().getProcessingTime().setWeights(weights);
+
+        assertThrows(InvalidSettingsException.class, () -> logService.validatePlan(selectionModel),
+                "Weights should be given for every value");
+    }
+
+    @Test
+    public void test_validatePlan_unsortedSchemaVersionCdfShouldBeRejected_3() {
+        ProcessingTime processingTime = new ProcessingTime(true, new ArrayList<Long>());
+        processingTime.setDistribution(ProcessingTimeDistribution.EMPIRICAL);
+        processingTime.setEmpiricalValues(List.of(Long.valueOf(10), Long.valueOf(20)));
+        processingTime.setEmpiricalCdf(List.of(0.9, 0.5));
+        FieldSettings fieldSettings = selectionModel.getFieldSettings();
+        FieldSettings versionFieldSettings = new FieldSettings(fieldSettings.getTimeStamp(), processingTime,
+                fieldSettings.getCurrentUserID(), fieldSettings.getBusinessGUID(), fieldSettings.getPathToFile(),
+                fieldSettings.getFileSHA256(), fieldSettings.getDisposition());
+        StreamSettings streamSettings = new StreamSettings("", 10, false);
+        streamSettings.setSchemaVersions(List.of(new SchemaVersion(60, versionFieldSettings, null)));
+        selectionModel.setStreamSettings(streamSettings);
+        selectionModel.setMode("Stream");
+
+        assertThrows(InvalidSettingsException.class, () -> logService.validatePlan(selectionModel),
+                "The schema versions of a stream should be compiled too");
+    }
+
+    @Test
+    public void test_validatePlan_validSettingsShouldBeAccepted_4() {
+        selectionModel.setLineTemplate(new LineTemplate(LineTemplateFormat.SYSLOG, null));
+
+        assertDoesNotThrow(() -> logService.validatePlan(selectionModel));
+    }
+
+    @Test
+    public void test_validatePlan_negativeTargetLineSizeShouldBeRejected_5() {
+        Map<String, Object> messageSettings = new HashMap<String, Object>();
+        messageSettings.put("include", true);
+        messageSettings.put("values", new ArrayList<String>());
+        messageSettings.put("targetLineSize", -1);
+        selectionModel.getFieldSettings().getAdditionalFields().put("message", messageSettings);
+
+        InvalidSettingsException exception = assertThrows(InvalidSettingsException.class,
+                () -> logService.validatePlan(selectionModel));
+
+        assertEquals("targetLineSize must be greater than 0", exception.getMessage());
+    }
+
+    @Test
+    public void test_validatePlan_negativeEmpiricalLineSizeShouldBeRejected_6() {
+        Map<String, Object> messageSettings = new HashMap<String, Object>();
+        messageSettings.put("include", true);
+        messageSettings.put("values", new ArrayList<String>());
+        messageSettings.put("lineSizes", List.of(-100, 200));
+        messageSettings.put("lineSizeCdf", List.of(0.5, 1.0));
+        selectionModel.getFieldSettings().getAdditionalFields().put("message", messageSettings);
+
+        InvalidSettingsException exception = assertThrows(InvalidSettingsException.class,
+                () -> logService.validatePlan(selectionModel));
+
+        assertEquals("lineSizes[0].<list element> must be greater than 0", exception.getMessage());
+    }
+
+    @Test
+    public void test_compilePlan_baseLayoutShouldBePaddedWithMasterFields_1() {
+        selectionModel.getFieldSettings().getDisposition().setInclude(false);
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        Set<String> masterFieldList = new HashSet<String>();
+        masterFieldList.add("field1");
+        masterFieldList.add("timeStamp");
+
+        GenerationPlan plan = logService.compilePlan(selectionModel, masterFieldList);
+
+        JSONObject actual = logService.generateLogLine(plan, plan.newContext());
+
+        Set<String> expected = new HashSet<String>();
+        expected.add("timeStamp");
+        expected.add("processingTime");
+        expected.add("currentUserID");
+        expected.add("businessGUID");
+        expected.add("pathToFile");
+        expected.add("fileSHA256");
+        expected.add("field1");
+
+        assertEquals(expected, actual.keySet(), "Base layout should contain our fields and padded master fields");
+        assertNull(actual.get("field1"), "Padded master field should be null");
+        assertEquals(1L, actual.get("timeStamp"), "Generated field should not be padded");
+    }
+
+    @Test
+    public void test_compilePlan_customLogLayoutShouldOverrideGeneratedFields_2() {
+        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put("timeStamp", 5);
+        fields.put("field1", "value1");
+        customLogs.add(new CustomLog(Double.valueOf(1), fields));
+        selectionModel.setCustomLogs(customLogs);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+
+        assertEquals(1, plan.getCustomLogLayouts().length, "Plan should have one custom log layout");
+        RandomSource random = new RandomSource(7);
+        for (int i = 0; i < 1000; i++) {
+            assertSame(
+                plan.getCustomLogLayouts()[0],
+                plan.chooseLayout(random),
+                "Custom log with 100% frequency should always be chosen"
+            );
+        }
+
+        JSONObject actual = logService.generateLogLine(plan, plan.newContext());
+
+        assertEquals(5, actual.get("timeStamp"), "Custom log value should override generated value");
+        assertEquals("value1", actual.get("field1"), "Custom log field should be included");
+    }
+
+    @Test
+    public void test_compilePlan_excludedFieldsShouldBeRemovedFromCustomLogs_3() {
+        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put("disposition", 1);
+        customLogs.add(new CustomLog(Double.valueOf(0), fields));
+        selectionModel.setCustomLogs(customLogs);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+
+        RandomSource random = new RandomSource(7);
+        for (int i = 0; i < 1000; i++) {
+            assertSame(plan.getBaseLayout(), plan.chooseLayout(random),
+                    "Custom log with 0% frequency should not be chosen");
+        }
+        assertFalse(
+            logService.generateLogLine(plan, plan.newContext()).containsKey("disposition"),
+            "Excluded field should not be in the custom log layout"
+        );
+    }
+
+    @Test
+    public void test_compilePlan_seededPlanShouldRepeatValues_4() {
+        selectionModel.getFieldSettings().getDisposition().setInclude(true);
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context0 = plan.newContext();
+        GenerationContext context1 = plan.newContext();
+
+        for (int i = 0; i < 100; i++) {
+            JSONObject line0 = logService.generateLogLine(plan, context0);
+            JSONObject line1 = logService.generateLogLine(plan, context1);
+            assertEquals(line0.get("processingTime"), line1.get("processingTime"), "Same seed should repeat values");
+            assertEquals(line0.get("disposition"), line1.get("disposition"), "Same seed should repeat values");
+        }
+    }
+
+    @Test
+    public void test_writeLogLine_encodedLineShouldMatchGeneratedLine_1() throws ParseException {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.writeLogLine(plan, plan.newContext(), encoder);
+
+        JSONObject expected = logService.generateLogLine(plan, plan.newContext());
+        Object actual = new JSONParser().parse(encoder.toString());
+
+        assertEquals(expected, actual, "Encoded line should have the same fields and values");
+    }
+
+    @Test
+    public void test_writeLogLine_customLogValuesShouldBeEscaped_2() throws ParseException {
+        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put("quote\"field", "line1\nline2\t\"quoted\" \\ caf\u00e9 \u00001");
+        fields.put("nested", List.of(1, 2.5, true));
+        customLogs.add(new CustomLog(Double.valueOf(1), fields));
+        selectionModel.setCustomLogs(customLogs);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.writeLogLine(plan, plan.newContext(), encoder);
+
+        JSONObject actual = (JSONObject) new JSONParser().parse(encoder.toString());
+
+        assertEquals(fields.get("quote\"field"), actual.get("quote\"field"), "Escaped value should be decoded unchanged");
+        assertEquals("[1,2.5,true]", actual.get("nested").toString(), "Nested values should be encoded as an array");
+    }
+
+    @Test
+    public void test_compilePlan_customLogsShouldBeChosenByFrequency_5() {
+        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+        customLogs.add(new CustomLog(Double.valueOf(0.2), new HashMap<String, Object>()));
+        customLogs.add(new CustomLog(Double.valueOf(0.3), new HashMap<String, Object>()));
+        selectionModel.setCustomLogs(customLogs);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        RandomSource random = new RandomSource(7);
+        int[] counts = new int[3];
+
+        for (int i = 0; i < 100000; i++) {
+            LineLayout layout = plan.chooseLayout(random);
+            if (layout == plan.getCustomLogLayouts()[0]) {
+                counts[0]++;
+            } else if (layout == plan.getCustomLogLayouts()[1]) {
+                counts[1]++;
+            } else {
+                counts[2]++;
+            }
+        }
+
+        assertEquals(20000, counts[0], 1000, "First custom log should be chosen 20% of the time");
+        assertEquals(30000, counts[1], 1000, "Second custom log should be chosen 30% of the time");
+        assertEquals(50000, counts[2], 1000, "No custom log should be chosen 50% of the time");
+    }
+
+    @Test
+    public void test_compilePlan_frequenciesAboveOneShouldBeCutOff_6() {
+        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+        customLogs.add(new CustomLog(Double.valueOf(0.8), new HashMap<String, Object>()));
+        customLogs.add(new CustomLog(Double.valueOf(0.8), new HashMap<String, Object>()));
+        customLogs.add(new CustomLog(Double.valueOf(0.5), new HashMap<String, Object>()));
+        selectionModel.setCustomLogs(customLogs);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        RandomSource random = new RandomSource(7);
+        int[] counts = new int[2];
+
+        for (int i = 0; i < 100000; i++) {
+            LineLayout layout = plan.chooseLayout(random);
+            assertNotSame(plan.getCustomLogLayouts()[2], layout, "Custom log past a total of 1 should not be chosen");
+            assertNotSame(plan.getBaseLayout(), layout, "Random log should not be chosen");
+            counts[layout == plan.getCustomLogLayouts()[0] ? 0 : 1]++;
+        }
+
+        assertEquals(80000, counts[0], 1000, "First custom log should be chosen 80% of the time");
+        assertEquals(20000, counts[1], 1000, "Second custom log should get what is left of a total of 1");
+    }
+
+    @Test
+    public void test_compilePlan_customLogFieldsShouldBePreEncoded_7() throws ParseException {
+        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put("timeStamp", 5);
+        fields.put("field1", "value1");
+        customLogs.add(new CustomLog(Double.valueOf(1), fields));
+        selectionModel.setCustomLogs(customLogs);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        LineLayout layout = plan.getCustomLogLayouts()[0];
+
+        assertEquals(5, layout.getGeneratedSlots().length, "Only fields without a custom value should be generated");
+        assertEquals(6, layout.getFragments().length, "Each generated field should follow a fragment");
+
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.writeLogLine(plan, plan.newContext(), encoder);
+        JSONObject actual = (JSONObject) new JSONParser().parse(encoder.toString());
+
+        assertEquals(5L, actual.get("timeStamp"), "Custom log value should be spliced into the line");
+        assertEquals("value1", actual.get("field1"), "Custom log field should be spliced into the line");
+        assertEquals(7, actual.size(), "Line should contain constant and generated fields");
+    }
+
+    @Test
+    public void test_compilePlan_fileSHA256ShouldBeDrawnFromPool_8() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.getFieldSettings().getFileSHA256().setPoolSize(3);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        Set<Object> hashes = new HashSet<Object>();
+
+        for (int i = 0; i < 1000; i++) {
+            Object hash = logService.generateLogLine(plan, context).get("fileSHA256");
+            assertTrue(hash.toString().matches(sha256Regex), "Pooled SHA256 should have correct format for SHA256");
+            hashes.add(hash);
+        }
+
+        assertEquals(3, hashes.size(), "Only hashes from the pool should be generated");
+    }
+
+    @Test
+    public void test_writeLogLines_rangesShouldMatchWholeJob_3() {
+        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put("field1", "value1");
+        customLogs.add(new CustomLog(Double.valueOf(0.3), fields));
+        selectionModel.setCustomLogs(customLogs);
+        selectionModel.setJobId("job1");
+        selectionModel.setRepeatingLoglinesPercent(0.4);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, true, false));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder whole = new JsonLineEncoder();
+        logService.writeLogLines(plan, plan.newContext(), 0, 200, whole);
+
+        JsonLineEncoder ranges = new JsonLineEncoder();
+        logService.writeLogLines(plan, plan.newContext(), 0, 37, ranges);
+        logService.writeLogLines(plan, plan.newContext(), 37, 121, ranges);
+        logService.writeLogLines(plan, plan.newContext(), 121, 200, ranges);
+
+        assertEquals(whole.toString(), ranges.toString(), "Ranges generated separately should match the whole job");
+        assertEquals(200, whole.toString().split(",\n").length, "Every line should be written");
+    }
+
+    @Test
+    public void test_writeLogLines_lineShouldDependOnJobId_4() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, true, false));
+
+        selectionModel.setJobId("job1");
+        GenerationPlan plan1 = logService.compilePlan(selectionModel);
+        selectionModel.setJobId("job2");
+        GenerationPlan plan2 = logService.compilePlan(selectionModel);
+
+        JsonLineEncoder encoder1 = new JsonLineEncoder();
+        JsonLineEncoder encoder2 = new JsonLineEncoder();
+        logService.writeLogLines(plan1, plan1.newContext(), 5, 6, encoder1);
+        logService.writeLogLines(plan2, plan2.newContext(), 5, 6, encoder2);
+
+        assertNotEquals(encoder1.toString(), encoder2.toString(), "Jobs with different ids should differ");
+    }
+
+    @Test
+    public void test_writeLogLines_clockRangesShouldMatchWholeJob_5() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setJobId("job1");
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, true, false));
+        selectionModel.getFieldSettings().getTimeStamp()
+                .setClock(new EventClockSettings(Long.valueOf(1000), 10, ArrivalDistribution.POISSON, 1));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder whole = new JsonLineEncoder();
+        logService.writeLogLines(plan, plan.newContext(), 0, 100, whole);
+
+        JsonLineEncoder ranges = new JsonLineEncoder();
+        logService.writeLogLines(plan, plan.newContext(), 0, 50, ranges);
+        logService.writeLogLines(plan, plan.newContext(), 50, 100, ranges);
+
+        assertEquals(whole.toString(), ranges.toString(), "Clock timestamps should only depend on the line index");
+    }
+
+    @Test
+    public void test_generate_blocksShouldMatchOneCall_1() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setRepeatingLoglinesPercent(0.5);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder whole = new JsonLineEncoder();
+        logService.generate(plan, plan.newContext(), 100, whole);
+
+        // the sink is emptied between calls, so repeats have to carry over
+        GenerationContext context = plan.newContext();
+        JsonLineEncoder block = new JsonLineEncoder();
+        StringBuilder blocks = new StringBuilder();
+        for (int written = 0; written < 100; written += 7) {
+            block.reset();
+            logService.generate(plan, context, Math.min(7, 100 - written), block);
+            blocks.append(block.toString());
+        }
+
+        assertEquals(whole.toString(), blocks.toString(), "Blocks should match the lines of one call");
+        assertEquals(100, whole.toString().split(",\n").length, "Every line should be written");
+    }
+
+    @Test
+    public void test_generate_counterBasedBlocksShouldMatchRanges_2() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setJobId("job1");
+        selectionModel.setRepeatingLoglinesPercent(0.5);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, true, false));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder ranges = new JsonLineEncoder();
+        logService.writeLogLines(plan, plan.newContext(), 0, 50, ranges);
+
+        GenerationContext context = plan.newContext();
+        JsonLineEncoder blocks = new JsonLineEncoder();
+        for (int i = 0; i < 5; i++) {
+            logService.generate(plan, context, 10, blocks);
+        }
+
+        assertEquals(ranges.toString(), blocks.toString(), "Blocks should match the lines of the job");
+    }
+
+    @Test
+    public void test_generate_newArrayShouldStartWithoutDelimiter_3() throws ParseException {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setRepeatingLoglinesPercent(0.5);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.generate(plan, context, 10, encoder);
+
+        encoder.reset();
+        encoder.writeByte('[');
+        context.startArray();
+        logService.generate(plan, context, 10, encoder);
+        encoder.writeByte(']');
+
+        List<?> actual = (List<?>) new JSONParser().parse(encoder.toString());
+        assertEquals(10, actual.size(), "New array should be valid JSON with every line");
+    }
+
+    @Test
+    public void test_compilePlan_specializedLinesShouldMatchInterpreted_12() {
+        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put("field1", "value1");
+        fields.put("processingTime", 5);
+        customLogs.add(new CustomLog(Double.valueOf(0.3), fields));
+        selectionModel.setCustomLogs(customLogs);
+        selectionModel.setRepeatingLoglinesPercent(0.2);
+
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+        GenerationPlan specialized = logService.compilePlan(selectionModel);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, true));
+        GenerationPlan interpreted = logService.compilePlan(selectionModel);
+
+        assertTrue(specialized.getBaseLayout().getSpecialized().getClass().isHidden(),
+                "Specialized layouts should use a hidden serializer class");
+        assertNull(interpreted.getBaseLayout().getSpecialized(), "Interpreted layouts should walk the slots");
+
+        JsonLineEncoder expected = new JsonLineEncoder();
+        logService.generate(interpreted, interpreted.newContext(), 200, expected);
+        JsonLineEncoder actual = new JsonLineEncoder();
+        logService.generate(specialized, specialized.newContext(), 200, actual);
+
+        assertEquals(expected.toString(), actual.toString(), "Specialized lines should match interpreted lines");
+    }
+
+    @Test
+    public void test_compilePlan_clockTimeStampsShouldNotDecrease_9() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.getFieldSettings().getTimeStamp()
+                .setClock(new EventClockSettings(Long.valueOf(1000), 50, ArrivalDistribution.BURSTY, 1));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        long previous = 1000;
+
+        for (int i = 0; i < 10000; i++) {
+            long timeStamp = (Long) logService.generateLogLine(plan, context).get("timeStamp");
+            assertTrue(timeStamp >= previous, "Timestamps should never go back in time");
+            previous = timeStamp;
+        }
+    }
+
+    @Test
+    public void test_compilePlan_clockShouldKeepEventRate_10() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+        selectionModel.getFieldSettings().getTimeStamp()
+                .setClock(new EventClockSettings(Long.valueOf(1000), 100, null, 0));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        for (int i = 0; i < 100000; i++) {
+            logService.generateLogLine(plan, context);
+        }
+
+        // 100000 events at 100 per second should take about 1000 seconds
+        double elapsed = (context.getClock().getEventTimeNanos() / 1e9) - 1000;
+        assertEquals(1000, elapsed, 30, "Average gap should match the event rate");
+    }
+
+    @Test
+    public void test_compilePlan_clockSpeedUpShouldStretchEventTime_11() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+        selectionModel.getFieldSettings().getTimeStamp()
+                .setClock(new EventClockSettings(Long.valueOf(1000), 100, ArrivalDistribution.UNIFORM, 10));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        for (int i = 0; i < 10000; i++) {
+            logService.generateLogLine(plan, context);
+        }
+
+        // 10000 events at 100 per second sped up 10 times should span about 1000 seconds
+        double elapsed = (context.getClock().getEventTimeNanos() / 1e9) - 1000;
+        assertEquals(1000, elapsed, 30, "Speed up should stretch the event time");
+    }
+
+    @Test
+    public void test_compilePlan_registeredFieldShouldBeGenerated_13() {
+        // a new field reusing the settings type of an id field
+        logService.getFieldGenerators().register(new FieldGenerator<CurrentUserId>() {
+            @Override
+            public String getName() {
+                return "hostName";
+            }
+
+            @Override
+            public Class<CurrentUserId> getSettingsType() {
+                return CurrentUserId.class;
+            }
+
+            @Override
+            public FieldWriter compile(CurrentUserId settings, CompileContext context) {
+                return new ValueListWriter(settings.getValues());
+            }
+        });
+        // settings of additional fields arrive from the request as JSON maps
+        Map<String, Object> hostNameSettings = new HashMap<String, Object>();
+        hostNameSettings.put("include", true);
+        hostNameSettings.put("values", List.of("host-1", "host-2"));
+        selectionModel.getFieldSettings().getAdditionalFields().put("hostName", hostNameSettings);
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+
+        for (int i = 0; i < 100; i++) {
+            JSONObject logLine = logService.generateLogLine(plan, context);
+            assertThat("Registered field should use its settings", List.of("host-1", "host-2"),
+                    hasItem(logLine.get("hostName")));
+        }
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.writeLogLine(plan, context, encoder);
+        assertTrue(encoder.toString().contains("\"hostName\":\"host-"), "Registered field should be written");
+    }
+
+    @Test
+    public void test_compilePlan_malwareShouldBeInjectedAtEventRate_14() {
+        List<Integer> dispositions = new ArrayList<Integer>();
+        dispositions.add(1);
+        selectionModel.getFieldSettings().setDisposition(new Disposition(true, dispositions));
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+        MalwareSettings malwareSettings = new MalwareSettings(true, false, true);
+        malwareSettings.setEventRate(0.05);
+        malwareSettings.setBurstLength(20);
+        selectionModel.setMalwareSettings(malwareSettings);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        int detections = 0;
+        for (int i = 0; i < 100000; i++) {
+            Object disposition = logService.generateLogLine(plan, context).get("disposition");
+            if (Integer.valueOf(MalwareInjector.MALICIOUS).equals(disposition)) {
+                detections++;
+            }
+        }
+
+        assertEquals(0.05, detections / 100000.0, 0.01, "Detections should match the event rate");
+    }
+
+    @Test
+    public void test_compilePlan_malwareOutbreakShouldSpreadOneSignature_15() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(7), false, false, false));
+        MalwareSettings malwareSettings = new MalwareSettings(true, true, true);
+        malwareSettings.setEventRate(0.1);
+        malwareSettings.setBurstLength(50);
+        selectionModel.setMalwareSettings(malwareSettings);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        Map<Long, Object> windowPaths = new HashMap<Long, Object>();
+        Map<Object, Object> pathHashes = new HashMap<Object, Object>();
+        int detections = 0;
+
+        for (int i = 0; i < 20000; i++) {
+            JSONObject logLine = logService.generateLogLine(plan, context);
+            Object path = logLine.get("pathToFile");
+            if (!((String) path).contains("_")) {
+                continue;
+            }
+            detections++;
+            assertEquals(path, windowPaths.computeIfAbsent(context.getLineIndex() / 50, window -> path),
+                    "Detections of an outbreak should share the signature");
+            Object hash = logLine.get("fileSHA256");
+            assertEquals(pathHashes.computeIfAbsent(path, key -> hash), hash,
+                    "A signature should always have the same file SHA256");
+        }
+
+        assertTrue(detections > 0, "Malware should be injected");
+        assertTrue(windowPaths.size() < detections / 5, "Detections should come in bursts");
+    }
+
+    @Test
+    public void test_compilePlan_customTemplateShouldRenderTextLines_16() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setLineTemplate(new LineTemplate(LineTemplateFormat.CUSTOM,
+                "${timeStamp} user=${currentUserID} again=${currentUserID} missing=${field1} $ {x}"));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.generate(plan, plan.newContext(), 3, encoder);
+
+        String[] lines = encoder.toString().split("\n");
+        assertEquals(3, lines.length, "Template lines should be separated by new lines");
+        for (String line : lines) {
+            String[] parts = line.split(" ");
+            assertEquals("1", parts[0], "Placeholder should be replaced by the value");
+            assertTrue(parts[1].substring("user=".length()).matches(uuidRegex), "Strings should not be quoted");
+            assertEquals(parts[1].substring("user=".length()), parts[2].substring("again=".length()),
+                    "A field used twice should have the same value");
+            assertEquals("missing=-", parts[3], "Missing fields should be written as -");
+            assertEquals("$ {x}", line.substring(line.indexOf("$ ")), "Text that is not a placeholder should be kept");
+        }
+    }
+
+    @Test
+    public void test_compilePlan_syslogTemplateShouldFormatAndEscapeValues_17() {
+        List<Long> timeStamps = new ArrayList<Long>();
+        timeStamps.add(Long.valueOf(1680698096));
+        selectionModel.getFieldSettings().setTimeStamp(new TimeStamp(true, timeStamps));
+        List<String> paths = new ArrayList<String>();
+        paths.add("C:\\\\tmp\\\\a\"b].exe");
+        selectionModel.getFieldSettings().setPathToFile(new PathToFile(true, paths));
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setLineTemplate(new LineTemplate(LineTemplateFormat.SYSLOG, null));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.writeLogLine(plan, plan.newContext(), encoder);
+        String line = encoder.toString();
+
+        assertTrue(line.startsWith("<14>1 2023-04-05T12:34:56Z - loggenerator - event [event@32473 "),
+                "Syslog header should have an RFC 3339 timestamp");
+        assertTrue(line.contains("pathToFile=\"C:\\\\tmp\\\\a\\\"b\\].exe\""),
+                "Structured data values should be escaped");
+        assertTrue(line.contains("disposition=\"-\"]"), "Excluded fields should be written as -");
+    }
+
+    @Test
+    public void test_compilePlan_apacheTemplateShouldUseCommonLogTime_18() {
+        List<Long> timeStamps = new ArrayList<Long>();
+        timeStamps.add(Long.valueOf(1680698096));
+        selectionModel.getFieldSettings().setTimeStamp(new TimeStamp(true, timeStamps));
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setLineTemplate(new LineTemplate(LineTemplateFormat.APACHE, null));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.writeLogLine(plan, plan.newContext(), encoder);
+
+        assertTrue(encoder.toString().contains(" [05/Apr/2023:12:34:56 +0000] \"GET C:\\\\"),
+                "Apache lines should have a common log format time");
+    }
+
+    @Test
+    public void test_compilePlan_specializedTemplateLinesShouldMatchInterpreted_19() {
+        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put("processingTime", 5);
+        customLogs.add(new CustomLog(Double.valueOf(0.3), fields));
+        selectionModel.setCustomLogs(customLogs);
+        selectionModel.getFieldSettings().getDisposition().setInclude(true);
+        selectionModel.setLineTemplate(new LineTemplate(LineTemplateFormat.CEF, null));
+
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+        GenerationPlan specialized = logService.compilePlan(selectionModel);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, true));
+        GenerationPlan interpreted = logService.compilePlan(selectionModel);
+
+        JsonLineEncoder expected = new JsonLineEncoder();
+        logService.generate(interpreted, interpreted.newContext(), 200, expected);
+        JsonLineEncoder actual = new JsonLineEncoder();
+        logService.generate(specialized, specialized.newContext(), 200, actual);
+
+        assertEquals(expected.toString(), actual.toString(), "Specialized lines should match interpreted lines");
+        assertTrue(actual.toString().startsWith("CEF:0|ad1|loggenerator|1.0|file-event|File event|"),
+                "Lines should have the CEF header");
+    }
+
+    @Test
+    public void test_compilePlan_patchedLinesShouldHaveSameValues_20() throws ParseException {
+        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+        Map<String, Object> fields = new HashMap<String, Object>();
+        fields.put("disposition", 4);
+        customLogs.add(new CustomLog(Double.valueOf(0.3), fields));
+        selectionModel.setCustomLogs(customLogs);
+        selectionModel.setRepeatingLoglinesPercent(0.2);
+        selectionModel.getFieldSettings().getDisposition().setInclude(true);
+
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationSettings patchedSettings = new GenerationSettings(Long.valueOf(42), false, false, false);
+        patchedSettings.setPatched(true);
+        selectionModel.setGenerationSettings(patchedSettings);
+        GenerationPlan patchedPlan = logService.compilePlan(selectionModel);
+
+        JsonLineEncoder expected = new JsonLineEncoder();
+        logService.generate(plan, plan.newContext(), 300, expected);
+        JsonLineEncoder actual = new JsonLineEncoder();
+        GenerationContext patchedContext = patchedPlan.newContext();
+        logService.generate(patchedPlan, patchedContext, 150, actual);
+        logService.generate(patchedPlan, patchedContext, 150, actual);
+
+        assertTrue(patchedPlan.isPatched(), "Plan should be patched");
+        JSONParser parser = new JSONParser();
+        assertEquals(parser.parse("[" + expected + "]"), parser.parse("[" + actual + "]"),
+                "Patched lines should have the same values");
+        assertTrue(actual.size() > expected.size(), "Patched values should be padded");
+    }
+
+    @Test
+    public void test_compilePlan_patchedLinesShouldHaveLayoutLength_21() {
+        selectionModel.getFieldSettings().getTimeStamp().setValues(new ArrayList<Long>());
+        GenerationSettings generationSettings = new GenerationSettings(Long.valueOf(7), false, false, false);
+        generationSettings.setPatched(true);
+        selectionModel.setGenerationSettings(generationSettings);
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.generate(plan, plan.newContext(), 100, encoder);
+
+        int lineLength = plan.getBaseLayout().getPatchLine().length;
+        for (String line : encoder.toString().split(",\n")) {
+            assertEquals(lineLength, line.length(), "Every line should have the length of the patch line");
+        }
+    }
+
+    @Test
+    public void test_compilePlan_templateLinesShouldNotBePatched_22() {
+        GenerationSettings generationSettings = new GenerationSettings(Long.valueOf(7), false, false, false);
+        generationSettings.setPatched(true);
+        selectionModel.setGenerationSettings(generationSettings);
+        selectionModel.setLineTemplate(new LineTemplate(LineTemplateFormat.SYSLOG, null));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+
+        assertFalse(plan.isPatched(), "Template values have no bounded width");
+    }
+
+    @Test
+    public void test_compilePlan_weightedValuesShouldFollowWeights_23() {
+        List<String> userIds = new ArrayList<String>();
+        userIds.add("rare");
+        userIds.add("common");
+        userIds.add("never");
+        CurrentUserId currentUserId = new CurrentUserId(true, userIds);
+        List<Double> weights = new ArrayList<Double>();
+        weights.add(1.0);
+        weights.add(9.0);
+        weights.add(0.0);
+        currentUserId.setWeights(weights);
+        selectionModel.getFieldSettings().setCurrentUserID(currentUserId);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        Map<Object, Integer> counts = new HashMap<Object, Integer>();
+        for (int i = 0; i < 10000; i++) {
+            counts.merge(logService.generateLogLine(plan, context).get("currentUserID"), 1, Integer::sum);
+        }
+
+        assertNull(counts.get("never"), "Values with no weight should never be chosen");
+        assertTrue(counts.get("common") > 8500 && counts.get("common") < 9500,
+                "Values should be chosen in proportion to their weight");
+    }
+
+    @Test
+    public void test_compilePlan_zipfValuesShouldFavourFirstValues_24() {
+        List<Integer> dispositions = new ArrayList<Integer>();
+        for (int i = 1; i <= 4; i++) {
+            dispositions.add(i);
+        }
+        Disposition disposition = new Disposition(true, dispositions);
+        disposition.setZipfExponent(1.0);
+        selectionModel.getFieldSettings().setDisposition(disposition);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        int[] counts = new int[5];
+        for (int i = 0; i < 25000; i++) {
+            counts[((Number) logService.generateLogLine(plan, context).get("disposition")).intValue()]++;
+        }
+
+        // weights 1, 1/2, 1/3 and 1/4 of a total of 25/12
+        assertTrue(counts[1] > 11500 && counts[1] < 12500, "First value should be chosen 48% of the time");
+        assertTrue(counts[1] > counts[2] && counts[2] > counts[3] && counts[3] > counts[4],
+                "Earlier values should be more likely");
+    }
+
+    @Test
+    public void test_compilePlan_processingTimeShouldFollowDistribution_25() {
+        ProcessingTime processingTime = new ProcessingTime(true, new ArrayList<Long>());
+        processingTime.setDistribution(ProcessingTimeDistribution.LOG_NORMAL);
+        processingTime.setScale(200.0);
+        processingTime.setShape(0.5);
+        selectionModel.getFieldSettings().setProcessingTime(processingTime);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        int belowMedian = 0;
+        for (int i = 0; i < 20000; i++) {
+            long value = (Long) logService.generateLogLine(plan, context).get("processingTime");
+            assertTrue(value >= 0, "Processing time should not be negative");
+            if (value < 200) {
+                belowMedian++;
+            }
+        }
+
+        assertTrue(belowMedian > 9600 && belowMedian < 10400,
+                "Half of the processing times should be below the median");
+    }
+
+    @Test
+    public void test_compilePlan_processingTimeShouldFollowEmpiricalCdf_26() {
+        ProcessingTime processingTime = new ProcessingTime(true, new ArrayList<Long>());
+        processingTime.setDistribution(ProcessingTimeDistribution.EMPIRICAL);
+        List<Long> values = new ArrayList<Long>();
+        values.add(Long.valueOf(10));
+        values.add(Long.valueOf(20));
+        values.add(Long.valueOf(5000));
+        processingTime.setEmpiricalValues(values);
+        List<Double> cdf = new ArrayList<Double>();
+        cdf.add(0.0);
+        cdf.add(0.9);
+        cdf.add(1.0);
+        processingTime.setEmpiricalCdf(cdf);
+        selectionModel.getFieldSettings().setProcessingTime(processingTime);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        int fast = 0;
+        for (int i = 0; i < 20000; i++) {
+            long value = (Long) logService.generateLogLine(plan, context).get("processingTime");
+            assertTrue(value >= 10 && value <= 5000, "Processing time should be within the empirical values");
+            if (value <= 20) {
+                fast++;
+            }
+        }
+
+        assertTrue(fast > 17700 && fast < 18300, "90% of the processing times should be up to 20");
+    }
+
+    @Test
+    public void test_compilePlan_sessionLinesShouldBeCorrelated_27() {
+        GenerationSettings generationSettings = new GenerationSettings(Long.valueOf(42), false, false, false);
+        generationSettings.setSessions(new SessionSettings(10, 20, 2));
+        selectionModel.setGenerationSettings(generationSettings);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        Map<Object, Object> tenants = new HashMap<Object, Object>();
+        Map<Object, Set<Object>> files = new HashMap<Object, Set<Object>>();
+        Map<Object, Object> hashes = new HashMap<Object, Object>();
+        for (int i = 0; i < 2000; i++) {
+            JSONObject logLine = logService.generateLogLine(plan, context);
+            Object user = logLine.get("currentUserID");
+            Object tenant = tenants.putIfAbsent(user, logLine.get("businessGUID"));
+            assertTrue(tenant == null || tenant.equals(logLine.get("businessGUID")),
+                    "A user should keep the tenant of the session");
+            Object hash = hashes.putIfAbsent(logLine.get("pathToFile"), logLine.get("fileSHA256"));
+            assertTrue(hash == null || hash.equals(logLine.get("fileSHA256")),
+                    "A file should keep its hash within the session");
+            files.computeIfAbsent(user, key -> new HashSet<Object>()).add(logLine.get("pathToFile"));
+        }
+
+        // 2000 lines of sessions of 20 lines on average
+        assertTrue(tenants.size() > 50 && tenants.size() < 200, "Users should last for a session");
+        for (Set<Object> userFiles : files.values()) {
+            assertTrue(userFiles.size() <= 2, "A session should only use its working set of files");
+        }
+    }
+
+    @Test
+    public void test_compilePlan_filesShouldKeepTheirHash_28() {
+        GenerationSettings generationSettings = new GenerationSettings(Long.valueOf(42), false, false, false);
+        generationSettings.setFilePopulation(new FilePopulationSettings(100, 0.75));
+        selectionModel.setGenerationSettings(generationSettings);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        Map<Object, Object> hashes = new HashMap<Object, Object>();
+        int reused = 0;
+        for (int i = 0; i < 4000; i++) {
+            JSONObject logLine = logService.generateLogLine(plan, context);
+            Object hash = hashes.putIfAbsent(logLine.get("pathToFile"), logLine.get("fileSHA256"));
+            if (hash != null) {
+                assertEquals(hash, logLine.get("fileSHA256"), "A file should keep its hash");
+                reused++;
+            }
+        }
+
+        assertTrue(reused > 2800 && reused < 3200, "Files should be reused at the reuse probability");
+    }
+
+    @Test
+    public void test_compilePlan_sessionFilesShouldComeFromPopulation_29() {
+        GenerationSettings generationSettings = new GenerationSettings(Long.valueOf(42), false, false, false);
+        generationSettings.setFilePopulation(new FilePopulationSettings(10, 0.9));
+        generationSettings.setSessions(new SessionSettings(10, 20, 3));
+        selectionModel.setGenerationSettings(generationSettings);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        Map<Object, Object> hashes = new HashMap<Object, Object>();
+        for (int i = 0; i < 2000; i++) {
+            JSONObject logLine = logService.generateLogLine(plan, context);
+            Object hash = hashes.putIfAbsent(logLine.get("pathToFile"), logLine.get("fileSHA256"));
+            assertTrue(hash == null || hash.equals(logLine.get("fileSHA256")), "A file should keep its hash");
+        }
+
+        assertTrue(hashes.size() < 200, "Sessions should mostly work on files of the population");
+    }
+
+    @Test
+    public void test_generate_repeatsShouldComeFromTheWindow_1() {
+        selectionModel.setRepeatingLoglinesPercent(0.5);
+        GenerationSettings generationSettings = new GenerationSettings(Long.valueOf(42), false, false, false);
+        generationSettings.setRepeatWindow(new RepeatWindowSettings(50, null, RepeatDistance.UNIFORM, null));
+        selectionModel.setGenerationSettings(generationSettings);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.generate(plan, context, 1000, encoder);
+        logService.generate(plan, context, 1000, encoder);
+
+        Map<String, Integer> generated = new HashMap<String, Integer>();
+        int repeats = 0;
+        int distantRepeats = 0;
+        for (String line : encoder.toString().split(",\n")) {
+            Integer original = generated.get(line);
+            if (original == null) {
+                generated.put(line, generated.size());
+                continue;
+            }
+            int distance = generated.size() - original;
+            assertTrue(distance >= 1 && distance <= 50, "Repeats should copy a line of the window");
+            repeats++;
+            if (distance > 1) {
+                distantRepeats++;
+            }
+        }
+
+        assertTrue(repeats > 900 && repeats < 1100, "Half of the lines should be repeats");
+        assertTrue(distantRepeats > repeats * 0.9, "Repeats should be spread over the window");
+    }
+
+    @Test
+    public void test_generate_exponentialRepeatsShouldFavourRecentLines_2() {
+        selectionModel.setRepeatingLoglinesPercent(0.5);
+        GenerationSettings generationSettings = new GenerationSettings(Long.valueOf(42), false, false, false);
+        generationSettings.setRepeatWindow(new RepeatWindowSettings(1000, null, RepeatDistance.EXPONENTIAL, 5.0));
+        selectionModel.setGenerationSettings(generationSettings);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.generate(plan, plan.newContext(), 4000, encoder);
+
+        Map<String, Integer> generated = new HashMap<String, Integer>();
+        long totalDistance = 0;
+        int repeats = 0;
+        for (String line : encoder.toString().split(",\n")) {
+            Integer original = generated.get(line);
+            if (original == null) {
+                generated.put(line, generated.size());
+            } else {
+                totalDistance += generated.size() - original;
+                repeats++;
+            }
+        }
+
+        double meanDistance = (double) totalDistance / repeats;
+        assertTrue(meanDistance > 4 && meanDistance < 6, "Repeats should have the mean distance");
+    }
+
+    @Test
+    public void test_generate_reorderedLinesShouldBeBoundedLate_3() throws ParseException {
+        // a field with the position of the line in the generated stream
+        logService.getFieldGenerators().register(new FieldGenerator<CurrentUserId>() {
+            @Override
+            public String getName() {
+                return "sequence";
+            }
+
+            @Override
+            public Class<CurrentUserId> getSettingsType() {
+                return CurrentUserId.class;
+            }
+
+            @Override
+            public FieldWriter compile(CurrentUserId settings, CompileContext context) {
+                return (LongFieldWriter) line -> line.getLineIndex();
+            }
+        });
+        Map<String, Object> sequenceSettings = new HashMap<String, Object>();
+        sequenceSettings.put("include", true);
+        sequenceSettings.put("values", new ArrayList<String>());
+        selectionModel.getFieldSettings().getAdditionalFields().put("sequence", sequenceSettings);
+        GenerationSettings generationSettings = new GenerationSettings(Long.valueOf(42), false, false, false);
+        generationSettings.setReorder(new ReorderSettings(20, 0.01, 500));
+        selectionModel.setGenerationSettings(generationSettings);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.generate(plan, context, 1500, encoder);
+        logService.generate(plan, context, 1500, encoder);
+
+        JSONArray logLines = (JSONArray) new JSONParser().parse("[" + encoder + "]");
+        assertEquals(3000, logLines.size(), "Every call should write its number of lines");
+        long[] sequences = new long[logLines.size()];
+        Set<Long> written = new HashSet<Long>();
+        for (int i = 0; i < sequences.length; i++) {
+            sequences[i] = (Long) ((JSONObject) logLines.get(i)).get("sequence");
+            assertTrue(written.add(sequences[i]), "Every line should be written once");
+        }
+        int lateLines = 0;
+        int stragglers = 0;
+        for (int i = 0; i < sequences.length; i++) {
+            // lines generated after this line but written before it
+            int lateness = 0;
+            for (int j = 0; j < i; j++) {
+                if (sequences[j] > sequences[i]) {
+                    lateness++;
+                }
+            }
+            assertTrue(lateness <= 500, "Lines should be at most as late as stragglers");
+            if (lateness > 0) {
+                lateLines++;
+            }
+            if (lateness > 20) {
+                stragglers++;
+            }
+        }
+
+        assertTrue(lateLines > 1500, "Most lines should be out of order");
+        assertTrue(stragglers > 0 && stragglers < 100, "About 1% of the lines should be stragglers");
+    }
+
+    @Test
+    public void test_generate_steadyStateShouldNotAllocate_1() {
+        GenerationPlan plan = logService.compilePlan(SerializerBenchmark.createSelectionModel(false));
+        GenerationContext context = plan.newContext();
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        // warm up the buffers of the context and the encoder
+        for (int i = 0; i < 50; i++) {
+            encoder.reset();
+            logService.generate(plan, context, LogService.BLOCK_SIZE, encoder);
+        }
+        int lines = 0;
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 50; i++) {
+            encoder.reset();
+            logService.generate(plan, context, LogService.BLOCK_SIZE, encoder);
+            lines += LogService.BLOCK_SIZE;
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        assertTrue(allocated <= SerializerBenchmark.ALLOCATION_BUDGET * lines,
+                "Lines should allocate at most the budget, allocated " + allocated + " bytes");
+    }
+
+    @Test
+    public void test_compilePlan_fieldsShouldBeNullOrMissingAtTheirRates_30() throws ParseException {
+        selectionModel.getFieldSettings().getTimeStamp().setMissingRate(0.5);
+        selectionModel.getFieldSettings().getProcessingTime().setNullRate(0.2);
+        selectionModel.getFieldSettings().getBusinessGUID().setNullRate(0.1);
+        selectionModel.getFieldSettings().getBusinessGUID().setMissingRate(0.3);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.generate(plan, plan.newContext(), 10000, encoder);
+
+        JSONArray logLines = (JSONArray) new JSONParser().parse("[" + encoder + "]");
+        int missingTimeStamps = 0;
+        int nullProcessingTimes = 0;
+        int nullBusinessGuids = 0;
+        int missingBusinessGuids = 0;
+        for (Object line : logLines) {
+            JSONObject logLine = (JSONObject) line;
+            assertTrue(logLine.containsKey("currentUserID"), "Fields without rates should always be present");
+            if (!logLine.containsKey("timeStamp")) {
+                missingTimeStamps++;
+            }
+            if (logLine.get("processingTime") == null) {
+                nullProcessingTimes++;
+            }
+            if (!logLine.containsKey("businessGUID")) {
+                missingBusinessGuids++;
+            } else if (logLine.get("businessGUID") == null) {
+                nullBusinessGuids++;
+            }
+        }
+
+        assertTrue(missingTimeStamps > 4800 && missingTimeStamps < 5200, "Half of the timestamps should be missing");
+        assertTrue(nullProcessingTimes > 1850 && nullProcessingTimes < 2150,
+                "20% of the processing times should be null");
+        assertTrue(missingBusinessGuids > 2850 && missingBusinessGuids < 3150,
+                "30% of the business ids should be missing");
+        assertTrue(nullBusinessGuids > 900 && nullBusinessGuids < 1100, "10% of the business ids should be null");
+    }
+
+    @Test
+    public void test_compilePlan_smallRatesShouldHoldWithManyOptionalFields_33() {
+        FieldSettings fieldSettings = selectionModel.getFieldSettings();
+        fieldSettings.getTimeStamp().setMissingRate(0.001);
+        fieldSettings.getProcessingTime().setMissingRate(0.01);
+        fieldSettings.getCurrentUserID().setNullRate(0.5);
+        fieldSettings.getBusinessGUID().setNullRate(0.5);
+        fieldSettings.getPathToFile().setNullRate(0.5);
+        fieldSettings.getFileSHA256().setMissingRate(0.5);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        int missingTimeStamps = 0;
+        int missingProcessingTimes = 0;
+        for (int i = 0; i < 200000; i++) {
+            JSONObject logLine = logService.generateLogLine(plan, context);
+            if (!logLine.containsKey("timeStamp")) {
+                missingTimeStamps++;
+            }
+            if (!logLine.containsKey("processingTime")) {
+                missingProcessingTimes++;
+            }
+        }
+
+        assertTrue(missingTimeStamps > 140 && missingTimeStamps < 260,
+                "0.1% of the timestamps should be missing, not " + missingTimeStamps);
+        assertTrue(missingProcessingTimes > 1800 && missingProcessingTimes < 2200,
+                "1% of the processing times should be missing, not " + missingProcessingTimes);
+    }
+
+    @Test
+    public void test_compilePlan_exponentialProcessingTimesShouldMatchTheirQuantiles_34() {
+        ProcessingTime processingTime = new ProcessingTime(true, new ArrayList<Long>());
+        processingTime.setDistribution(ProcessingTimeDistribution.EXPONENTIAL);
+        processingTime.setScale(100.0);
+
+        // mean 100, quantiles -100 ln(1 - p)
+        assertProcessingTimeQuantiles(processingTime, 100, 460.5, 921.0);
+    }
+
+    @Test
+    public void test_compilePlan_logNormalProcessingTimesShouldMatchTheirQuantiles_35() {
+        ProcessingTime processingTime = new ProcessingTime(true, new ArrayList<Long>());
+        processingTime.setDistribution(ProcessingTimeDistribution.LOG_NORMAL);
+        processingTime.setScale(100.0);
+        processingTime.setShape(1.0);
+
+        // mean 100 e^(1/2), quantiles 100 e^z(p)
+        assertProcessingTimeQuantiles(processingTime, 164.9, 1024.1, 4124.0);
+    }
+
+    @Test
+    public void test_compilePlan_paretoProcessingTimesShouldMatchTheirQuantiles_36() {
+        ProcessingTime processingTime = new ProcessingTime(true, new ArrayList<Long>());
+        processingTime.setDistribution(ProcessingTimeDistribution.PARETO);
+        processingTime.setScale(100.0);
+        processingTime.setShape(1.5);
+
+        // mean 100 * 1.5 / 0.5, quantiles 100 / (1 - p)^(1 / 1.5)
+        assertProcessingTimeQuantiles(processingTime, 300, 2154.4, 46416.0);
+    }
+
+    @Test
+    public void test_compilePlan_fastIdsShouldBeVersion4Uuids_37() throws ParseException {
+        JSONArray logLines = generateWrittenLines(100);
+
+        for (Object logLine : logLines) {
+            for (String field : List.of("currentUserID", "businessGUID")) {
+                String actual = (String) ((JSONObject) logLine).get(field);
+
+                assertTrue(actual.matches(uuidRegex), "Fast " + field + " should have UUID format");
+                assertEquals(4, UUID.fromString(actual).version(), "Fast " + field + " should be a version 4 UUID");
+                assertEquals(2, UUID.fromString(actual).variant(), "Fast " + field + " should have the IETF variant");
+            }
+        }
+    }
+
+    @Test
+    public void test_compilePlan_fastFileSha256ShouldHaveSha256Format_38() throws ParseException {
+        JSONArray logLines = generateWrittenLines(100);
+
+        for (Object logLine : logLines) {
+            String actual = (String) ((JSONObject) logLine).get("fileSHA256");
+
+            assertTrue(actual.matches(sha256Regex), "Fast SHA256 should have correct format for SHA256");
+        }
+    }
+
+    @Test
+    public void test_compilePlan_fastFilepathShouldHaveWindowsFormat_39() throws ParseException {
+        JSONArray logLines = generateWrittenLines(100);
+
+        for (Object logLine : logLines) {
+            String actual = (String) ((JSONObject) logLine).get("pathToFile");
+
+            assertTrue(actual.matches(windowsFilePathRegex), "Fast file path should have windows file path format");
+        }
+    }
+
+    @Test
+    public void test_compilePlan_randomDispositionShouldBeBetweenOneAndFour_40() throws ParseException {
+        selectionModel.getFieldSettings().getDisposition().setInclude(true);
+
+        JSONArray logLines = generateWrittenLines(1000);
+
+        for (Object logLine : logLines) {
+            long disposition = (Long) ((JSONObject) logLine).get("disposition");
+
+            assertTrue(disposition >= 1 && disposition <= 4, "Disposition should be between 1 and 4");
+        }
+    }
+
+    /**
+     * Writes lines of the selection model the way a job does, through the
+     * compiled field writers
+     */
+    private JSONArray generateWrittenLines(int count) throws ParseException {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        logService.generate(plan, plan.newContext(), count, encoder);
+
+        JSONArray logLines = (JSONArray) new JSONParser().parse("[" + encoder + "]");
+        assertEquals(count, logLines.size(), "Every line should be written");
+        return logLines;
+    }
+
+    @Test
+    public void test_compilePlan_zeroReuseProbabilityShouldNotReuseFiles_41() {
+        GenerationSettings generationSettings = new GenerationSettings(Long.valueOf(42), false, false, false);
+        generationSettings.setFilePopulation(new FilePopulationSettings(100, 0.0));
+        selectionModel.setGenerationSettings(generationSettings);
+
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationContext context = plan.newContext();
+        Set<Object> paths = new HashSet<Object>();
+        for (int i = 0; i < 1000; i++) {
+            paths.add(logService.generateLogLine(plan, context).get("pathToFile"));
+        }
+
+        assertEquals(1000, paths.size(), "Every line should be about a new file");
+    }
+
+    /**
+     * Samples the compiled processing time field and checks the sample mean
+     * and the 99th and 99.99th percentiles against the closed form values
+     */
+    private void assertProcessingTimeQuantiles(ProcessingTime processingTime, double mean, double p99,
+            double p9999) {
+        selectionModel.getFieldSettings().setProcessingTime(processingTime);
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+        GenerationContext context = logService.compilePlan(selectionModel).newContext();
+        LongFieldWriter writer = (LongFieldWriter) new ProcessingTimeGenerator()
+                .compile(processingTime, new CompileContext(false, new RandomSource(1)));
+
+        int count = 4000000;
+        long[] values = new long[count];
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            values[i] = writer.nextLong(context);
+            total += values[i];
+        }
+        Arrays.sort(values);
+
+        double sampleMean = total / count;
+        double sampleP99 = values[(int) (count * 0.99)];
+        double sampleP9999 = values[(int) (count * 0.9999)];
+        assertTrue(Math.abs(sampleMean - mean) < mean * 0.05,
+                "Mean should be " + mean + " but was " + sampleMean);
+        assertTrue(Math.abs(sampleP99 - p99) < p99 * 0.05,
+                "99th percentile should be " + p99 + " but was " + sampleP99);
+        assertTrue(Math.abs(sampleP9999 - p9999) < p9999 * 0.1,
+                "99.99th percentile should be " + p9999 + " but was " + sampleP9999);
+    }
+
+    @Test
+    public void test_compilePlan_paddedLinesShouldHaveTheTargetSize_31() {
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+
+        for (int targetLineSize : new int[] { 512, 16384 }) {
+            Map<String, Object> messageSettings = new HashMap<String, Object>();
+            messageSettings.put("include", true);
+            messageSettings.put("values", new ArrayList<String>());
+            messageSettings.put("targetLineSize", targetLineSize);
+            selectionModel.getFieldSettings().getAdditionalFields().put("message", messageSettings);
+
+            GenerationPlan plan = logService.compilePlan(selectionModel);
+            JsonLineEncoder encoder = new JsonLineEncoder();
+            logService.generate(plan, plan.newContext(), 1000, encoder);
+
+            String[] logLines = encoder.toString().split("\n");
+            assertEquals(1000, logLines.length);
+            int exactLines = 0;
+            for (String logLine : logLines) {
+                int size = logLine.endsWith(",") ? logLine.length() - 1 : logLine.length();
+                // fields after the message, such as those of custom logs, are not counted
+                assertTrue(size >= targetLineSize && size < targetLineSize + 64,
+                        "A line of " + size + " bytes should be close to " + targetLineSize);
+                if (size == targetLineSize) {
+                    exactLines++;
+                }
+            }
+            assertTrue(exactLines > 800, "Lines ending with the message should have the target size");
+        }
+    }
+
+    @Test
+    public void test_compilePlan_patchedNegativeProcessingTimesShouldFitTheirSlot_32() throws ParseException {
+        ProcessingTime processingTime = new ProcessingTime(true, new ArrayList<Long>());
+        processingTime.setDistribution(ProcessingTimeDistribution.EMPIRICAL);
+        processingTime.setEmpiricalValues(List.of(Long.valueOf(-5000), Long.valueOf(10)));
+        processingTime.setEmpiricalCdf(List.of(0.0, 1.0));
+        selectionModel.getFieldSettings().setProcessingTime(processingTime);
+
+        selectionModel.setGenerationSettings(new GenerationSettings(Long.valueOf(42), false, false, false));
+        GenerationPlan plan = logService.compilePlan(selectionModel);
+        GenerationSettings patchedSettings = new GenerationSettings(Long.valueOf(42), false, false, false);
+        patchedSettings.setPatched(true);
+        selectionModel.setGenerationSettings(patchedSettings);
+        GenerationPlan patchedPlan = logService.compilePlan(selectionModel);
+
+        JsonLineEncoder expected = new JsonLineEncoder();
+        logService.generate(plan, plan.newContext(), 500, expected);
+        JsonLineEncoder actual = new JsonLineEncoder();
+        logService.generate(patchedPlan, patchedPlan.newContext(), 500, actual);
+
+        assertTrue(patchedPlan.isPatched(), "Plan should be patched");
+        JSONParser parser = new JSONParser();
+        assertEquals(parser.parse("[" + expected + "]"), parser.parse("[" + actual + "]"),
+                "Patched negative values should not overwrite the next field");
+    }
+
+    @Test
+    public void test_planSchedule_versionsShouldSwapInAtTheirStartTimes_1() throws ParseException {
+        FieldSettings fieldSettings = selectionModel.getFieldSettings();
+        fieldSettings.getTimeStamp()
+                .setClock(new EventClockSettings(Long.valueOf(1700000000), 10, ArrivalDistribution.POISSON, 1));
+        FieldSettings versionSettings = new FieldSettings(
+                fieldSettings.getTimeStamp(),
+                fieldSettings.getProcessingTime(),
+                fieldSettings.getCurrentUserID(),
+                fieldSettings.getBusinessGUID(),
+                fieldSettings.getPathToFile(),
+                fieldSettings.getFileSHA256(),
+                new Disposition(false, new ArrayList<Integer>()));
+        Map<String, String> renamedFields = new HashMap<String, String>();
+        renamedFields.put("currentUserID", "userId");
+        versionSettings.setRenamedFields(renamedFields);
+        List<SchemaVersion> schemaVersions = new ArrayList<SchemaVersion>();
+        schemaVersions.add(new SchemaVersion(60, versionSettings, null));
+        StreamSettings streamSettings = new StreamSettings(" ", 10, false);
+        streamSettings.setSchemaVersions(schemaVersions);
+        selectionModel.setStreamSettings(streamSettings);
+        GenerationSettings generationSettings = new GenerationSettings(Long.valueOf(42), false, false, false);
+        generationSettings.setSessions(new SessionSettings(10, 50, 2));
+        selectionModel.setGenerationSettings(generationSettings);
+
+        long start = System.nanoTime();
+        PlanSchedule schedule = PlanSchedule.compile(selectionModel,
+                selectionModel.getStreamSettings().getSchemaVersions(), logService::compilePlan);
+        GenerationPlan firstPlan = schedule.getPlan();
+        JsonLineEncoder encoder = new JsonLineEncoder();
+        assertFalse(schedule.advance(start + TimeUnit.SECONDS.toNanos(59)), "The version should not start early");
+        logService.generate(schedule.getPlan(), schedule.getContext(), 100, encoder);
+        assertTrue(schedule.advance(System.nanoTime() + TimeUnit.SECONDS.toNanos(61)),
+                "The version should start after its start second");
+        assertNotSame(firstPlan, schedule.getPlan());
+        assertEquals(100, schedule.getContext().getLinesWritten(), "The new plan should continue the line count");
+        logService.generate(schedule.getPlan(), schedule.getContext(), 100, encoder);
+
+        JSONArray logLines = (JSONArray) new JSONParser().parse("[" + encoder + "]");
+        assertEquals(200, logLines.size(), "Lines of both versions should be in one output");
+        long lastTimeStamp = 0;
+        List<Object> processingTimes = new ArrayList<Object>();
+        Set<Object> businessGuidsBefore = new HashSet<Object>();
+        boolean sessionContinued = false;
+        for (int i = 0; i < logLines.size(); i++) {
+            JSONObject logLine = (JSONObject) logLines.get(i);
+            boolean newVersion = i >= 100;
+            assertEquals(!newVersion, logLine.containsKey("currentUserID"));
+            assertEquals(newVersion, logLine.containsKey("userId"), "The field should be renamed");
+            if (newVersion) {
+                assertFalse(logLine.containsKey("disposition"), "The field should be removed");
+                sessionContinued |= businessGuidsBefore.contains(logLine.get("businessGUID"));
+            } else {
+                businessGuidsBefore.add(logLine.get("businessGUID"));
+            }
+            long timeStamp = (Long) logLine.get("timeStamp");
+            assertTrue(timeStamp >= lastTimeStamp, "Timestamps should not go back at the swap");
+            lastTimeStamp = timeStamp;
+            processingTimes.add(logLine.get("processingTime"));
+        }
+        assertNotEquals(processingTimes.subList(0, 100), processingTimes.subList(100, 200),
+                "The new version should not replay the first lines");
+        assertTrue(sessionContinued, "Sessions should continue across the swap");
+    }
+
+    @Test
+    public void test_randomSource_nextIntShouldBeWithinBound_1() {
+        RandomSource random = new RandomSource(7);
+        boolean[] seen = new boolean[5];
+
+        for (int i = 0; i < 1000; i++) {
+            int value = random.nextInt(5);
+            assertTrue(value >= 0 && value < 5, "Value should be within bound");
+            seen[value] = true;
+        }
+        for (boolean valueSeen : seen) {
+            assertTrue(valueSeen, "Every value within bound should be generated");
+        }
+    }
+
     @Test
     public void test_addMasterFieldList_shouldNotAddAnyFields_1() {
         Set<String> masterFieldList = new HashSet<String>();
@@ -800,86 +2285,85 @@ public class LogServiceTest {
     }
 
     @Test
-    public void test_chooseCustomLog_shouldReturnNull_1() {
+    public void test_chooseLayout_shouldReturnBaseLayout_1() {
         List<CustomLog> customLogs = new ArrayList<CustomLog>();
-        CustomLog customLog1 = new CustomLog(Double.valueOf(0), new HashMap<>());
-        CustomLog customLog2 = new CustomLog(Double.valueOf(0), new HashMap<>());
-        CustomLog customLog3 = new CustomLog(Double.valueOf(0), new HashMap<>());
+        customLogs.add(new CustomLog(Double.valueOf(0), new HashMap<>()));
+        customLogs.add(new CustomLog(Double.valueOf(0), new HashMap<>()));
+        customLogs.add(new CustomLog(Double.valueOf(0), new HashMap<>()));
+        selectionModel.setCustomLogs(customLogs);
+        GenerationPlan plan = logService.compilePlan(selectionModel);
 
-        CustomLog actual = logService.chooseCustomLog(customLogs);
+        LineLayout actual = plan.chooseLayout(new RandomSource(7));
 
-        assertNull(actual, "Custom log should be null if all frequencies are 0");
+        assertSame(plan.getBaseLayout(), actual, "Base layout should be chosen if all frequencies are 0");
     }
 
     @Test
-    public void test_chooseCustomLog_shouldReturnNull_2() {
-        List<CustomLog> customLogs = new ArrayList<CustomLog>();
+    public void test_chooseLayout_shouldReturnBaseLayout_2() {
+        selectionModel.setCustomLogs(new ArrayList<CustomLog>());
+        GenerationPlan plan = logService.compilePlan(selectionModel);
 
-        CustomLog actual = logService.chooseCustomLog(customLogs);
+        LineLayout actual = plan.chooseLayout(new RandomSource(7));
 
-        assertNull(actual, "Custom log should be null if list is empty");
+        assertSame(plan.getBaseLayout(), actual, "Base layout should be chosen if list is empty");
     }
 
     @Test
-    public void test_chooseCustomLog_shouldReturn1stLog_3() {
+    public void test_chooseLayout_shouldReturn1stLog_3() {
         List<CustomLog> customLogs = new ArrayList<CustomLog>();
-        CustomLog customLog1 = new CustomLog(Double.valueOf(1), new HashMap<>());
-        CustomLog customLog2 = new CustomLog(Double.valueOf(0), new HashMap<>());
-        CustomLog customLog3 = new CustomLog(Double.valueOf(0), new HashMap<>());
-        customLogs.add(customLog1);
-        customLogs.add(customLog2);
-        customLogs.add(customLog3);
+        customLogs.add(new CustomLog(Double.valueOf(1), new HashMap<>()));
+        customLogs.add(new CustomLog(Double.valueOf(0), new HashMap<>()));
+        customLogs.add(new CustomLog(Double.valueOf(0), new HashMap<>()));
+        selectionModel.setCustomLogs(customLogs);
+        GenerationPlan plan = logService.compilePlan(selectionModel);
 
-        CustomLog actual = logService.chooseCustomLog(customLogs);
+        LineLayout actual = plan.chooseLayout(new RandomSource(7));
 
-        assertSame(customLog1, actual, "Should choose 1st log if frequency is 100%");
+        assertSame(plan.getCustomLogLayouts()[0], actual, "Should choose 1st log if frequency is 100%");
     }
 
     @Test
-    public void test_chooseCustomLog_shouldReturn2ndLog_4() {
+    public void test_chooseLayout_shouldReturn2ndLog_4() {
         List<CustomLog> customLogs = new ArrayList<CustomLog>();
-        CustomLog customLog1 = new CustomLog(Double.valueOf(0), new HashMap<>());
-        CustomLog customLog2 = new CustomLog(Double.valueOf(1), new HashMap<>());
-        CustomLog customLog3 = new CustomLog(Double.valueOf(0), new HashMap<>());
-        customLogs.add(customLog1);
-        customLogs.add(customLog2);
-        customLogs.add(customLog3);
+        customLogs.add(new CustomLog(Double.valueOf(0), new HashMap<>()));
+        customLogs.add(new CustomLog(Double.valueOf(1), new HashMap<>()));
+        customLogs.add(new CustomLog(Double.valueOf(0), new HashMap<>()));
+        selectionModel.setCustomLogs(customLogs);
+        GenerationPlan plan = logService.compilePlan(selectionModel);
 
-        CustomLog actual = logService.chooseCustomLog(customLogs);
+        LineLayout actual = plan.chooseLayout(new RandomSource(7));
 
-        assertSame(customLog2, actual, "Should choose 2nd log if frequency is 100%");
+        assertSame(plan.getCustomLogLayouts()[1], actual, "Should choose 2nd log if frequency is 100%");
     }
 
     @Test
-    public void test_chooseCustomLog_shouldReturnLastLog_5() {
+    public void test_chooseLayout_shouldReturnLastLog_5() {
         List<CustomLog> customLogs = new ArrayList<CustomLog>();
-        CustomLog customLog1 = new CustomLog(Double.valueOf(0), new HashMap<>());
-        CustomLog customLog2 = new CustomLog(Double.valueOf(0), new HashMap<>());
-        CustomLog customLog3 = new CustomLog(Double.valueOf(1), new HashMap<>());
-        customLogs.add(customLog1);
-        customLogs.add(customLog2);
-        customLogs.add(customLog3);
+        customLogs.add(new CustomLog(Double.valueOf(0), new HashMap<>()));
+        customLogs.add(new CustomLog(Double.valueOf(0), new HashMap<>()));
+        customLogs.add(new CustomLog(Double.valueOf(1), new HashMap<>()));
+        selectionModel.setCustomLogs(customLogs);
+        GenerationPlan plan = logService.compilePlan(selectionModel);
 
-        CustomLog actual = logService.chooseCustomLog(customLogs);
+        LineLayout actual = plan.chooseLayout(new RandomSource(7));
 
-        assertSame(customLog3, actual, "Should choose last log if frequency is 100%");
+        assertSame(plan.getCustomLogLayouts()[2], actual, "Should choose last log if frequency is 100%");
     }
 
     @Test
-    public void test_chooseCustomLog_shouldReturnAnyCustomLog_6() {
+    public void test_chooseLayout_shouldReturnAnyCustomLog_6() {
         List<CustomLog> customLogs = new ArrayList<CustomLog>();
-        CustomLog customLog1 = new CustomLog(Double.valueOf(0.33), new HashMap<>());
-        CustomLog customLog2 = new CustomLog(Double.valueOf(0.33), new HashMap<>());
-        CustomLog customLog3 = new CustomLog(Double.valueOf(0.34), new HashMap<>());
-        customLogs.add(customLog1);
-        customLogs.add(customLog2);
-        customLogs.add(customLog3);
+        customLogs.add(new CustomLog(Double.valueOf(0.33), new HashMap<>()));
+        customLogs.add(new CustomLog(Double.valueOf(0.33), new HashMap<>()));
+        customLogs.add(new CustomLog(Double.valueOf(0.34), new HashMap<>()));
+        selectionModel.setCustomLogs(customLogs);
+        GenerationPlan plan = logService.compilePlan(selectionModel);
 
-        CustomLog actual = logService.chooseCustomLog(customLogs);
+        LineLayout actual = plan.chooseLayout(new RandomSource(7));
 
         assertThat(
-            "Custom log should be one of the values",
-            customLogs,
+            "Layout should be one of the custom log layouts",
+            Arrays.asList(plan.getCustomLogLayouts()),
             hasItem(actual)
         );
     }
@@ -1119,8 +2603,8 @@ public class LogServiceTest {
         String actual = logService.generateFileSHA256(values);
 
         assertTrue(
-            actual.matches(uuidRegex),
-            "Random UUID should be generated and have correct format for UUID"
+            actual.matches(sha256Regex),
+            "Random SHA256 should be generated and have correct format for SHA256"
         );
     }
 
@@ -1129,8 +2613,8 @@ public class LogServiceTest {
         String actual = logService.generateRandomFileSHA256();
 
         assertTrue(
-            actual.matches(uuidRegex),
-            "Random UUID should have correct format for UUID"
+            actual.matches(sha256Regex),
+            "Random SHA256 should have correct format for SHA256"
         );
     }
 
@@ -5,12 +5,10 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
-import static org.mockito.AdditionalMatchers.or;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
@@ -25,9 +23,8 @@ import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
-import org.json.simple.JSONObject;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -36,11 +33,15 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
 import com.ad1.loggenerator.exception.FilePathNotFoundException;
+import com.ad1.loggenerator.generation.GenerationContext;
+import com.ad1.loggenerator.generation.GenerationPlan;
+import com.ad1.loggenerator.generation.JsonLineEncoder;
 import com.ad1.loggenerator.model.BatchSettings;
 import com.ad1.loggenerator.model.CustomLog;
 import com.ad1.loggenerator.model.FieldSettings;
 import com.ad1.loggenerator.model.JobStatus;
 import com.ad1.loggenerator.model.MalwareSettings;
+import com.ad1.loggenerator.model.SchemaVersion;
 import com.ad1.loggenerator.model.SelectionModel;
 import com.ad1.loggenerator.model.StreamSettings;
 import com.ad1.loggenerator.model.StreamTracker;
@@ -130,7 +131,9 @@ public class StreamingServiceTest {
                 mode,
                 streamSettings,
                 batchSettings,
-                customLogs);
+                customLogs,
+                null,
+                null);
 
         // Set up for stream tracker of size 0, 1, 2
         streamTracker0 = createStreamTracker(0);
@@ -157,14 +160,14 @@ public class StreamingServiceTest {
     public void test_streamToFile_streamTrackerShouldHaveCorrectLogCount_2() {
         streamingService.streamToFile(selectionModel, streamTracker1);
 
-        assertEquals(1, streamTracker1.getLogCount(), "Log count in stream tracker should be correct");
+        assertEquals(LogService.BLOCK_SIZE, streamTracker1.getLogCount(), "Log count in stream tracker should be correct");
     }
 
     @Test
     public void test_streamToFile_streamTrackerShouldHaveCorrectLogCount_3() {
         streamingService.streamToFile(selectionModel, streamTracker2);
 
-        assertEquals(2, streamTracker2.getLogCount(), "Log count in stream tracker should be correct");
+        assertEquals(2 * LogService.BLOCK_SIZE, streamTracker2.getLogCount(), "Log count in stream tracker should be correct");
     }
 
     @Test
@@ -180,7 +183,7 @@ public class StreamingServiceTest {
         selectionModel.setRepeatingLoglinesPercent(1);
         streamingService.streamToFile(selectionModel, streamTracker1);
 
-        assertEquals(1, streamTracker1.getLogCount(), "Log count in stream tracker should be correct");
+        assertEquals(LogService.BLOCK_SIZE, streamTracker1.getLogCount(), "Log count in stream tracker should be correct");
     }
 
     @Test
@@ -188,7 +191,7 @@ public class StreamingServiceTest {
         selectionModel.setRepeatingLoglinesPercent(1);
         streamingService.streamToFile(selectionModel, streamTracker2);
 
-        assertEquals(2, streamTracker2.getLogCount(), "Log count in stream tracker should be correct");
+        assertEquals(2 * LogService.BLOCK_SIZE, streamTracker2.getLogCount(), "Log count in stream tracker should be correct");
     }
 
     @Test
@@ -332,7 +335,8 @@ public class StreamingServiceTest {
         streamingService.streamToFile(selectionModel, streamTracker0);
 
         verify(selectionModel, times(2)).getCustomLogs();
-        verify(selectionModel, times(1)).getFieldSettings();
+        verify(selectionModel, times(2)).getFieldSettings();
+        verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
@@ -341,7 +345,7 @@ public class StreamingServiceTest {
 
         streamingService.streamToFile(selectionModel, streamTracker1);
 
-        verify(selectionModel, times(3)).getCustomLogs();
+        verify(selectionModel, times(2)).getCustomLogs();
         verify(selectionModel, times(2)).getFieldSettings();
         verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
@@ -352,9 +356,9 @@ public class StreamingServiceTest {
 
         streamingService.streamToFile(selectionModel, streamTracker2);
 
-        verify(selectionModel, times(4)).getCustomLogs();
-        verify(selectionModel, times(3)).getFieldSettings();
-        verify(selectionModel, times(2)).getRepeatingLoglinesPercent();
+        verify(selectionModel, times(2)).getCustomLogs();
+        verify(selectionModel, times(2)).getFieldSettings();
+        verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
@@ -364,7 +368,8 @@ public class StreamingServiceTest {
         streamingService.streamToFile(selectionModel, streamTracker0);
 
         verify(selectionModel, times(2)).getCustomLogs();
-        verify(selectionModel, times(1)).getFieldSettings();
+        verify(selectionModel, times(2)).getFieldSettings();
+        verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
@@ -373,7 +378,7 @@ public class StreamingServiceTest {
 
         streamingService.streamToFile(selectionModel, streamTracker1);
 
-        verify(selectionModel, times(3)).getCustomLogs();
+        verify(selectionModel, times(2)).getCustomLogs();
         verify(selectionModel, times(2)).getFieldSettings();
         verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
@@ -383,7 +388,7 @@ public class StreamingServiceTest {
         selectionModel = createSelectionModel(1);
         streamingService.streamToFile(selectionModel, streamTracker2);
 
-        verify(selectionModel, times(3)).getCustomLogs();
+        verify(selectionModel, times(2)).getCustomLogs();
         verify(selectionModel, times(2)).getFieldSettings();
         verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
@@ -391,67 +396,65 @@ public class StreamingServiceTest {
     @Test
     public void test_streamToFile_correctLogServiceCallsNoRepeating_20() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         streamingService = new StreamingService(logService);
         streamingService.streamToFile(selectionModel, streamTracker0);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(any(List.class), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(any(List.class));
+                .compilePlan(any(SelectionModel.class));
         verify(logService, times(0))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
     }
 
     @Test
     public void test_streamToFile_correctLogServiceCallsNoRepeating_21() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         streamingService = new StreamingService(logService);
         streamingService.streamToFile(selectionModel, streamTracker1);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(any(List.class), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(any(List.class));
-        verify(logService, times(1))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .compilePlan(any(SelectionModel.class));
+        verify(logService, times(LogService.BLOCK_SIZE))
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
     }
 
     @Test
     public void test_streamToFile_correctLogServiceCallsNoRepeating_22() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         streamingService = new StreamingService(logService);
         streamingService.streamToFile(selectionModel, streamTracker2);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(any(List.class), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(any(List.class));
-        verify(logService, times(2))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .compilePlan(any(SelectionModel.class));
+        verify(logService, times(2 * LogService.BLOCK_SIZE))
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
     }
 
     @Test
     public void test_streamToFile_correctLogServiceCallsRepeating_23() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         streamingService = new StreamingService(logService);
 
@@ -459,20 +462,19 @@ public class StreamingServiceTest {
         streamingService.streamToFile(selectionModel, streamTracker0);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(any(List.class), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(any(List.class));
+                .compilePlan(any(SelectionModel.class));
         verify(logService, times(0))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
     }
 
     @Test
     public void test_streamToFile_correctLogServiceCallsRepeating_24() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         streamingService = new StreamingService(logService);
 
@@ -480,20 +482,19 @@ public class StreamingServiceTest {
         streamingService.streamToFile(selectionModel, streamTracker1);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(any(List.class), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(any(List.class));
-        verify(logService, times(1))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .compilePlan(any(SelectionModel.class));
+        verify(logService, times(LogService.BLOCK_SIZE / 2))
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
     }
 
     @Test
     public void test_streamToFile_correctLogServiceCallsRepeating_25() {
         logService = mock(LogService.class);
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
 
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         streamingService = new StreamingService(logService);
 
@@ -501,11 +502,9 @@ public class StreamingServiceTest {
         streamingService.streamToFile(selectionModel, streamTracker2);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(any(List.class), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(any(List.class));
-        verify(logService, times(1))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .compilePlan(any(SelectionModel.class));
+        verify(logService, times(LogService.BLOCK_SIZE))
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
     }
 
     @Test
@@ -583,7 +582,8 @@ public class StreamingServiceTest {
 
         verify(selectionModel, times(3)).getStreamSettings();
         verify(selectionModel, times(2)).getCustomLogs();
-        verify(selectionModel, times(1)).getFieldSettings();
+        verify(selectionModel, times(2)).getFieldSettings();
+        verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
@@ -592,9 +592,9 @@ public class StreamingServiceTest {
         streamingService.streamToAddress(selectionModel, streamTracker1);
 
         verify(selectionModel, times(3)).getStreamSettings();
-        verify(selectionModel, times(12)).getCustomLogs();
-        verify(selectionModel, times(11)).getFieldSettings();
-        verify(selectionModel, times(10)).getRepeatingLoglinesPercent();
+        verify(selectionModel, times(2)).getCustomLogs();
+        verify(selectionModel, times(2)).getFieldSettings();
+        verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
@@ -603,9 +603,9 @@ public class StreamingServiceTest {
         streamingService.streamToAddress(selectionModel, streamTracker2);
 
         verify(selectionModel, times(3)).getStreamSettings();
-        verify(selectionModel, times(22)).getCustomLogs();
-        verify(selectionModel, times(21)).getFieldSettings();
-        verify(selectionModel, times(20)).getRepeatingLoglinesPercent();
+        verify(selectionModel, times(2)).getCustomLogs();
+        verify(selectionModel, times(2)).getFieldSettings();
+        verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
@@ -615,7 +615,8 @@ public class StreamingServiceTest {
 
         verify(selectionModel, times(3)).getStreamSettings();
         verify(selectionModel, times(2)).getCustomLogs();
-        verify(selectionModel, times(1)).getFieldSettings();
+        verify(selectionModel, times(2)).getFieldSettings();
+        verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
@@ -624,9 +625,9 @@ public class StreamingServiceTest {
         streamingService.streamToAddress(selectionModel, streamTracker1);
 
         verify(selectionModel, times(3)).getStreamSettings();
-        verify(selectionModel, times(7)).getCustomLogs();
-        verify(selectionModel, times(6)).getFieldSettings();
-        verify(selectionModel, times(5)).getRepeatingLoglinesPercent();
+        verify(selectionModel, times(2)).getCustomLogs();
+        verify(selectionModel, times(2)).getFieldSettings();
+        verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
@@ -635,69 +636,67 @@ public class StreamingServiceTest {
         streamingService.streamToAddress(selectionModel, streamTracker2);
 
         verify(selectionModel, times(3)).getStreamSettings();
-        verify(selectionModel, times(12)).getCustomLogs();
-        verify(selectionModel, times(11)).getFieldSettings();
-        verify(selectionModel, times(10)).getRepeatingLoglinesPercent();
+        verify(selectionModel, times(2)).getCustomLogs();
+        verify(selectionModel, times(2)).getFieldSettings();
+        verify(selectionModel, times(1)).getRepeatingLoglinesPercent();
     }
 
     @Test
     public void test_streamToAddress_correctLogServiceCallsNoRepeating_41() throws InterruptedException {
         logService = mock(LogService.class);
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         streamingService = new StreamingService(logService);
         streamingService.streamToAddress(selectionModel, streamTracker0);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
     }
 
     @Test
     public void test_streamToAddress_correctLogServiceCallsNoRepeating_42() throws InterruptedException {
         logService = mock(LogService.class);
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         streamingService = new StreamingService(logService);
         streamingService.streamToAddress(selectionModel, streamTracker1);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
         verify(logService, times(10))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
     }
 
     @Test
     public void test_streamToAddress_correctLogServiceCallsNoRepeating_43() throws InterruptedException {
         logService = mock(LogService.class);
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         streamingService = new StreamingService(logService);
         streamingService.streamToAddress(selectionModel, streamTracker2);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
         verify(logService, times(20))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
     }
 
     @Test
     public void test_streamToAddress_correctLogServiceCallsRepeating_44() throws InterruptedException {
         logService = mock(LogService.class);
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         selectionModel.setRepeatingLoglinesPercent(1);
 
@@ -705,17 +704,16 @@ public class StreamingServiceTest {
         streamingService.streamToAddress(selectionModel, streamTracker0);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
     }
 
     @Test
     public void test_streamToAddress_correctLogServiceCallsRepeating_45() throws InterruptedException {
         logService = mock(LogService.class);
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         selectionModel.setRepeatingLoglinesPercent(1);
 
@@ -723,19 +721,18 @@ public class StreamingServiceTest {
         streamingService.streamToAddress(selectionModel, streamTracker1);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
         verify(logService, times(5))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
     }
 
     @Test
     public void test_streamToAddress_correctLogServiceCallsRepeating_46() throws InterruptedException {
         logService = mock(LogService.class);
-        when(logService.generateLogLine(
-                any(SelectionModel.class),
-                any(Set.class))).thenReturn(new JSONObject());
+        doCallRealMethod().when(logService)
+                .generate(any(GenerationPlan.class), any(GenerationContext.class), anyInt(), any(JsonLineEncoder.class));
+        when(logService.compilePlan(any(SelectionModel.class)))
+                .thenAnswer(invocation -> new LogService().compilePlan(invocation.getArgument(0)));
 
         selectionModel.setRepeatingLoglinesPercent(1);
 
@@ -743,11 +740,9 @@ public class StreamingServiceTest {
         streamingService.streamToAddress(selectionModel, streamTracker2);
 
         verify(logService, times(1))
-                .preProcessCustomLogs(or(any(List.class), eq(null)), any(SelectionModel.class));
-        verify(logService, times(1))
-                .getMasterFieldsList(or(any(List.class), eq(null)));
+                .compilePlan(any(SelectionModel.class));
         verify(logService, times(10))
-                .generateLogLine(any(SelectionModel.class), any(Set.class));
+                .writeLogLine(any(GenerationPlan.class), any(GenerationContext.class), any(JsonLineEncoder.class));
     }
 
     @Test
@@ -831,6 +826,39 @@ public class StreamingServiceTest {
         assertFalse(file.exists(), "Temp file should not exist");
     }
 
+    @Test
+    public void test_streamToFile_fileShouldHaveFieldsOfStartedSchemaVersion_59() {
+        FieldSettings versionSettings = new FieldSettings(
+                fieldSettings.getTimeStamp(),
+                fieldSettings.getProcessingTime(),
+                fieldSettings.getCurrentUserID(),
+                fieldSettings.getBusinessGUID(),
+                fieldSettings.getPathToFile(),
+                fieldSettings.getFileSHA256(),
+                fieldSettings.getDisposition());
+        versionSettings.setRenamedFields(Map.of("businessGUID", "tenantId"));
+        streamSettings.setSchemaVersions(List.of(new SchemaVersion(0, versionSettings, null)));
+
+        streamingService.streamToFile(selectionModel, streamTracker1);
+        String fileName = streamModeFolder + streamTracker1.getJobId() + ".json";
+        File jsonLogFile = new File(fileName);
+
+        try {
+            BufferedReader reader = new BufferedReader(new FileReader(jsonLogFile));
+            String line = reader.readLine();
+            String actual = "";
+            while (line != null) {
+                actual = actual + line;
+                line = reader.readLine();
+            }
+            assertTrue(actual.matches(jsonRegexString), "Logs written to file should be correct");
+            assertTrue(actual.contains("\"tenantId\""), "Logs should have the renamed field");
+            assertFalse(actual.contains("\"businessGUID\""), "Logs should not have the old field name");
+        } catch (IOException e) {
+            fail("IOException ocurred while trying to read the file generated");
+        }
+    }
+
     public StreamTracker createStreamTracker(int size) {
         StreamTracker streamTracker = mock(StreamTracker.class);
 